@@ -0,0 +1,18 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.enums.AnalyticsDimension;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+//GROUP BY groupBy CON SUMA DE LINEAS, UNIDADES E INGRESOS. LOS FILTROS VACIOS O NULL NO FILTRAN; LAS FECHAS SON
+//DIAS DE CREACION DE LA LINEA, AMBOS INCLUIDOS
+public record ColumnQuery(AnalyticsDimension groupBy,
+                          Set<OrderStatus> statuses,
+                          Set<Long> productIds,
+                          Set<Long> categoryIds,
+                          Set<Long> userIds,
+                          LocalDate startDate,
+                          LocalDate endDate) {
+}
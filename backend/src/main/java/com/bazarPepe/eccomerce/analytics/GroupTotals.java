@@ -0,0 +1,75 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.enums.AnalyticsDimension;
+import com.bazarPepe.eccomerce.enums.AnalyticsMetric;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+//RESULTADO DE UNA CONSULTA SOBRE LA FOTO: UNA POSICION POR GRUPO (CODIGO DE DICCIONARIO, ESTADO, DIA O MES)
+public final class GroupTotals {
+
+    private final OrderItemColumns columns;
+    private final AnalyticsDimension groupBy;
+    private final long[] itemCount;
+    private final long[] units;
+    private final long[] revenueCents;
+
+    GroupTotals(OrderItemColumns columns, AnalyticsDimension groupBy, long[] itemCount, long[] units, long[] revenueCents) {
+        this.columns = columns;
+        this.groupBy = groupBy;
+        this.itemCount = itemCount;
+        this.units = units;
+        this.revenueCents = revenueCents;
+    }
+
+    //GRUPOS CON ALGUNA LINEA, DE MAYOR A MENOR SEGUN metric
+    public int[] top(AnalyticsMetric metric, int limit) {
+        Comparator<Integer> order = switch (metric) {
+            case ITEMS -> Comparator.comparingLong(key -> itemCount[key]);
+            case UNITS -> Comparator.comparingLong(key -> units[key]);
+            case REVENUE -> Comparator.comparingLong(key -> revenueCents[key]);
+        };
+        return IntStream.range(0, itemCount.length)
+                .filter(key -> itemCount[key] > 0)
+                .boxed()
+                .sorted(order.reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    //GRUPOS CON ALGUNA LINEA EN SU ORDEN NATURAL (ESTADO, DIA O MES ASCENDENTE)
+    public int[] all() {
+        return IntStream.range(0, itemCount.length)
+                .filter(key -> itemCount[key] > 0)
+                .toArray();
+    }
+
+    public String label(int key) {
+        return columns.label(groupBy, key);
+    }
+
+    public long itemCount(int key) {
+        return itemCount[key];
+    }
+
+    public long units(int key) {
+        return units[key];
+    }
+
+    public BigDecimal revenue(int key) {
+        return BigDecimal.valueOf(revenueCents[key], 2);
+    }
+
+    //LINEAS QUE HAN PASADO LOS FILTROS Y TIENEN VALOR EN LA COLUMNA DEL GROUP BY
+    public long matchedItems() {
+        long total = 0;
+        for (long count : itemCount) {
+            total += count;
+        }
+        return total;
+    }
+
+}
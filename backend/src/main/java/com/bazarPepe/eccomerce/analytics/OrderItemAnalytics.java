@@ -0,0 +1,117 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//MANTIENE LA FOTO EN COLUMNAS DE order_items Y EJECUTA LAS CONSULTAS SOBRE ELLA. SE RECARGA ENTERA CADA
+//analytics.refresh-interval: LOS DATOS PUEDEN IR ESE TIEMPO POR DETRAS DE LA BASE DE DATOS. MIENTRAS SE CARGA LA NUEVA
+//SE SIGUE CONSULTANDO LA ANTERIOR, ASI QUE DURANTE LA CARGA HAY DOS EN MEMORIA
+@Component
+@Slf4j
+public class OrderItemAnalytics {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    //CON MYSQL CONNECTOR/J LAS FILAS LLEGAN UNA A UNA EN LUGAR DE LEER TODO EL RESULTADO ANTES DE EMPEZAR
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final String LOAD =
+            "select oi.status,oi.product_id,p.category_id,oi.user_id,oi.created_at,oi.quantity,oi.price " +
+            "from order_items oi left join products p on p.id=oi.product_id order by oi.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final Timer loadTimer;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile OrderItemColumns columns;
+
+    public OrderItemAnalytics(JdbcTemplate jdbcTemplate,
+                              DataSource dataSource,
+                              MeterRegistry meterRegistry,
+                              @Value("${analytics.enabled:true}") boolean enabled,
+                              @Value("${analytics.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+        this.enabled = enabled;
+        //UN POOL PROPIO: UNA CONSULTA GRANDE NO OCUPA LOS HILOS DEL POOL COMUN QUE USAN LOS PARALLEL STREAMS
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.loadTimer = Timer.builder("analytics.order.items.load")
+                .description("Tiempo en cargar la foto en columnas de order_items")
+                .register(meterRegistry);
+        Gauge.builder("analytics.order.items.rows", this, analytics -> analytics.current().map(OrderItemColumns::size).orElse(0))
+                .description("Filas de la foto en columnas de order_items")
+                .register(meterRegistry);
+    }
+
+    //VACIO HASTA QUE TERMINA LA PRIMERA CARGA
+    public Optional<OrderItemColumns> current() {
+        return Optional.ofNullable(columns);
+    }
+
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.refresh-interval:10m}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        reload();
+    }
+
+    //DEVUELVE FALSE SI YA HAY UNA CARGA EN CURSO
+    public boolean reload() {
+        if (!loading.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            columns = loadTimer.record(this::load);
+            return true;
+        } catch (RuntimeException e) {
+            //SE SIGUE CONSULTANDO LA FOTO ANTERIOR HASTA LA PROXIMA CARGA
+            log.warn("No se ha podido cargar la foto en columnas de order_items", e);
+            return false;
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private OrderItemColumns load() {
+        Integer expected = jdbcTemplate.queryForObject("select count(*) from order_items", Integer.class);
+        OrderItemColumns.Builder builder = new OrderItemColumns.Builder(expected == null ? 0 : expected);
+        streamingJdbcTemplate.query(LOAD, resultSet -> {
+            int status = resultSet.getInt("status");
+            builder.add(resultSet.wasNull() ? null : STATUSES[status],
+                    resultSet.getObject("product_id", Long.class),
+                    resultSet.getObject("category_id", Long.class),
+                    resultSet.getObject("user_id", Long.class),
+                    resultSet.getTimestamp("created_at").toLocalDateTime().toLocalDate(),
+                    resultSet.getInt("quantity"),
+                    resultSet.getBigDecimal("price"));
+        });
+        OrderItemColumns built = builder.build();
+        log.info("Foto en columnas de order_items cargada: {} filas", built.size());
+        return built;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+}
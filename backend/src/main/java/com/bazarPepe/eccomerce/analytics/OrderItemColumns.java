@@ -0,0 +1,420 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.enums.AnalyticsDimension;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+//FOTO DE order_items EN COLUMNAS, INMUTABLE: UN ARRAY PRIMITIVO POR CAMPO, CON LOS IDS (PRODUCTO, CATEGORIA, USUARIO)
+//SUSTITUIDOS POR SU POSICION EN UN DICCIONARIO Y UN BITMAP POR ESTADO. UNA CONSULTA RECORRE LAS FILAS EN PARALELO POR
+//BLOQUES Y SOLO LEE LAS COLUMNAS QUE USA: UNOS 25 BYTES POR LINEA EN LUGAR DE UNA ENTIDAD Y SUS RELACIONES
+public final class OrderItemColumns {
+
+    //64 PALABRAS DE BITMAP: 4096 FILAS POR BLOQUE, CON SU DIA MINIMO Y MAXIMO PARA SALTARSE LOS QUE NO ENTRAN EN EL RANGO
+    private static final int BLOCK_WORDS = 64;
+    private static final int BLOCK_ROWS = BLOCK_WORDS * Long.SIZE;
+    //POR DEBAJO NO COMPENSA REPARTIR EL TRABAJO ENTRE HILOS
+    private static final int MIN_LEAF_BLOCKS = 16;
+    //A PARTIR DE AQUI CADA HOJA RESERVA ARRAYS GRANDES: SE HACEN TANTAS HOJAS COMO HILOS Y NO MAS
+    private static final int LARGE_GROUP_COUNT = 1 << 16;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final int size;
+    private final LocalDateTime builtAt;
+
+    //UNA POSICION POR FILA, EN ORDEN DE ID
+    private final byte[] status;
+    private final int[] product;
+    private final int[] user;
+    private final int[] day;
+    private final int[] quantity;
+    private final long[] revenueCents;
+
+    //DICCIONARIOS: CODIGO -> ID
+    private final long[] productIds;
+    private final long[] categoryIds;
+    private final long[] userIds;
+    //CODIGO DE PRODUCTO -> CODIGO DE CATEGORIA (-1 SIN CATEGORIA)
+    private final int[] productCategory;
+
+    //BIT i DE statusBits[s] A 1 SI LA FILA i ESTA EN EL ESTADO s
+    private final long[][] statusBits;
+    private final int[] blockMinDay;
+    private final int[] blockMaxDay;
+    private final int minDay;
+    //DIA - minDay -> MES DESDE EL PRIMERO DE LA FOTO
+    private final int[] dayMonth;
+
+    private OrderItemColumns(Builder builder) {
+        this.size = builder.size;
+        this.builtAt = LocalDateTime.now();
+        this.status = builder.status;
+        this.product = builder.product;
+        this.user = builder.user;
+        this.day = builder.day;
+        this.quantity = builder.quantity;
+        this.revenueCents = builder.revenueCents;
+        this.productIds = builder.productIds.toArray();
+        this.categoryIds = builder.categoryIds.toArray();
+        this.userIds = builder.userIds.toArray();
+        this.productCategory = Arrays.copyOf(builder.productCategory, productIds.length);
+
+        int words = (size + Long.SIZE - 1) / Long.SIZE;
+        this.statusBits = new long[STATUSES.length][words];
+        int blocks = (size + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        this.blockMinDay = new int[blocks];
+        this.blockMaxDay = new int[blocks];
+        Arrays.fill(blockMinDay, Integer.MAX_VALUE);
+        Arrays.fill(blockMaxDay, Integer.MIN_VALUE);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (status[i] >= 0) {
+                statusBits[status[i]][i >>> 6] |= 1L << i;
+            }
+            int block = i / BLOCK_ROWS;
+            blockMinDay[block] = Math.min(blockMinDay[block], day[i]);
+            blockMaxDay[block] = Math.max(blockMaxDay[block], day[i]);
+            min = Math.min(min, day[i]);
+            max = Math.max(max, day[i]);
+        }
+        this.minDay = size == 0 ? 0 : min;
+        this.dayMonth = new int[size == 0 ? 0 : max - min + 1];
+        YearMonth first = YearMonth.from(LocalDate.ofEpochDay(minDay));
+        for (int d = 0; d < dayMonth.length; d++) {
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(minDay + d));
+            dayMonth[d] = (month.getYear() - first.getYear()) * 12 + month.getMonthValue() - first.getMonthValue();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    public GroupTotals aggregate(ColumnQuery query, ForkJoinPool pool) {
+        Scan scan = new Scan(query);
+        Accumulators result = scan.empty || size == 0
+                ? new Accumulators(scan.groups)
+                : pool.invoke(new ScanTask(scan, 0, blockMinDay.length, scan.leafBlocks(pool.getParallelism())));
+        return new GroupTotals(this, query.groupBy(), result.itemCount, result.units, result.revenueCents);
+    }
+
+    //NOMBRE DE UN GRUPO PARA LA RESPUESTA: ID, ESTADO, DIA (yyyy-MM-dd) O MES (yyyy-MM)
+    String label(AnalyticsDimension dimension, int key) {
+        return switch (dimension) {
+            case STATUS -> STATUSES[key].name();
+            case PRODUCT -> String.valueOf(productIds[key]);
+            case CATEGORY -> String.valueOf(categoryIds[key]);
+            case USER -> String.valueOf(userIds[key]);
+            case DAY -> LocalDate.ofEpochDay(minDay + key).toString();
+            case MONTH -> YearMonth.from(LocalDate.ofEpochDay(minDay)).plusMonths(key).toString();
+        };
+    }
+
+    private int groupCount(AnalyticsDimension dimension) {
+        return switch (dimension) {
+            case STATUS -> STATUSES.length;
+            case PRODUCT -> productIds.length;
+            case CATEGORY -> categoryIds.length;
+            case USER -> userIds.length;
+            case DAY -> dayMonth.length;
+            case MONTH -> dayMonth.length == 0 ? 0 : dayMonth[dayMonth.length - 1] + 1;
+        };
+    }
+
+    //LA CONSULTA TRADUCIDA A CODIGOS DE DICCIONARIO, PARA QUE CADA FILA SE COMPRUEBE CON ACCESOS A ARRAYS
+    private final class Scan {
+
+        private final AnalyticsDimension groupBy;
+        private final int groups;
+        //NULL SI NO SE FILTRA POR ESTADO
+        private final long[][] statusFilter;
+        //PRODUCTO Y CATEGORIA SE COMBINAN EN UN SOLO FILTRO POR CODIGO DE PRODUCTO
+        private final boolean[] allowedProducts;
+        private final boolean[] allowedUsers;
+        private final int fromDay;
+        private final int toDay;
+        private final boolean empty;
+
+        private Scan(ColumnQuery query) {
+            this.groupBy = query.groupBy();
+            this.groups = groupCount(groupBy);
+            this.statusFilter = isEmpty(query.statuses()) ? null
+                    : query.statuses().stream().map(s -> statusBits[s.ordinal()]).toArray(long[][]::new);
+            boolean[] products = allowed(productIds, query.productIds());
+            boolean[] categories = allowed(categoryIds, query.categoryIds());
+            if (categories != null) {
+                boolean[] inCategory = new boolean[productIds.length];
+                for (int p = 0; p < productIds.length; p++) {
+                    inCategory[p] = productCategory[p] >= 0 && categories[productCategory[p]]
+                            && (products == null || products[p]);
+                }
+                products = inCategory;
+            }
+            this.allowedProducts = products;
+            this.allowedUsers = allowed(userIds, query.userIds());
+            this.fromDay = query.startDate() != null ? (int) query.startDate().toEpochDay() : Integer.MIN_VALUE;
+            this.toDay = query.endDate() != null ? (int) query.endDate().toEpochDay() : Integer.MAX_VALUE;
+            this.empty = fromDay > toDay || groups == 0
+                    || (allowedProducts != null && !anyTrue(allowedProducts))
+                    || (allowedUsers != null && !anyTrue(allowedUsers));
+        }
+
+        private int leafBlocks(int parallelism) {
+            int blocks = blockMinDay.length;
+            int leaves = groups > LARGE_GROUP_COUNT ? parallelism : parallelism * 4;
+            return Math.max(MIN_LEAF_BLOCKS, (blocks + leaves - 1) / leaves);
+        }
+
+        private Accumulators scan(int fromBlock, int toBlock) {
+            Accumulators acc = new Accumulators(groups);
+            long[] count = acc.itemCount;
+            long[] units = acc.units;
+            long[] revenue = acc.revenueCents;
+            int lastWord = (size - 1) >>> 6;
+            long tailMask = size % Long.SIZE == 0 ? -1L : (1L << size) - 1;
+
+            for (int block = fromBlock; block < toBlock; block++) {
+                if (blockMaxDay[block] < fromDay || blockMinDay[block] > toDay) {
+                    continue;
+                }
+                boolean checkDay = blockMinDay[block] < fromDay || blockMaxDay[block] > toDay;
+                int endWord = Math.min((block + 1) * BLOCK_WORDS, lastWord + 1);
+                for (int w = block * BLOCK_WORDS; w < endWord; w++) {
+                    long bits = word(w, lastWord, tailMask);
+                    while (bits != 0) {
+                        int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        int p = product[i];
+                        if (allowedProducts != null && (p < 0 || !allowedProducts[p])) {
+                            continue;
+                        }
+                        if (allowedUsers != null && (user[i] < 0 || !allowedUsers[user[i]])) {
+                            continue;
+                        }
+                        if (checkDay && (day[i] < fromDay || day[i] > toDay)) {
+                            continue;
+                        }
+                        int key = switch (groupBy) {
+                            case STATUS -> status[i];
+                            case PRODUCT -> p;
+                            case CATEGORY -> p < 0 ? -1 : productCategory[p];
+                            case USER -> user[i];
+                            case DAY -> day[i] - minDay;
+                            case MONTH -> dayMonth[day[i] - minDay];
+                        };
+                        if (key < 0) {
+                            continue;
+                        }
+                        count[key]++;
+                        units[key] += quantity[i];
+                        revenue[key] += revenueCents[i];
+                    }
+                }
+            }
+            return acc;
+        }
+
+        //FILAS CANDIDATAS DE UNA PALABRA: LAS DE LOS ESTADOS PEDIDOS, O TODAS
+        private long word(int w, int lastWord, long tailMask) {
+            if (statusFilter == null) {
+                return w == lastWord ? tailMask : -1L;
+            }
+            long bits = 0;
+            for (long[] statusWords : statusFilter) {
+                bits |= statusWords[w];
+            }
+            return bits;
+        }
+    }
+
+    //DIVIDE EL RANGO DE BLOQUES HASTA leafBlocks Y SUMA LOS RESULTADOS DE LAS DOS MITADES
+    private static final class ScanTask extends RecursiveTask<Accumulators> {
+
+        private final Scan scan;
+        private final int fromBlock;
+        private final int toBlock;
+        private final int leafBlocks;
+
+        private ScanTask(Scan scan, int fromBlock, int toBlock, int leafBlocks) {
+            this.scan = scan;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.leafBlocks = leafBlocks;
+        }
+
+        @Override
+        protected Accumulators compute() {
+            if (toBlock - fromBlock <= leafBlocks) {
+                return scan.scan(fromBlock, toBlock);
+            }
+            int middle = (fromBlock + toBlock) >>> 1;
+            ScanTask right = new ScanTask(scan, middle, toBlock, leafBlocks);
+            right.fork();
+            Accumulators left = new ScanTask(scan, fromBlock, middle, leafBlocks).compute();
+            return left.add(right.join());
+        }
+    }
+
+    private static final class Accumulators {
+
+        private final long[] itemCount;
+        private final long[] units;
+        private final long[] revenueCents;
+
+        private Accumulators(int groups) {
+            this.itemCount = new long[groups];
+            this.units = new long[groups];
+            this.revenueCents = new long[groups];
+        }
+
+        private Accumulators add(Accumulators other) {
+            for (int g = 0; g < itemCount.length; g++) {
+                itemCount[g] += other.itemCount[g];
+                units[g] += other.units[g];
+                revenueCents[g] += other.revenueCents[g];
+            }
+            return this;
+        }
+    }
+
+    //POSICIONES DEL DICCIONARIO QUE ESTAN EN ids; NULL SI NO SE FILTRA POR ESA COLUMNA
+    private static boolean[] allowed(long[] dictionary, Set<Long> ids) {
+        if (isEmpty(ids)) {
+            return null;
+        }
+        boolean[] allowed = new boolean[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            allowed[code] = ids.contains(dictionary[code]);
+        }
+        return allowed;
+    }
+
+    private static boolean anyTrue(boolean[] values) {
+        for (boolean value : values) {
+            if (value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmpty(Set<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    //SE LLENA FILA A FILA EN ORDEN DE ID Y SE CONGELA CON build(). LA FOTO SE QUEDA CON SUS ARRAYS: NO SE REUTILIZA
+    public static final class Builder {
+
+        private int size;
+        private byte[] status;
+        private int[] product;
+        private int[] user;
+        private int[] day;
+        private int[] quantity;
+        private long[] revenueCents;
+        private int[] productCategory = new int[256];
+
+        private final Dictionary productIds = new Dictionary();
+        private final Dictionary categoryIds = new Dictionary();
+        private final Dictionary userIds = new Dictionary();
+
+        public Builder() {
+            this(1024);
+        }
+
+        //CON EL NUMERO DE FILAS APROXIMADO NO HAY QUE IR DOBLANDO LOS ARRAYS MIENTRAS SE CARGA
+        public Builder(int expectedRows) {
+            resize(Math.max(expectedRows, 1024));
+        }
+
+        public Builder add(OrderStatus orderStatus, Long productId, Long categoryId, Long userId, LocalDate createdOn,
+                           int itemQuantity, BigDecimal price) {
+            if (size == status.length) {
+                resize(status.length * 2);
+            }
+            status[size] = orderStatus == null ? -1 : (byte) orderStatus.ordinal();
+            int productCode = productIds.code(productId);
+            if (productCode >= 0) {
+                if (productCode >= productCategory.length) {
+                    productCategory = Arrays.copyOf(productCategory, productCategory.length * 2);
+                }
+                //LA CATEGORIA ES LA ACTUAL DEL PRODUCTO: TODAS SUS FILAS TRAEN LA MISMA
+                productCategory[productCode] = categoryIds.code(categoryId);
+            }
+            product[size] = productCode;
+            user[size] = userIds.code(userId);
+            day[size] = (int) createdOn.toEpochDay();
+            quantity[size] = itemQuantity;
+            revenueCents[size] = price == null ? 0
+                    : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            size++;
+            return this;
+        }
+
+        public OrderItemColumns build() {
+            if (status.length != size) {
+                resize(size);
+            }
+            return new OrderItemColumns(this);
+        }
+
+        private void resize(int capacity) {
+            if (status == null) {
+                status = new byte[capacity];
+                product = new int[capacity];
+                user = new int[capacity];
+                day = new int[capacity];
+                quantity = new int[capacity];
+                revenueCents = new long[capacity];
+                return;
+            }
+            status = Arrays.copyOf(status, capacity);
+            product = Arrays.copyOf(product, capacity);
+            user = Arrays.copyOf(user, capacity);
+            day = Arrays.copyOf(day, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            revenueCents = Arrays.copyOf(revenueCents, capacity);
+        }
+    }
+
+    //ID -> CODIGO CONSECUTIVO EN ORDEN DE APARICION. NULL ES -1
+    private static final class Dictionary {
+
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private long[] ids = new long[256];
+
+        private int code(Long id) {
+            if (id == null) {
+                return -1;
+            }
+            return codes.computeIfAbsent(id, key -> {
+                int code = codes.size();
+                if (code == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[code] = key;
+                return code;
+            });
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(ids, codes.size());
+        }
+    }
+
+}
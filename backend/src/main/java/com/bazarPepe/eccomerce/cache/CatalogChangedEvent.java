@@ -0,0 +1,5 @@
+package com.bazarPepe.eccomerce.cache;
+
+//SE PUBLICA CADA VEZ QUE SUBE LA VERSION DEL CATALOGO
+public record CatalogChangedEvent(long version) {
+}
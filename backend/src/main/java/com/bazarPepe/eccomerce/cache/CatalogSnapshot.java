@@ -0,0 +1,124 @@
+package com.bazarPepe.eccomerce.cache;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.service.interfaces.CategoryService;
+import com.bazarPepe.eccomerce.service.interfaces.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+//LISTADOS COMPLETOS DEL CATALOGO YA SERIALIZADOS A JSON (Y COMPRIMIDOS CON GZIP) COMO ARRAYS DE BYTES INMUTABLES.
+//SE REGENERAN EN UN HILO APARTE CUANDO CAMBIA EL CATALOGO; MIENTRAS TANTO SE SIGUE SIRVIENDO LA COPIA ANTERIOR,
+//QUE LLEVA SU PROPIA VERSION PARA QUE EL ETAG CORRESPONDA SIEMPRE AL CONTENIDO QUE SE ENVIA
+@Component
+@Slf4j
+public class CatalogSnapshot {
+
+    public enum View {
+        PRODUCTS, CATEGORIES
+    }
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
+    private final Timer rebuildTimer;
+
+    //UN SOLO HILO Y UNA SOLA RECONSTRUCCION EN COLA: UNA RAFAGA DE CAMBIOS SE RESUELVE CON UNA O DOS RECONSTRUCCIONES
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final Map<View, Snapshot> snapshots = new EnumMap<>(View.class);
+
+    public CatalogSnapshot(ProductService productService, CategoryService categoryService, ObjectMapper objectMapper,
+                           CatalogVersion catalogVersion, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+        this.rebuildTimer = Timer.builder("catalog.snapshot.rebuild")
+                .description("Tiempo en regenerar los listados serializados del catalogo")
+                .register(meterRegistry);
+    }
+
+    public Optional<Snapshot> get(View view) {
+        synchronized (snapshots) {
+            return Optional.ofNullable(snapshots.get(view));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduleRebuild();
+    }
+
+    @EventListener(CatalogChangedEvent.class)
+    public void onCatalogChanged() {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                //SE LIBERA ANTES DE LEER: UN CAMBIO QUE LLEGUE DURANTE LA RECONSTRUCCION ENCOLA OTRA
+                rebuildQueued.set(false);
+                rebuildTimer.record(this::rebuild);
+            });
+        }
+    }
+
+    private void rebuild() {
+        //LA VERSION SE LEE ANTES QUE LOS DATOS: COMO MUCHO EL SNAPSHOT ES MAS NUEVO QUE SU ETAG, NUNCA MAS VIEJO
+        long version = catalogVersion.current();
+        build(View.PRODUCTS, version, productService::getAllProduct);
+        build(View.CATEGORIES, version, categoryService::getAllCategories);
+    }
+
+    private void build(View view, long version, Supplier<Response> source) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(source.get());
+            Snapshot snapshot = new Snapshot(version, json, gzip(json));
+            synchronized (snapshots) {
+                snapshots.put(view, snapshot);
+            }
+        } catch (Exception e) {
+            //SE MANTIENE LA COPIA ANTERIOR Y SE REINTENTA CON EL SIGUIENTE CAMBIO DEL CATALOGO
+            log.warn("No se ha podido regenerar el listado {} del catalogo", view, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    //LOS ARRAYS NO SE MODIFICAN NUNCA DESPUES DE CREARSE, SE ESCRIBEN TAL CUAL EN LA RESPUESTA
+    public record Snapshot(long version, byte[] json, byte[] gzip) {
+
+        public String eTag() {
+            return CatalogVersion.eTag(version);
+        }
+    }
+
+}
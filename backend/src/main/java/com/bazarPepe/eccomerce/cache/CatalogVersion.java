@@ -0,0 +1,47 @@
+package com.bazarPepe.eccomerce.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//CONTADOR DE VERSION DEL CATALOGO (PRODUCTOS Y CATEGORIAS) DEL QUE SALEN EL ETAG Y EL LAST-MODIFIED DE LAS LECTURAS.
+//LO SUBEN LOS METODOS DEL SERVICIO QUE MODIFICAN DATOS, LO ULTIMO, CON LOS INDICES Y LAS CACHES YA ACTUALIZADOS: SI
+//SUBIERA ANTES, UNA LECTURA ENTRE MEDIAS GUARDARIA RESULTADOS VIEJOS CON EL ETAG NUEVO Y EL CLIENTE SEGUIRIA
+//RECIBIENDO 304. EMPIEZA EN LA HORA DE ARRANQUE PARA QUE UN REINICIO NUNCA REPITA UN ETAG ANTERIOR.
+//ES DE ESTE NODO, COMO ProductCache, LOS INDICES DE BUSQUEDA Y CatalogSnapshot: UN CAMBIO HECHO EN OTRO NODO NO LO
+//SUBE. CON VARIOS NODOS, LAS ESCRITURAS Y LAS LECTURAS DEL CATALOGO TIENEN QUE IR AL MISMO; NO BASTA CON SESIONES
+//PEGAJOSAS POR CLIENTE, PORQUE EL ADMINISTRADOR QUE CAMBIA UN PRODUCTO PUEDE ESTAR EN OTRO NODO QUE EL COMPRADOR
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModified = System.currentTimeMillis();
+
+    public void bump() {
+        lastModified = System.currentTimeMillis();
+        eventPublisher.publishEvent(new CatalogChangedEvent(version.incrementAndGet()));
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+
+    //ETAG FUERTE, CON COMILLAS
+    public String eTag() {
+        return eTag(version.get());
+    }
+
+    public static String eTag(long version) {
+        return "\"catalog-" + version + "\"";
+    }
+
+}
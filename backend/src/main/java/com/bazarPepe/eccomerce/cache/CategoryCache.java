@@ -0,0 +1,75 @@
+package com.bazarPepe.eccomerce.cache;
+
+import com.bazarPepe.eccomerce.dto.CategoryDto;
+import com.bazarPepe.eccomerce.mapper.EntityDtoMapper;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+//CACHE LOCAL DE CATEGORIAS, QUE CASI NUNCA CAMBIAN Y SE LEEN EN CADA CARGA DE PAGINA.
+//refreshAfterWrite RECARGA EN SEGUNDO PLANO Y, SI LA RECARGA FALLA (BASE DE DATOS CAIDA), SE SIGUE SIRVIENDO
+//LA COPIA ANTERIOR HASTA expireAfterWrite. LAS ESCRITURAS DEL SERVICIO INVALIDAN EXACTAMENTE LO QUE CAMBIAN
+@Component
+public class CategoryCache {
+
+    private static final String ALL = "all";
+
+    private final LoadingCache<Long, CategoryDto> byId;
+    private final LoadingCache<String, List<CategoryDto>> all;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         EntityDtoMapper entityDtoMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${category.cache.maximum-size:1000}") long maximumSize,
+                         @Value("${category.cache.refresh-after-write:5m}") Duration refreshAfterWrite,
+                         @Value("${category.cache.expire-after-write:6h}") Duration expireAfterWrite) {
+        //SI NO EXISTE LA CATEGORIA EL CARGADOR DEVUELVE NULL Y NO SE GUARDA NADA
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(categoryId -> categoryRepository.findById(categoryId)
+                        .map(entityDtoMapper::mapCategoryToDtoBasic)
+                        .orElse(null));
+        this.all = Caffeine.newBuilder()
+                .maximumSize(1)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(key -> categoryRepository.findAll().stream()
+                        .map(entityDtoMapper::mapCategoryToDtoBasic)
+                        .collect(Collectors.toUnmodifiableList()));
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "categories");
+        CaffeineCacheMetrics.monitor(meterRegistry, all, "categories.all");
+    }
+
+    public List<CategoryDto> getAll() {
+        return all.get(ALL);
+    }
+
+    public Optional<CategoryDto> findById(Long categoryId) {
+        return Optional.ofNullable(byId.get(categoryId));
+    }
+
+    //UNA CATEGORIA NUEVA SOLO CAMBIA EL LISTADO
+    public void invalidateAll() {
+        all.invalidate(ALL);
+    }
+
+    //UNA CATEGORIA MODIFICADA O BORRADA CAMBIA SU ENTRADA Y EL LISTADO
+    public void invalidate(Long categoryId) {
+        byId.invalidate(categoryId);
+        all.invalidate(ALL);
+    }
+
+}
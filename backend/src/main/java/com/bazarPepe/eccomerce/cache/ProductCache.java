@@ -0,0 +1,94 @@
+package com.bazarPepe.eccomerce.cache;
+
+import com.bazarPepe.eccomerce.dto.ProductDto;
+import com.bazarPepe.eccomerce.mapper.EntityDtoMapper;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//CACHE DE LECTURA DEL DETALLE DE PRODUCTO CON EL PRODUCTDTO YA MAPEADO.
+//CAFFEINE DESALOJA CON W-TINYLFU (FRECUENCIA + RECENCIA), ASI QUE LOS POCOS PRODUCTOS MUY VISITADOS SE QUEDAN
+//Y LOS VISTOS UNA SOLA VEZ NO LOS EXPULSAN. EL LIMITE ES DE MEMORIA ESTIMADA, NO DE NUMERO DE ENTRADAS.
+//LA CLAVE LLEVA UNA VERSION POR PRODUCTO QUE SUBE EN CADA ESCRITURA: UNA CARGA QUE EMPEZO ANTES DE LA ESCRITURA
+//GUARDA SU RESULTADO BAJO LA VERSION VIEJA, QUE YA NADIE PIDE, Y NUNCA PUEDE TAPAR EL DATO NUEVO
+@Component
+public class ProductCache {
+
+    private final LoadingCache<Key, ProductDto> cache;
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    public ProductCache(ProductRepository productRepository,
+                        EntityDtoMapper entityDtoMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${product.cache.maximum-weight-bytes:33554432}") long maximumWeightBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher((Key key, ProductDto product) -> estimateBytes(product))
+                .recordStats()
+                .build(key -> productRepository.findSummaryById(key.productId())
+                        .map(entityDtoMapper::mapProductSummaryToDto)
+                        .orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        Gauge.builder("product.cache.hit.ratio", cache, value -> value.stats().hitRate())
+                .description("Proporcion de lecturas de producto servidas desde la cache")
+                .register(meterRegistry);
+        Gauge.builder("product.cache.weighted.size", cache,
+                        value -> value.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Memoria estimada que ocupan los productos cacheados")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Optional<ProductDto> findById(Long productId) {
+        return Optional.ofNullable(cache.get(currentKey(productId)));
+    }
+
+    //SE LLAMA DESPUES DE GUARDAR EL CAMBIO: LAS LECTURAS SIGUIENTES USAN LA VERSION NUEVA Y VAN A LA BASE DE DATOS
+    public void evict(Long productId) {
+        Key previous = currentKey(productId);
+        versions.put(productId, versionSequence.incrementAndGet());
+        cache.invalidate(previous);
+    }
+
+    //PRODUCTO BORRADO: SU ID NO SE REUTILIZA, ASI QUE SU VERSION SALE DEL MAPA PARA QUE NO CREZCA CON CADA BORRADO.
+    //LAS LECTURAS VUELVEN A LA CLAVE SIN VERSION, QUE TAMBIEN SE INVALIDA, Y AL CARGAR YA NO ENCUENTRAN EL PRODUCTO
+    public void remove(Long productId) {
+        Key previous = currentKey(productId);
+        versions.remove(productId);
+        cache.invalidate(previous);
+        cache.invalidate(currentKey(productId));
+    }
+
+    private Key currentKey(Long productId) {
+        return new Key(productId, versions.getOrDefault(productId, 0L));
+    }
+
+    //ESTIMACION GRUESA: CABECERAS DE OBJETOS MAS DOS BYTES POR CARACTER DE CADA TEXTO
+    private static int estimateBytes(ProductDto product) {
+        int bytes = 160;
+        bytes += textBytes(product.getName());
+        bytes += textBytes(product.getDescription());
+        bytes += textBytes(product.getImageUrl());
+        bytes += textBytes(product.getImageHash());
+        return bytes;
+    }
+
+    private static int textBytes(String text) {
+        return text != null ? 40 + 2 * text.length() : 0;
+    }
+
+    private record Key(Long productId, long version) {
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.bazarPepe.eccomerce.controller;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.service.interfaces.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    //groupBy: STATUS, PRODUCT, CATEGORY, USER, DAY O MONTH. orderBy: ITEMS, UNITS O REVENUE. LOS FILTROS ADMITEN
+    //VARIOS VALORES (?status=SHIPPED&status=DELIVERED). LOS DATOS SALEN DE UNA FOTO QUE SE RECARGA CADA POCOS MINUTOS
+    @GetMapping("/order-items")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>queryOrderItems(
+            @RequestParam String groupBy,
+            @RequestParam(required = false)List<String> status,
+            @RequestParam(required = false)List<Long> productId,
+            @RequestParam(required = false)List<Long> categoryId,
+            @RequestParam(required = false)List<Long> userId,
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate startDate,
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate endDate,
+            @RequestParam(required = false)String orderBy,
+            @RequestParam(defaultValue = "100")int limit){
+        return ResponseEntity.ok(analyticsService.queryOrderItems(groupBy,status,productId,categoryId,userId,
+                startDate,endDate,orderBy,limit));
+    }
+
+    @PostMapping("/order-items/refresh")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>refreshOrderItems(){
+        return ResponseEntity.ok(analyticsService.refreshOrderItems());
+    }
+
+}
@@ -1,8 +1,12 @@
 package com.bazarPepe.eccomerce.controller;
 
+import com.bazarPepe.eccomerce.cache.CatalogSnapshot;
 import com.bazarPepe.eccomerce.dto.CategoryDto;
 import com.bazarPepe.eccomerce.dto.Response;
 import com.bazarPepe.eccomerce.service.interfaces.CategoryService;
+import com.bazarPepe.eccomerce.web.SnapshotResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogSnapshot catalogSnapshot;
 
     @PostMapping("/create")
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -21,9 +26,12 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.createCategory(categoryDto));
     }
 
+    //SE SIRVE EL LISTADO YA SERIALIZADO; SOLO SE CONSTRUYE AL VUELO HASTA QUE EXISTE EL PRIMER SNAPSHOT
     @GetMapping("/get-all")
-    public ResponseEntity<Response>getAllCategories(){
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<?>getAllCategories(HttpServletRequest request, HttpServletResponse response){
+        return catalogSnapshot.get(CatalogSnapshot.View.CATEGORIES)
+                .<ResponseEntity<?>>map(snapshot -> SnapshotResponses.of(snapshot,request,response))
+                .orElseGet(()->ResponseEntity.ok(categoryService.getAllCategories()));
     }
 
     @PutMapping("/update/{categoryId}")
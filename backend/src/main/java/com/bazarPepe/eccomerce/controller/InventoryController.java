@@ -0,0 +1,29 @@
+package com.bazarPepe.eccomerce.controller;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.service.interfaces.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/inventory")
+@RequiredArgsConstructor
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    @GetMapping("/{productId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>getInventory(@PathVariable Long productId){
+        return ResponseEntity.ok(inventoryService.getInventory(productId));
+    }
+
+    @PutMapping("/{productId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>updateStock(@PathVariable Long productId, @RequestParam int stock){
+        return ResponseEntity.ok(inventoryService.updateStock(productId,stock));
+    }
+
+}
@@ -1,17 +1,22 @@
 package com.bazarPepe.eccomerce.controller;
 
+import com.bazarPepe.eccomerce.dto.OrderItemStatusBulkRequest;
 import com.bazarPepe.eccomerce.dto.OrderRequest;
 import com.bazarPepe.eccomerce.dto.Response;
 import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.idempotency.IdempotentRequests;
+import com.bazarPepe.eccomerce.intake.OrderIntake;
 import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 
@@ -21,18 +26,50 @@ import java.time.LocalDateTime;
 public class OrderItemController {
 
     private final OrderItemService orderItemService;
+    private final OrderIntake orderIntake;
+    private final IdempotentRequests idempotentRequests;
 
+    private static final int DEFAULT_PAGE_SIZE=100;
+    private static final int LEGACY_PAGE_SIZE=1000;
+
+    //CON LA COLA ACTIVADA SE RESPONDE 202 CON UN TOKEN PARA CONSULTAR EL PEDIDO, O 429 SI LA COLA ESTA LLENA.
+    //CON IDEMPOTENCY-KEY LOS REINTENTOS DEL CLIENTE RECIBEN LA RESPUESTA DEL PRIMER INTENTO EN VEZ DE OTRO PEDIDO
     @PostMapping("/create")
-    public ResponseEntity<Response>placeOrder(@RequestBody OrderRequest orderRequest){
+    public ResponseEntity<?>placeOrder(@RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
+                                       @RequestBody OrderRequest orderRequest){
+        if (idempotencyKey!=null){
+            return idempotentRequests.execute(idempotencyKey,orderRequest,()->doPlaceOrder(orderRequest));
+        }
+        return doPlaceOrder(orderRequest);
+    }
+
+    private ResponseEntity<Response>doPlaceOrder(OrderRequest orderRequest){
+        if (orderIntake.isEnabled()){
+            return ResponseEntity.accepted().body(orderIntake.submit(orderRequest));
+        }
         return ResponseEntity.ok(orderItemService.placeOrder(orderRequest));
     }
 
+    @GetMapping("/intake/{orderToken}")
+    public ResponseEntity<Response>getOrderIntakeStatus(@PathVariable String orderToken){
+        return ResponseEntity.ok(orderIntake.getStatus(orderToken));
+    }
+
     @PutMapping("/update-item-status/{orderItemId}")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Response>updateOrderItemStatus(@PathVariable Long orderItemId, @RequestParam String status){
         return ResponseEntity.ok(orderItemService.updateOrderItemStatus(orderItemId,status));
     }
 
+    //CAMBIO DE ESTADO DE MUCHAS LINEAS A LA VEZ (POR IDS O POR FILTRO), CON EL RESULTADO DE CADA UNA
+    @PutMapping("/update-item-status/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>updateOrderItemsStatus(@RequestBody OrderItemStatusBulkRequest request){
+        return ResponseEntity.ok(orderItemService.updateOrderItemsStatus(request));
+    }
+
+    //SIN page SE PAGINA POR CURSOR Y NO SE CUENTA NADA; includeTotal=true ANADE EL TOTAL (ESTIMADO SI SOLO HAY ESTADO).
+    //CON page SE MANTIENE LA PAGINACION POR OFFSET CON COUNT(*) DE ANTES
     @GetMapping("/filter")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Response>filterOrderItems(
@@ -40,14 +77,34 @@ public class OrderItemController {
             @RequestParam(required = false)@DateTimeFormat(iso= DateTimeFormat.ISO.DATE_TIME)LocalDateTime endDate,
             @RequestParam(required = false)String status,
             @RequestParam(required = false)Long itemId,
-            @RequestParam(defaultValue = "0")int page,
-            @RequestParam(defaultValue = "1000")int size
+            @RequestParam(required = false)String cursor,
+            @RequestParam(required = false)Integer page,
+            @RequestParam(required = false)Integer size,
+            @RequestParam(defaultValue = "false")boolean includeTotal
             ){
-        Pageable pageable= PageRequest.of(page,size, Sort.by(Sort.Direction.DESC,"id"));
         OrderStatus orderStatus=status!=null ? OrderStatus.valueOf(status.toUpperCase()):null;
+        if (page!=null){
+            Pageable pageable= PageRequest.of(page,size!=null ? size : LEGACY_PAGE_SIZE, Sort.by(Sort.Direction.DESC,"id"));
+            return ResponseEntity.ok(orderItemService.filterOrderItems(orderStatus,startDate,endDate,itemId,pageable));
+        }
+        return ResponseEntity.ok(orderItemService.filterOrderItems(orderStatus,startDate,endDate,itemId,
+                cursor,size!=null ? size : DEFAULT_PAGE_SIZE,includeTotal));
 
-        return ResponseEntity.ok(orderItemService.filterOrderItems(orderStatus,startDate,endDate,itemId,pageable));
+    }
 
+    //EXPORTACION COMPLETA DEL FILTRO: SE EMPIEZA A ENVIAR EN CUANTO LLEGA LA PRIMERA FILA
+    @GetMapping("/filter/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody>exportOrderItems(
+            @RequestParam(required = false)@DateTimeFormat(iso= DateTimeFormat.ISO.DATE_TIME)LocalDateTime startDate,
+            @RequestParam(required = false)@DateTimeFormat(iso= DateTimeFormat.ISO.DATE_TIME)LocalDateTime endDate,
+            @RequestParam(required = false)String status,
+            @RequestParam(required = false)Long itemId
+    ){
+        OrderStatus orderStatus=status!=null ? OrderStatus.valueOf(status.toUpperCase()):null;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(orderItemService.exportOrderItems(orderStatus,startDate,endDate,itemId));
     }
 
 
@@ -1,15 +1,30 @@
 package com.bazarPepe.eccomerce.controller;
 
+import com.bazarPepe.eccomerce.cache.CatalogSnapshot;
 import com.bazarPepe.eccomerce.dto.Response;
 import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
 import com.bazarPepe.eccomerce.service.interfaces.ProductService;
+import com.bazarPepe.eccomerce.storage.ImageVariant;
+import com.bazarPepe.eccomerce.storage.ProductImage;
+import com.bazarPepe.eccomerce.web.SnapshotResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/product")
@@ -17,6 +32,11 @@ import java.math.BigDecimal;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogSnapshot catalogSnapshot;
+
+    private static final String DEFAULT_SORT="id,desc";
+    private static final int DEFAULT_PAGE_SIZE=24;
+    private static final String DEFAULT_SUGGESTIONS="8";
 
     @PostMapping("/create")
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -57,29 +77,117 @@ public class ProductController {
         return ResponseEntity.ok(productService.getProductById(productId));
     }
 
+    //SIN size NI cursor DEVUELVE EL CATALOGO COMPLETO COMO ANTES, DESDE EL SNAPSHOT YA SERIALIZADO SI EXISTE;
+    //CON ELLOS, UNA PAGINA Y EL nextCursor
     @GetMapping("/get-all")
-    public ResponseEntity<Response>getAllProduct(){
-        return ResponseEntity.ok(productService.getAllProduct());
+    public ResponseEntity<?>getAllProduct(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = DEFAULT_SORT) String sort,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ){
+        if (cursor==null&&size==null){
+            return catalogSnapshot.get(CatalogSnapshot.View.PRODUCTS)
+                    .<ResponseEntity<?>>map(snapshot -> SnapshotResponses.of(snapshot,request,response))
+                    .orElseGet(()->ResponseEntity.ok(productService.getAllProduct()));
+        }
+        return ResponseEntity.ok(productService.getAllProduct(cursor,pageSize(size),sort));
     }
 
     @GetMapping("/get-by-category-id/{categoryId}")
-    public ResponseEntity<Response>getProductsByCategory(@PathVariable Long categoryId){
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+    public ResponseEntity<Response>getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = DEFAULT_SORT) String sort
+    ){
+        if (cursor==null&&size==null){
+            return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+        }
+        return ResponseEntity.ok(productService.getProductsByCategory(categoryId,cursor,pageSize(size),sort));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Response>searchForProduct(@RequestParam String searchValue){
-        return ResponseEntity.ok(productService.searchProduct(searchValue));
+    public ResponseEntity<Response>searchForProduct(
+            @RequestParam String searchValue,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = DEFAULT_SORT) String sort
+    ){
+        if (cursor==null&&size==null){
+            return ResponseEntity.ok(productService.searchProduct(searchValue));
+        }
+        return ResponseEntity.ok(productService.searchProduct(searchValue,cursor,pageSize(size),sort));
     }
 
+    //EJEMPLO: /product/filter?categoryIds=1,3&priceBuckets=10-25,25-50&text=camiseta&size=24
+    @GetMapping("/filter")
+    public ResponseEntity<Response>filterProducts(
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<String> priceBuckets,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = DEFAULT_SORT) String sort
+    ){
+        return ResponseEntity.ok(productService.filterProducts(categoryIds,priceBuckets,text,cursor,pageSize(size),sort));
+    }
 
+    //PENSADO PARA LLAMARSE EN CADA PULSACION DEL BUSCADOR: SE RESUELVE EN MEMORIA Y NO DEVUELVE PRODUCTDTOS
+    @GetMapping("/suggest")
+    public ResponseEntity<Response>suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = DEFAULT_SUGGESTIONS) int limit
+    ){
+        return ResponseEntity.ok(productService.suggest(prefix,limit));
+    }
 
+    //SUBIDA DE LA IMAGEN COMO CUERPO BINARIO (image/*, application/octet-stream): SE COPIA DEL SOCKET AL ALMACEN
+    //SIN PASAR POR EL PARSEO MULTIPART NI CARGAR EL FICHERO EN MEMORIA
+    @PutMapping("/{productId}/image")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>uploadProductImage(@PathVariable Long productId, HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(productService.updateProductImage(productId,request.getInputStream()));
+    }
 
+    //IF-NONE-MATCH (304) SE RESUELVE AQUI PARA CERRAR LA IMAGEN QUE EL ALMACEN YA HA ABIERTO Y NO SE VA A ENVIAR;
+    //SPRING RESUELVE RANGE (206) A PARTIR DEL RESOURCE
+    @GetMapping("/{productId}/image")
+    public ResponseEntity<Resource>getProductImage(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String v,
+            @RequestParam(required = false) String size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ImageVariant variant;
+        try {
+            variant=ImageVariant.fromParam(size);
+        }catch (IllegalArgumentException e){
+            throw new InvalidCredentialsException("Tamaño de imagen no valido: "+size);
+        }
+        ProductImage productImage=productService.getProductImage(productId,variant);
+        //SI LA URL LLEVA EL HASH ACTUAL EL CONTENIDO NUNCA CAMBIA Y SE PUEDE CACHEAR INDEFINIDAMENTE,
+        //SALVO CUANDO SE SIRVE LA ORIGINAL PORQUE LA VARIANTE TODAVIA SE ESTA GENERANDO
+        CacheControl cacheControl=productImage.getHash().equals(v)&&!productImage.isFallback()
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache();
+        if (new ServletWebRequest(request,response).checkNotModified(productImage.getETag())){
+            if (productImage.getResource() instanceof Closeable closeable){
+                closeable.close();
+            }
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(productImage.getETag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(productImage.getContentType()))
+                .body(productImage.getResource());
+    }
 
-
-
-
-
-
+    private int pageSize(Integer size){
+        return size!=null ? size : DEFAULT_PAGE_SIZE;
+    }
 
 }
@@ -0,0 +1,52 @@
+package com.bazarPepe.eccomerce.controller;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.service.interfaces.SalesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/sales")
+@RequiredArgsConstructor
+public class SalesController {
+
+    private final SalesService salesService;
+
+    @GetMapping("/daily")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>getDailySales(
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate startDate,
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate endDate,
+            @RequestParam(required = false)Long productId,
+            @RequestParam(required = false)Long categoryId){
+        return ResponseEntity.ok(salesService.getDailySales(startDate,endDate,productId,categoryId));
+    }
+
+    //dimension: PRODUCT (POR DEFECTO) O CATEGORY
+    @GetMapping("/top")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>getTopSales(
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate startDate,
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate endDate,
+            @RequestParam(required = false)String dimension,
+            @RequestParam(required = false)List<String> status,
+            @RequestParam(defaultValue = "10")int limit){
+        return ResponseEntity.ok(salesService.getTopSales(startDate,endDate,dimension,status,limit));
+    }
+
+    //TRAS UNA CARGA DE DATOS O PARA RELLENAR DIAS ANTERIORES A LOS ACUMULADOS
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response>reconcileSales(
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate startDate,
+            @RequestParam(required = false)@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)LocalDate endDate){
+        return ResponseEntity.ok(salesService.reconcileSales(startDate,endDate));
+    }
+
+}
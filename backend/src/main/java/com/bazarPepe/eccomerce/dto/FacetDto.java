@@ -0,0 +1,19 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetDto {
+
+    //ID DE CATEGORIA O CLAVE DEL TRAMO DE PRECIO ("10-25")
+    private String value;
+
+    private long count;
+
+}
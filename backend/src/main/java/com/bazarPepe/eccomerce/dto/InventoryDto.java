@@ -0,0 +1,23 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryDto {
+
+    private Long productId;
+
+    private int stock;
+
+    private int reserved;
+
+    //STOCK MENOS RESERVADO: LO QUE AUN SE PUEDE VENDER
+    private int available;
+
+}
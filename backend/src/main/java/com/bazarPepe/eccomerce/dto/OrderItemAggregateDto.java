@@ -0,0 +1,26 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemAggregateDto {
+
+    //VALOR DEL GROUP BY: ID DE PRODUCTO, CATEGORIA O USUARIO, ESTADO, DIA (yyyy-MM-dd) O MES (yyyy-MM)
+    private String key;
+
+    //LINEAS DE PEDIDO
+    private long itemCount;
+
+    private long units;
+
+    private BigDecimal revenue;
+
+}
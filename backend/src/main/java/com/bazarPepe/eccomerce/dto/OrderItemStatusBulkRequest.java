@@ -0,0 +1,23 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//CAMBIO DE ESTADO DE MUCHAS LINEAS DE PEDIDO: LAS DE orderItemIds O, SI NO SE DAN, LAS QUE CUMPLEN EL FILTRO
+//(currentStatus, startDate, endDate, LOS MISMOS CRITERIOS QUE /order/filter)
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderItemStatusBulkRequest {
+
+    private String status;
+
+    private List<Long> orderItemIds;
+
+    private String currentStatus;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+}
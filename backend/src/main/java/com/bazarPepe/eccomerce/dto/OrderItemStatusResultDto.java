@@ -0,0 +1,22 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemStatusResultDto {
+
+    private Long orderItemId;
+
+    //UPDATED, UNCHANGED, NOT_FOUND O INVALID_TRANSITION
+    private String outcome;
+
+    //ESTADO QUE TENIA ANTES DEL CAMBIO; NULL SI NO EXISTE
+    private String previousStatus;
+
+}
@@ -7,7 +7,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
-import java.util.Base64;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -19,17 +18,8 @@ public class ProductDto {
     private String name;
     private String description;
     private BigDecimal price;
-    private String image;
+    private String imageUrl;
+    private String imageHash;
     private CategoryDto category;
 
-    // Constructor que toma la imagen como byte[] y la convierte a Base64
-    public ProductDto(Long id, String name, String description, BigDecimal price, byte[] image) {
-        this.id = id;
-        this.name = name;
-        this.description = description;
-        this.price = price;
-        this.image = (image != null) ? Base64.getEncoder().encodeToString(image) : null;
-
-    }
-
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -27,6 +28,12 @@ public class Response {
     private int totalPage;
 
     private long totalElement;
+    //TRUE CUANDO totalElement SALE DE LOS RECUENTOS EN MEMORIA Y NO DE UN COUNT(*) EXACTO
+    private Boolean totalEstimated;
+
+    //PAGINACION POR CURSOR: NULL CUANDO NO HAY MAS PAGINAS
+    private String nextCursor;
+    private Boolean hasNext;
 
     private AddressDto address;
 
@@ -41,10 +48,30 @@ public class Response {
 
     private OrderItemDto orderItem;
     private List<OrderItemDto>orderItemList;
+    //RESULTADO POR LINEA DE LA ACTUALIZACION MASIVA DE ESTADO
+    private List<OrderItemStatusResultDto>statusResultList;
 
     private OrderDto order;
     private List<OrderDto>orderList;
 
+    //COLA DE PEDIDOS: TOKEN PARA CONSULTAR EL PEDIDO Y SU ESTADO (QUEUED, COMPLETED, FAILED)
+    private String orderToken;
+    private String orderStatus;
+
+    private List<SuggestionDto>suggestionList;
+
+    private InventoryDto inventory;
+
+    //ACUMULADOS DE VENTAS DEL PANEL
+    private List<SalesDto>salesList;
+
+    //CONSULTAS SOBRE LA FOTO EN COLUMNAS DE ORDER ITEMS Y MOMENTO EN QUE SE TOMO
+    private List<OrderItemAggregateDto>aggregateList;
+    private LocalDateTime dataAsOf;
+
+    //RECUENTOS DEL FILTRO DEL CATALOGO: "category" -> ID DE CATEGORIA, "price" -> TRAMO DE PRECIO
+    private Map<String,List<FacetDto>>facets;
+
 
 
 
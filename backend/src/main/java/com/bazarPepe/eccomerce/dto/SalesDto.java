@@ -0,0 +1,36 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesDto {
+
+    //NULL EN LOS TOTALES DE UN RANGO
+    private LocalDate day;
+
+    //ALL, PRODUCT O CATEGORY
+    private String dimension;
+
+    //ID DEL PRODUCTO O DE LA CATEGORIA; 0 EN ALL
+    private Long dimensionId;
+
+    //NULL EN LOS TOTALES, QUE SUMAN VARIOS ESTADOS
+    private String status;
+
+    private long units;
+
+    private BigDecimal revenue;
+
+    //LINEAS DE PEDIDO
+    private long itemCount;
+
+}
@@ -0,0 +1,21 @@
+package com.bazarPepe.eccomerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDto {
+
+    private Long id;
+
+    private String label;
+
+    //PRODUCT O CATEGORY
+    private String type;
+
+}
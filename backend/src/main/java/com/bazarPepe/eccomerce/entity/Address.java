@@ -1,5 +1,6 @@
 package com.bazarPepe.eccomerce.entity;
 
+import com.bazarPepe.eccomerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -10,7 +11,7 @@ import java.time.LocalDateTime;
 @Table(name = "addresses")
 public class Address {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String street;
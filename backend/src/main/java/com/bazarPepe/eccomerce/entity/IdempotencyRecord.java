@@ -0,0 +1,45 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        //PARA BORRAR LAS CADUCADAS
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    //SHA-256 DEL USUARIO Y LA IDEMPOTENCY-KEY: CADA USUARIO TIENE SUS PROPIAS CLAVES
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+
+    //SHA-256 DEL CUERPO DE LA PRIMERA PETICION, PARA DETECTAR UNA CLAVE REUTILIZADA CON OTRO PEDIDO
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    //NULL MIENTRAS LA PRIMERA PETICION SIGUE EN CURSO
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    //NODO QUE EJECUTA LA PRIMERA PETICION. MIENTRAS ESTA VIVO RENUEVA heartbeat_at DE LAS QUE NO HA TERMINADO DE GUARDAR
+    @Column(name = "owner_node", length = 36)
+    private String ownerNode;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+}
@@ -0,0 +1,22 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "inventory")
+public class Inventory {
+
+    //UNA FILA POR PRODUCTO, CON SU MISMO ID
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    //UNIDADES EN EL ALMACEN
+    private int stock;
+
+    //UNIDADES COMPROMETIDAS CON PEDIDOS SIN ENVIAR O CEDIDAS A LA RESERVA EN MEMORIA DE ALGUN NODO
+    private int reserved;
+
+}
@@ -1,5 +1,6 @@
 package com.bazarPepe.eccomerce.entity;
 
+import com.bazarPepe.eccomerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -13,11 +14,15 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private BigDecimal totalPrice;
 
+    //TOKEN DE LA COLA DE PEDIDOS: AL REPETIR EL DIARIO TRAS UN REINICIO EVITA GUARDAR DOS VECES EL MISMO PEDIDO
+    @Column(name = "intake_token", unique = true, length = 36)
+    private String intakeToken;
+
     @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem>orderItemList;
 
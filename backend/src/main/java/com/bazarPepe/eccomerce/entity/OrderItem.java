@@ -1,6 +1,7 @@
 package com.bazarPepe.eccomerce.entity;
 
 import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -9,11 +10,16 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        //INDICES PARA EL FILTRO DEL PANEL DE PEDIDOS, QUE ORDENA Y PAGINA POR ID DESCENDENTE
+        @Index(name = "idx_order_items_status_id", columnList = "status,id"),
+        @Index(name = "idx_order_items_created_at_id", columnList = "created_at,id"),
+        @Index(name = "idx_order_items_status_created_at_id", columnList = "status,created_at,id")
+})
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private int quantity;
@@ -22,6 +28,10 @@ public class OrderItem {
 
     private OrderStatus status;
 
+    //SUS UNIDADES SE APARTARON EN inventory AL GUARDAR EL PEDIDO. LAS DEMAS (PRODUCTOS SIN FILA DE INVENTARIO ENTONCES)
+    //NO MUEVEN STOCK AL CAMBIAR DE ESTADO AUNQUE EL PRODUCTO TENGA FILA DESPUES
+    private boolean reserved;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
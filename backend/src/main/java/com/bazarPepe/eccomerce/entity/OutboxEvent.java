@@ -0,0 +1,49 @@
+package com.bazarPepe.eccomerce.entity;
+
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.bazarPepe.eccomerce.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "outbox_events", indexes = {
+        //EL RELAY LEE LOS PENDIENTES EN ORDEN DE ID
+        @Index(name = "idx_outbox_events_published_at_id", columnList = "published_at,id")
+})
+public class OutboxEvent {
+
+    //LOS IDS SNOWFLAKE VAN ORDENADOS POR TIEMPO: SON EL ORDEN DE PUBLICACION. EN UN MISMO AGREGADO TAMBIEN SIGUEN EL
+    //ORDEN DE COMMIT, PORQUE SE GENERAN CON SU FILA DE outbox_sequences YA BLOQUEADA
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", length = 20)
+    private OutboxEventType.AggregateType aggregateType;
+
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    //1, 2, 3... SIN HUECOS DENTRO DE CADA AGREGADO: LOS CONSUMIDORES PUEDEN DESCARTAR REPETIDOS Y DETECTAR SALTOS
+    @Column(name = "aggregate_sequence")
+    private Long aggregateSequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 40)
+    private OutboxEventType eventType;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at")
+    private final LocalDateTime createdAt=LocalDateTime.now();
+
+    //NULL HASTA QUE TODOS LOS SINKS LO HAN RECIBIDO
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+}
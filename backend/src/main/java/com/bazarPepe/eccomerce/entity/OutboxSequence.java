@@ -0,0 +1,19 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "outbox_sequences")
+public class OutboxSequence {
+
+    //UNA FILA POR AGREGADO CON EVENTOS. Outbox.append LA INCREMENTA ANTES DE GUARDAR CADA EVENTO Y EL BLOQUEO DE LA FILA
+    //DURA HASTA EL COMMIT: DOS TRANSACCIONES CON EVENTOS DEL MISMO AGREGADO SE CONFIRMAN EN EL ORDEN DE SU NUMERO
+    @EmbeddedId
+    private OutboxSequenceId id;
+
+    @Column(name = "last_sequence")
+    private long lastSequence;
+
+}
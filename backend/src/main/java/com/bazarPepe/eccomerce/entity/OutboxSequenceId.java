@@ -0,0 +1,24 @@
+package com.bazarPepe.eccomerce.entity;
+
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxSequenceId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", length = 20)
+    private OutboxEventType.AggregateType aggregateType;
+
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+}
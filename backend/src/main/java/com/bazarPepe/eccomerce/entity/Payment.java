@@ -1,5 +1,6 @@
 package com.bazarPepe.eccomerce.entity;
 
+import com.bazarPepe.eccomerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private BigDecimal amount;
@@ -1,5 +1,6 @@
 package com.bazarPepe.eccomerce.entity;
 
+import com.bazarPepe.eccomerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -8,19 +9,37 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        //INDICES PARA LA PAGINACION POR KEYSET: CADA ORDEN DESEMPATA POR ID
+        @Index(name = "idx_products_price_id", columnList = "price,id"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at,id"),
+        @Index(name = "idx_products_category_id_id", columnList = "category_id,id"),
+        @Index(name = "idx_products_category_price_id", columnList = "category_id,price,id"),
+        @Index(name = "idx_products_category_created_at_id", columnList = "category_id,created_at,id"),
+        //EL BARRIDO DE IMAGENES SIN USO CUENTA LOS PRODUCTOS QUE APUNTAN A CADA UNA
+        @Index(name = "idx_products_image_hash", columnList = "image_hash")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     private String name;
 
     private String description;
 
-    @Lob  // Indica que el campo se almacenará como BLOB
-    private byte[] image;  // Campo para almacenar la imagen como bytes
+    //LEGACY: IMAGEN GUARDADA COMO BLOB, SE MIGRA AL IMAGESTORE LA PRIMERA VEZ QUE SE PIDE
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    private byte[] image;
+
+    //SHA-256 DE LA IMAGEN EN EL IMAGESTORE
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_content_type")
+    private String imageContentType;
 
     private BigDecimal price;
 
@@ -0,0 +1,27 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Entity
+@Table(name = "sales_rollups", indexes = {
+        //LAS CONSULTAS SON SIEMPRE UNA DIMENSION (Y UN ID) EN UN RANGO DE DIAS
+        @Index(name = "idx_sales_rollups_dimension_day", columnList = "dimension,dimension_id,sales_day")
+})
+public class SalesRollup {
+
+    //UNA FILA POR DIA, DIMENSION, ID Y ESTADO: UNA CONSULTA DE N DIAS LEE COMO MUCHO N * ESTADOS FILAS
+    @EmbeddedId
+    private SalesRollupId id;
+
+    private long units;
+
+    private BigDecimal revenue;
+
+    @Column(name = "item_count")
+    private long itemCount;
+
+}
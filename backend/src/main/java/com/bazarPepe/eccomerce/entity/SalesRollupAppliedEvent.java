@@ -0,0 +1,17 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "sales_rollup_applied_events")
+public class SalesRollupAppliedEvent {
+
+    //EVENTO DEL OUTBOX YA SUMADO A LOS ACUMULADOS. SE APUNTA EN LA MISMA TRANSACCION QUE LA SUMA Y SE BORRA CUANDO EL
+    //RELAY LO HA MARCADO COMO PUBLICADO, PORQUE YA NO VUELVE A ENTREGARSE
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+}
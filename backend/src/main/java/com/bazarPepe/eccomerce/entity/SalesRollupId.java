@@ -0,0 +1,33 @@
+package com.bazarPepe.eccomerce.entity;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.SalesDimension;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesRollupId implements Serializable {
+
+    //DIA DE CREACION DE LA LINEA DE PEDIDO: UN CAMBIO DE ESTADO POSTERIOR SE APUNTA EN EL DIA DE LA VENTA
+    @Column(name = "sales_day")
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private SalesDimension dimension;
+
+    @Column(name = "dimension_id")
+    private Long dimensionId;
+
+    //ORDINAL, COMO EN order_items, PARA QUE LA RECONCILIACION COPIE LA COLUMNA TAL CUAL
+    private OrderStatus status;
+
+}
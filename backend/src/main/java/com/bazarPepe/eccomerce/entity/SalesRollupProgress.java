@@ -0,0 +1,15 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "sales_rollup_progress")
+public class SalesRollupProgress {
+
+    //UNA SOLA FILA (ID 1). NO GUARDA NADA: SU BLOQUEO SERIALIZA LOS LOTES DEL RELAY CON LA RECONCILIACION
+    @Id
+    private Integer id;
+
+}
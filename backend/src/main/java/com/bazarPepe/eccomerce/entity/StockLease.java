@@ -0,0 +1,27 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "stock_leases", indexes = {
+        //PARA ENCONTRAR LOS LOTES DE NODOS QUE HAN DEJADO DE RENOVARLOS
+        @Index(name = "idx_stock_leases_expires_at", columnList = "expires_at")
+})
+public class StockLease {
+
+    //UNA FILA POR NODO Y PRODUCTO CALIENTE
+    @EmbeddedId
+    private StockLeaseId id;
+
+    //UNIDADES RESERVADAS EN inventory QUE EL NODO TIENE APARTADAS Y AUN NO HA EMPEZADO A REPARTIR
+    private int units;
+
+    //EL NODO LA RENUEVA MIENTRAS ESTA VIVO; PASADA ESTA HORA CUALQUIER NODO DEVUELVE SUS UNIDADES
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+}
@@ -0,0 +1,23 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLeaseId implements Serializable {
+
+    //IDENTIFICADOR DEL PROCESO, NUEVO EN CADA ARRANQUE: LOS LOTES DE UN NODO CAIDO NO LOS RECUPERA NADIE CON SU NOMBRE
+    @Column(name = "node_id", length = 36)
+    private String nodeId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+}
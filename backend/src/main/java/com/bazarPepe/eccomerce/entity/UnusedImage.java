@@ -0,0 +1,25 @@
+package com.bazarPepe.eccomerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "unused_images", indexes = {
+        //EL BARRIDO LEE LAS MAS ANTIGUAS
+        @Index(name = "idx_unused_images_marked_at", columnList = "marked_at")
+})
+public class UnusedImage {
+
+    //IMAGEN DEL IMAGESTORE QUE HA DEJADO DE USAR ALGUN PRODUCTO. NO SE BORRA HASTA QUE PASA EL PLAZO DE GRACIA Y
+    //SE COMPRUEBA, CON ESTA FILA BLOQUEADA, QUE NINGUN PRODUCTO LA USA
+    @Id
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "marked_at")
+    private LocalDateTime markedAt;
+
+}
@@ -0,0 +1,6 @@
+package com.bazarPepe.eccomerce.enums;
+
+//POR QUE SE AGRUPAN LAS CONSULTAS DE LA FOTO EN COLUMNAS DE ORDER ITEMS
+public enum AnalyticsDimension {
+    STATUS, PRODUCT, CATEGORY, USER, DAY, MONTH
+}
@@ -0,0 +1,6 @@
+package com.bazarPepe.eccomerce.enums;
+
+//POR QUE SUMA SE ORDENAN LOS GRUPOS DE UNA CONSULTA DE LA FOTO EN COLUMNAS
+public enum AnalyticsMetric {
+    ITEMS, UNITS, REVENUE
+}
@@ -6,5 +6,18 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    RETURNED
+    RETURNED;
+
+    //CAMBIOS DE ESTADO QUE ADMITEN TANTO LA ACTUALIZACION MASIVA COMO LA DE UNA SOLA LINEA. CANCELLED Y RETURNED SON
+    //FINALES. PEDIR EL MISMO ESTADO NO ES UN CAMBIO: SE RESPONDE UNCHANGED SIN ERROR. EL PANEL DE ADMINISTRACION
+    //(AdminOrderDetails.jsx) REPITE ESTA TABLA PARA OFRECER SOLO ESTOS ESTADOS
+    public boolean canMoveTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == SHIPPED || next == CANCELLED;
+            case CONFIRMED -> next == SHIPPED || next == CANCELLED;
+            case SHIPPED -> next == DELIVERED || next == RETURNED;
+            case DELIVERED -> next == RETURNED;
+            case CANCELLED, RETURNED -> false;
+        };
+    }
 }
@@ -0,0 +1,27 @@
+package com.bazarPepe.eccomerce.enums;
+
+public enum OutboxEventType {
+    ORDER_PLACED(AggregateType.ORDER),
+    ORDER_ITEM_STATUS_CHANGED(AggregateType.ORDER),
+    PRODUCT_CREATED(AggregateType.PRODUCT),
+    PRODUCT_UPDATED(AggregateType.PRODUCT),
+    PRODUCT_DELETED(AggregateType.PRODUCT),
+    CATEGORY_CREATED(AggregateType.CATEGORY),
+    CATEGORY_UPDATED(AggregateType.CATEGORY),
+    CATEGORY_DELETED(AggregateType.CATEGORY);
+
+    //LOS EVENTOS DE UN MISMO AGREGADO (TIPO + ID) SE PUBLICAN EN EL ORDEN EN QUE SE ESCRIBIERON
+    public enum AggregateType {
+        ORDER, PRODUCT, CATEGORY
+    }
+
+    private final AggregateType aggregateType;
+
+    OutboxEventType(AggregateType aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public AggregateType getAggregateType() {
+        return aggregateType;
+    }
+}
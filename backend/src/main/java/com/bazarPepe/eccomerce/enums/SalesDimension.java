@@ -0,0 +1,6 @@
+package com.bazarPepe.eccomerce.enums;
+
+//POR QUE SE AGRUPA CADA FILA DE LOS ACUMULADOS DE VENTAS. EN ALL EL dimensionId ES SIEMPRE 0
+public enum SalesDimension {
+    ALL, PRODUCT, CATEGORY
+}
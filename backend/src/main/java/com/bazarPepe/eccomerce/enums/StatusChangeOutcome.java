@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.enums;
+
+//RESULTADO DE UNA LINEA DE PEDIDO EN LA ACTUALIZACION MASIVA DE ESTADO
+public enum StatusChangeOutcome {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND,
+    INVALID_TRANSITION
+}
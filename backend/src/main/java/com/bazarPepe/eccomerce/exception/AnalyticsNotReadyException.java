@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.exception;
+
+public class AnalyticsNotReadyException extends RuntimeException {
+
+    public AnalyticsNotReadyException(String message){
+        super(message);
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.bazarPepe.eccomerce.exception;
 
 import com.bazarPepe.eccomerce.dto.Response;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -37,4 +38,54 @@ public class GlobalExceptionHandler{
         return new ResponseEntity<>(errorResponse,HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidImageException.class)
+    public ResponseEntity<Response>handleInvalidImageException(InvalidImageException exception,WebRequest request){
+        Response errorResponse=Response.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message(exception.getMessage())
+                .build();
+        return new ResponseEntity<>(errorResponse,HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OutOfStockException.class)
+    public ResponseEntity<Response>handleOutOfStockException(OutOfStockException exception,WebRequest request){
+        Response errorResponse=Response.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message(exception.getMessage())
+                .build();
+        return new ResponseEntity<>(errorResponse,HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<Response>handleOrderQueueFullException(OrderQueueFullException exception,WebRequest request){
+        Response errorResponse=Response.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .message(exception.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER,"1")
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<Response>handleIdempotencyConflictException(IdempotencyConflictException exception,WebRequest request){
+        Response errorResponse=Response.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .message(exception.getMessage())
+                .build();
+        return new ResponseEntity<>(errorResponse,HttpStatus.CONFLICT);
+    }
+
+    //LA FOTO EN COLUMNAS AUN SE ESTA CARGANDO (ARRANQUE) O ESTA DESACTIVADA
+    @ExceptionHandler(AnalyticsNotReadyException.class)
+    public ResponseEntity<Response>handleAnalyticsNotReadyException(AnalyticsNotReadyException exception,WebRequest request){
+        Response errorResponse=Response.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(exception.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER,"30")
+                .body(errorResponse);
+    }
+
 }
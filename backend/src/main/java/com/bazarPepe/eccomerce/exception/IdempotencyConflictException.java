@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message){
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.exception;
+
+public class InvalidImageException extends RuntimeException {
+
+    public InvalidImageException(String message){
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.exception;
+
+public class OrderQueueFullException extends RuntimeException {
+
+    public OrderQueueFullException(String message){
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.exception;
+
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(String message){
+        super(message);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.bazarPepe.eccomerce.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//IDS ORDENADOS POR TIEMPO, GENERADOS EN LA APLICACION SIN BLOQUEOS NI VIAJES A LA BASE DE DATOS.
+//53 BITS EN TOTAL PARA QUE EL FRONTEND LOS SIGA LEYENDO COMO NUMBER DE JAVASCRIPT SIN PERDER PRECISION:
+//41 BITS DE MILISEGUNDOS DESDE 2024-01-01 (~69 AÑOS) | 5 BITS DE NODO (32 NODOS) | 7 BITS DE SECUENCIA (128 POR MS Y NODO)
+//DENTRO DE UN NODO SON ESTRICTAMENTE CRECIENTES; ENTRE NODOS QUEDAN ORDENADOS POR MILISEGUNDO (K-SORTED)
+public final class Snowflake {
+
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    static final int TIMESTAMP_BITS = 41;
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 7;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final long maxClockSkewMillis;
+    private final LongSupplier clock;
+    //ULTIMO MILISEGUNDO Y SECUENCIA USADOS, EMPAQUETADOS EN UN SOLO long PARA AVANZARLOS CON UN CAS
+    private final AtomicLong state = new AtomicLong();
+
+    public Snowflake(long nodeId, long maxClockSkewMillis) {
+        this(nodeId, maxClockSkewMillis, System::currentTimeMillis);
+    }
+
+    Snowflake(long nodeId, long maxClockSkewMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("El id de nodo debe estar entre 0 y " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.maxClockSkewMillis = maxClockSkewMillis;
+        this.clock = clock;
+    }
+
+    //SI EL RELOJ RETROCEDE (NTP) O SE AGOTA LA SECUENCIA DE UN MILISEGUNDO SE SIGUE CON UN RELOJ LOGICO
+    //QUE NUNCA RETROCEDE; SI ESE RELOJ SE ADELANTA AL REAL MAS DE maxClockSkewMillis SE NIEGA A GENERAR
+    //PARA NO REPETIR IDS DE OTRO NODO NI INVENTAR UN ORDEN QUE NO EXISTE
+    public long nextId() {
+        while (true) {
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long previous = state.get();
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+            long timestamp;
+            long sequence;
+            if (now > previousTimestamp) {
+                timestamp = now;
+                sequence = 0;
+            } else {
+                timestamp = previousTimestamp;
+                sequence = (previous & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = 0;
+                }
+                if (timestamp - now > maxClockSkewMillis) {
+                    throw new IllegalStateException("El reloj va " + (timestamp - now) + " ms por detras del ultimo id generado");
+                }
+            }
+            if (state.compareAndSet(previous, (timestamp << SEQUENCE_BITS) | sequence)) {
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    //MENOR ID POSIBLE GENERADO EN ESE MILISEGUNDO POR CUALQUIER NODO: SIRVE COMO LIMITE EN CONSULTAS POR RANGO DE TIEMPO
+    public static long firstIdAt(long epochMillis) {
+        return (epochMillis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static long nodeId(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+}
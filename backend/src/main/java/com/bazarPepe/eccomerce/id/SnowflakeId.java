@@ -0,0 +1,15 @@
+package com.bazarPepe.eccomerce.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//EN LUGAR DE @GeneratedValue: EL ID LO PONE LA APLICACION ANTES DEL INSERT, ASI QUE HIBERNATE PUEDE AGRUPARLOS EN LOTES
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
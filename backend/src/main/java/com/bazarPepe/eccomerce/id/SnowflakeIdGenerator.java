@@ -0,0 +1,41 @@
+package com.bazarPepe.eccomerce.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//GENERADOR DE HIBERNATE PARA @SnowflakeId. TODAS LAS ENTIDADES COMPARTEN EL MISMO Snowflake DEL NODO,
+//LA CONFIGURACION LLEGA COMO spring.jpa.properties.eccomerce.id.*
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    static final String NODE_ID_SETTING = "eccomerce.id.node-id";
+    static final String MAX_CLOCK_SKEW_SETTING = "eccomerce.id.max-clock-skew-ms";
+    private static final long DEFAULT_MAX_CLOCK_SKEW_MILLIS = 5000;
+
+    private static final Map<Long, Snowflake> NODES = new ConcurrentHashMap<>();
+
+    private final Snowflake snowflake;
+
+    public SnowflakeIdGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        Map<String, Object> settings = context.getServiceRegistry().requireService(ConfigurationService.class).getSettings();
+        long nodeId = longSetting(settings, NODE_ID_SETTING, 0);
+        long maxClockSkew = longSetting(settings, MAX_CLOCK_SKEW_SETTING, DEFAULT_MAX_CLOCK_SKEW_MILLIS);
+        this.snowflake = NODES.computeIfAbsent(nodeId, id -> new Snowflake(id, maxClockSkew));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return snowflake.nextId();
+    }
+
+    private static long longSetting(Map<String, Object> settings, String name, long defaultValue) {
+        Object value = settings.get(name);
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+
+}
@@ -0,0 +1,272 @@
+package com.bazarPepe.eccomerce.idempotency;
+
+import com.bazarPepe.eccomerce.entity.IdempotencyRecord;
+import com.bazarPepe.eccomerce.exception.IdempotencyConflictException;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import com.bazarPepe.eccomerce.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//PETICIONES CON IDEMPOTENCY-KEY: LA PRIMERA SE EJECUTA Y SU RESPUESTA SE GUARDA; LAS REPETICIONES DEVUELVEN ESA
+//RESPUESTA SIN VOLVER A EJECUTAR NI ESCRIBIR NADA. EN MEMORIA, UN MAPA ACOTADO DE RESULTADOS (TERMINADOS O EN CURSO)
+//HACE QUE LAS COPIAS SIMULTANEAS ESPEREN A LA PRIMERA (SINGLE-FLIGHT); LA TABLA idempotency_keys CUBRE LOS REINICIOS
+//Y LAS PETICIONES QUE CAEN EN OTRO NODO. UNA CLAVE EN CURSO SOLO LA PUEDE RETOMAR OTRA PETICION SI SU NODO HA DEJADO
+//DE RENOVARLA (LATIDO CADA idempotency.heartbeat-interval, MUY POR DEBAJO DE idempotency.stale-after): UNA PETICION
+//LENTA O UNA RESPUESTA QUE NO SE HA PODIDO GUARDAR SIGUEN A NOMBRE DE SU NODO Y NUNCA SE EJECUTAN DOS VECES
+@Component
+@Slf4j
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int CLEANUP_CHUNK = 1000;
+    private static final long POLL_MILLIS = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration staleAfter;
+    private final Cache<String, CompletableFuture<StoredResponse>> results;
+    private final Counter replays;
+    private final String nodeId = UUID.randomUUID().toString();
+    //CLAVES DE ESTE NODO QUE AUN NO TIENEN LA RESPUESTA GUARDADA: SE LES RENUEVA EL LATIDO
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    //RESPUESTAS YA DADAS CUYO GUARDADO HA FALLADO: SE REINTENTA EN CADA LATIDO
+    private final Map<String, StoredResponse> unsaved = new ConcurrentHashMap<>();
+
+    public IdempotentRequests(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.memory.maximum-size:10000}") long maximumSize,
+                              @Value("${idempotency.wait-timeout:30s}") Duration waitTimeout,
+                              @Value("${idempotency.stale-after:2m}") Duration staleAfter) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.staleAfter = staleAfter;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.replays = Counter.builder("idempotency.replays")
+                .description("Peticiones repetidas respondidas con la respuesta guardada")
+                .register(meterRegistry);
+    }
+
+    public ResponseEntity<?> execute(String idempotencyKey, Object request, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidCredentialsException("La cabecera " + HEADER + " debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String keyHash = sha256(currentUser() + "\n" + idempotencyKey);
+        String requestHash = sha256(json(request));
+
+        CompletableFuture<StoredResponse> flight = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> leader = results.asMap().putIfAbsent(keyHash, flight);
+        if (leader != null) {
+            return replay(await(leader), requestHash);
+        }
+
+        try {
+            Optional<StoredResponse> previous = claimOrFindPrevious(keyHash, requestHash);
+            if (previous.isPresent()) {
+                flight.complete(previous.get());
+                return replay(previous.get(), requestHash);
+            }
+            ResponseEntity<?> response;
+            running.add(keyHash);
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                running.remove(keyHash);
+                idempotencyRecordRepository.abandon(keyHash);
+                throw e;
+            }
+            //LA ACCION YA SE HA EJECUTADO: PASE LO QUE PASE AL GUARDAR LA RESPUESTA, ESTA CLAVE NO SE VUELVE A EJECUTAR
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), json(response.getBody()));
+            flight.complete(stored);
+            save(keyHash, stored);
+            return response;
+        } catch (RuntimeException e) {
+            //LAS QUE ESPERABAN RECIBEN EL MISMO ERROR Y LA SIGUIENTE REPETICION VUELVE A INTENTARLO
+            if (!flight.isDone()) {
+                results.asMap().remove(keyHash, flight);
+                flight.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.heartbeat-interval:30s}")
+    public void heartbeat() {
+        unsaved.forEach(this::retrySave);
+        if (running.isEmpty()) {
+            return;
+        }
+        try {
+            idempotencyRecordRepository.heartbeat(List.copyOf(running), nodeId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("No se ha podido renovar el latido de {} idempotency keys en curso", running.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:10m}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted;
+        int total = 0;
+        do {
+            deleted = idempotencyRecordRepository.deleteExpired(now, CLEANUP_CHUNK);
+            total += deleted;
+        } while (deleted == CLEANUP_CHUNK);
+        if (total > 0) {
+            log.debug("Borradas {} idempotency keys caducadas", total);
+        }
+    }
+
+    private void save(String keyHash, StoredResponse stored) {
+        try {
+            idempotencyRecordRepository.complete(keyHash, stored.status(), stored.body());
+            running.remove(keyHash);
+        } catch (RuntimeException e) {
+            //LA CLAVE SIGUE EN CURSO A NOMBRE DE ESTE NODO; LAS REPETICIONES EN ESTE NODO YA RECIBEN LA RESPUESTA
+            unsaved.put(keyHash, stored);
+            log.warn("No se ha podido guardar la respuesta de una idempotency key, se reintentara", e);
+        }
+    }
+
+    private void retrySave(String keyHash, StoredResponse stored) {
+        try {
+            idempotencyRecordRepository.complete(keyHash, stored.status(), stored.body());
+            unsaved.remove(keyHash, stored);
+            running.remove(keyHash);
+        } catch (RuntimeException e) {
+            log.debug("Sigue sin poder guardarse la respuesta de una idempotency key", e);
+        }
+    }
+
+    //VACIO SI ESTA PETICION SE QUEDA LA CLAVE; SI NO, LA RESPUESTA DE QUIEN LA TIENE, ESPERANDO SI AUN ESTA EN CURSO
+    private Optional<StoredResponse> claimOrFindPrevious(String keyHash, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            idempotencyRecordRepository.claim(keyHash, requestHash, now, now.plus(ttl), nodeId);
+            return Optional.empty();
+        } catch (DataIntegrityViolationException alreadyClaimed) {
+            if (idempotencyRecordRepository.takeOver(keyHash, requestHash, now, now.plus(ttl), now.minus(staleAfter), nodeId) == 1) {
+                return Optional.empty();
+            }
+        }
+        //LA TIENE OTRA PETICION, DE ESTE NODO O DE OTRO
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(keyHash);
+            if (record.isEmpty()) {
+                //LA PRIMERA FALLO Y LIBERO LA CLAVE: SE VUELVE A INTENTAR QUEDARSELA
+                return claimOrFindPrevious(keyHash, requestHash);
+            }
+            if (record.get().getResponseStatus() != null) {
+                return Optional.of(new StoredResponse(record.get().getRequestHash(),
+                        record.get().getResponseStatus(), record.get().getResponseBody()));
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyConflictException("Ya hay una peticion en curso con esta " + HEADER);
+            }
+            sleep();
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> leader) {
+        try {
+            return leader.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("Ya hay una peticion en curso con esta " + HEADER);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Peticion interrumpida mientras esperaba a la original");
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new InvalidCredentialsException("La " + HEADER + " ya se ha usado con otra peticion");
+        }
+        replays.increment();
+        return ResponseEntity.status(stored.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", "true")
+                .body(stored.body());
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se ha podido serializar la peticion", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Peticion interrumpida mientras esperaba a la original");
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+
+}
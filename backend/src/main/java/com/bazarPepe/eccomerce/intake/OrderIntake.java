@@ -0,0 +1,267 @@
+package com.bazarPepe.eccomerce.intake;
+
+import com.bazarPepe.eccomerce.dto.OrderRequest;
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.entity.User;
+import com.bazarPepe.eccomerce.exception.NotFoundException;
+import com.bazarPepe.eccomerce.exception.OrderQueueFullException;
+import com.bazarPepe.eccomerce.repository.OrderRepository;
+import com.bazarPepe.eccomerce.repository.UserRepository;
+import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
+import com.bazarPepe.eccomerce.service.interfaces.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//ENTRADA ASINCRONA DE PEDIDOS (order.intake.async=true). LA PETICION SOLO VALIDA, APUNTA EL PEDIDO EN EL DIARIO
+//Y LO DEJA EN UNA COLA ACOTADA; UN UNICO HILO LA VACIA POR LOTES Y GUARDA CADA LOTE EN UNA SOLA TRANSACCION
+//(GROUP COMMIT), ASI QUE NI EL HILO DE TOMCAT NI UNA CONEXION SE QUEDAN ESPERANDO AL PEDIDO
+@Component
+@Slf4j
+public class OrderIntake {
+
+    public enum State {
+        QUEUED, COMPLETED, FAILED
+    }
+
+    private final OrderItemService orderItemService;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    //PLAZAS LIBRES EN LA COLA: SE COGE UNA ANTES DE ESCRIBIR EN EL DIARIO, ASI UN PEDIDO RECHAZADO NUNCA QUEDA APUNTADO
+    private final Semaphore capacity;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Cache<String, Status> statuses;
+    private final OrderJournal journal;
+    private final List<OrderJournal.Entry> recovered;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Thread worker;
+
+    public OrderIntake(OrderItemService orderItemService,
+                       UserService userService,
+                       UserRepository userRepository,
+                       OrderRepository orderRepository,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${order.intake.async:false}") boolean enabled,
+                       @Value("${order.intake.queue-capacity:10000}") int queueCapacity,
+                       @Value("${order.intake.batch-size:100}") int batchSize,
+                       @Value("${order.intake.journal:./data/order-intake.journal}") Path journalPath,
+                       @Value("${order.intake.journal.fsync:true}") boolean fsync,
+                       @Value("${order.intake.status-ttl:1h}") Duration statusTtl) throws IOException {
+        this.orderItemService = orderItemService;
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.capacity = new Semaphore(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .build();
+        //EL DIARIO SE LEE ANTES DE ACEPTAR NADA NUEVO, AUNQUE LA COLA ESTE DESACTIVADA: LO YA ACEPTADO SE TERMINA
+        this.journal = new OrderJournal(journalPath, objectMapper, fsync);
+        this.recovered = journal.recover();
+        this.batchSizes = DistributionSummary.builder("order.intake.batch.size")
+                .description("Pedidos guardados en cada transaccion de la cola")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("order.intake.rejected")
+                .description("Pedidos rechazados con la cola llena")
+                .register(meterRegistry);
+        Gauge.builder("order.intake.queue.size", queue, BlockingQueue::size)
+                .description("Pedidos aceptados pendientes de guardar")
+                .register(meterRegistry);
+        this.worker = new Thread(this::drain, "order-intake");
+        this.worker.setDaemon(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Response submit(OrderRequest orderRequest) {
+        User user = userService.getLoginUser();
+        orderItemService.validateOrder(orderRequest);
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new OrderQueueFullException("Hay demasiados pedidos en cola, intentalo de nuevo en unos segundos");
+        }
+        String token = UUID.randomUUID().toString();
+        try {
+            journal.accepted(token, user.getId(), orderRequest);
+        } catch (IOException e) {
+            capacity.release();
+            throw new UncheckedIOException("No se ha podido aceptar el pedido", e);
+        }
+        statuses.put(token, new Status(State.QUEUED, user.getId(), null));
+        queue.add(new Pending(token, user.getId(), orderRequest, false));
+        return Response.builder()
+                .status(202)
+                .message("Pedido aceptado, se esta procesando")
+                .orderToken(token)
+                .orderStatus(State.QUEUED.name())
+                .build();
+    }
+
+    public Response getStatus(String token) {
+        User user = userService.getLoginUser();
+        Status status = statuses.getIfPresent(token);
+        if (status == null && orderRepository.existsByIntakeTokenAndUserId(token, user.getId())) {
+            //EL ESTADO YA HA CADUCADO PERO EL PEDIDO ESTA GUARDADO
+            status = new Status(State.COMPLETED, user.getId(), null);
+        }
+        if (status == null || !status.userId().equals(user.getId())) {
+            throw new NotFoundException("No se ha encontrado el pedido");
+        }
+        return Response.builder()
+                .status(200)
+                .message(status.message())
+                .orderToken(token)
+                .orderStatus(status.state().name())
+                .build();
+    }
+
+    //LOS PEDIDOS DEL DIARIO QUE YA LLEGARON A GUARDARSE ANTES DE LA CAIDA SOLO SE DAN POR TERMINADOS
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!recovered.isEmpty()) {
+            Set<String> persisted = orderRepository.findIntakeTokensIn(
+                    recovered.stream().map(OrderJournal.Entry::token).toList());
+            for (OrderJournal.Entry entry : recovered) {
+                Pending pending = new Pending(entry.token(), entry.userId(), entry.orderRequest(), true);
+                if (persisted.contains(entry.token())) {
+                    finish(pending, State.COMPLETED, null);
+                } else {
+                    statuses.put(entry.token(), new Status(State.QUEUED, entry.userId(), null));
+                    queue.add(pending);
+                }
+            }
+            log.info("Diario de pedidos: {} pedidos pendientes, {} ya estaban guardados",
+                    recovered.size() - persisted.size(), persisted.size());
+            recovered.clear();
+        }
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        //LO QUE QUEDE EN LA COLA SIGUE EN EL DIARIO Y SE REPITE AL ARRANCAR
+        worker.interrupt();
+        journal.close();
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            //SOLO ESCAPAN ERRORES DE TODO EL LOTE (BASE DE DATOS CAIDA, BLOQUEO MUERTO): SE REINTENTA EL MISMO LOTE
+            for (boolean retry = false; ; retry = true) {
+                try {
+                    process(batch, retry);
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("No se ha podido guardar un lote de {} pedidos, se reintenta", batch.size(), e);
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    //NADA SE DA POR TERMINADO HASTA QUE placeOrders HA RESPONDIDO, PARA QUE REINTENTAR EL LOTE SEA SEGURO. AL REINTENTAR,
+    //LOS PEDIDOS QUE LLEGARON A GUARDARSE DE UNO EN UNO ANTES DEL FALLO SOLO SE DAN POR TERMINADOS
+    private void process(List<Pending> batch, boolean retry) {
+        if (retry) {
+            Set<String> persisted = orderRepository.findIntakeTokensIn(batch.stream().map(Pending::token).toList());
+            batch.removeIf(pending -> {
+                if (persisted.contains(pending.token())) {
+                    finish(pending, State.COMPLETED, null);
+                    return true;
+                }
+                return false;
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+        }
+        batchSizes.record(batch.size());
+        Map<Long, User> users = userRepository.findAllById(batch.stream().map(Pending::userId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<Pending> placing = new ArrayList<>(batch.size());
+        List<QueuedOrder> orders = new ArrayList<>(batch.size());
+        List<Pending> withoutUser = new ArrayList<>();
+        for (Pending pending : batch) {
+            User user = users.get(pending.userId());
+            if (user == null) {
+                withoutUser.add(pending);
+            } else {
+                placing.add(pending);
+                orders.add(new QueuedOrder(pending.token(), user, pending.orderRequest()));
+            }
+        }
+        List<Response> responses = orders.isEmpty() ? List.of() : orderItemService.placeOrders(orders);
+        for (int i = 0; i < placing.size(); i++) {
+            Response response = responses.get(i);
+            finish(placing.get(i), response.getStatus() == 200 ? State.COMPLETED : State.FAILED, response.getMessage());
+        }
+        withoutUser.forEach(pending -> finish(pending, State.FAILED, "No se ha encontrado el usuario"));
+    }
+
+    private void finish(Pending pending, State state, String message) {
+        statuses.put(pending.token(), new Status(state, pending.userId(), message));
+        try {
+            journal.done(pending.token());
+        } catch (IOException e) {
+            log.warn("No se ha podido apuntar el fin del pedido {} en el diario", pending.token(), e);
+        }
+        if (!pending.replayed()) {
+            capacity.release();
+        }
+    }
+
+    //LOS REPETIDOS DEL DIARIO NO OCUPAN PLAZA EN LA COLA
+    private record Pending(String token, Long userId, OrderRequest orderRequest, boolean replayed) {
+    }
+
+    private record Status(State state, Long userId, String message) {
+    }
+
+}
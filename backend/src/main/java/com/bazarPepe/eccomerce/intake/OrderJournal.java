@@ -0,0 +1,119 @@
+package com.bazarPepe.eccomerce.intake;
+
+import com.bazarPepe.eccomerce.dto.OrderRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//DIARIO LOCAL SOLO DE AÑADIR: UNA LINEA JSON AL ACEPTAR UN PEDIDO Y OTRA AL TERMINARLO. TRAS UN REINICIO SE
+//REPITEN LOS ACEPTADOS SIN TERMINAR; CUANDO NO QUEDA NINGUNO PENDIENTE EL FICHERO SE VACIA
+@Slf4j
+final class OrderJournal implements Closeable {
+
+    private static final String ACCEPTED = "ACCEPTED";
+    private static final String DONE = "DONE";
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private FileChannel channel;
+    private int pending;
+
+    OrderJournal(Path path, ObjectMapper objectMapper, boolean fsync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    //DEVUELVE LOS PEDIDOS SIN TERMINAR Y REESCRIBE EL FICHERO SOLO CON ELLOS ANTES DE VOLVER A AÑADIR
+    synchronized List<Entry> recover() throws IOException {
+        Map<String, Entry> unfinished = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Entry entry = objectMapper.readValue(line, Entry.class);
+                        if (ACCEPTED.equals(entry.type())) {
+                            unfinished.put(entry.token(), entry);
+                        } else if (DONE.equals(entry.type())) {
+                            unfinished.remove(entry.token());
+                        }
+                    } catch (JsonProcessingException e) {
+                        //UNA ESCRITURA CORTADA POR UNA CAIDA SOLO PUEDE SER LA ULTIMA LINEA, Y ESE PEDIDO NO SE LLEGO A ACEPTAR
+                        log.warn("Se ignora una linea ilegible del diario de pedidos {}", path);
+                    }
+                }
+            }
+        } else if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : unfinished.values()) {
+                write(out, entry);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        pending = unfinished.size();
+        return new ArrayList<>(unfinished.values());
+    }
+
+    //CUANDO VUELVE, EL PEDIDO YA SOBREVIVE A UNA CAIDA DEL PROCESO (Y CON fsync A UNA DEL SISTEMA)
+    synchronized void accepted(String token, Long userId, OrderRequest orderRequest) throws IOException {
+        write(channel, new Entry(ACCEPTED, token, userId, orderRequest));
+        if (fsync) {
+            channel.force(false);
+        }
+        pending++;
+    }
+
+    //SIN fsync: SI SE PIERDE, AL REPETIR EL PEDIDO SE VE QUE YA ESTA GUARDADO POR SU TOKEN
+    synchronized void done(String token) throws IOException {
+        write(channel, new Entry(DONE, token, null, null));
+        if (--pending == 0) {
+            channel.truncate(0);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void write(FileChannel target, Entry entry) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    record Entry(String type, String token, Long userId, OrderRequest orderRequest) {
+    }
+
+}
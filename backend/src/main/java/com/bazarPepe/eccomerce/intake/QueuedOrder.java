@@ -0,0 +1,8 @@
+package com.bazarPepe.eccomerce.intake;
+
+import com.bazarPepe.eccomerce.dto.OrderRequest;
+import com.bazarPepe.eccomerce.entity.User;
+
+//PEDIDO ACEPTADO EN LA COLA CON SU USUARIO YA RESUELTO. token ES NULL EN LOS PEDIDOS SINCRONOS
+public record QueuedOrder(String token, User user, OrderRequest orderRequest) {
+}
@@ -0,0 +1,330 @@
+package com.bazarPepe.eccomerce.inventory;
+
+import com.bazarPepe.eccomerce.entity.StockLease;
+import com.bazarPepe.eccomerce.repository.InventoryRepository;
+import com.bazarPepe.eccomerce.repository.StockLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//RESERVA EN MEMORIA PARA LOS PRODUCTOS CON MUCHA DEMANDA (UNA OFERTA FLASH). EN VEZ DE UN UPDATE SOBRE LA MISMA FILA
+//POR CADA COMPRA, EL NODO SE QUEDA UN LOTE DE UNIDADES CON UN SOLO UPDATE CONDICIONAL (QUEDAN COMO RESERVADAS EN LA
+//BASE DE DATOS, ASI QUE OTROS NODOS NO PUEDEN VENDERLAS) Y LAS REPARTE CON UN CAS SOBRE UN CONTADOR.
+//LAS UNIDADES QUE SOBRAN SE DEVUELVEN CUANDO EL PRODUCTO DEJA DE TENER DEMANDA O AL PARAR LA APLICACION.
+//PARA QUE UN NODO CAIDO NO SE QUEDE CON ELLAS, LO QUE AUN NO HA EMPEZADO A REPARTIR ESTA APUNTADO A SU NOMBRE EN
+//stock_leases Y SOLO PASA A MEMORIA POR TROZOS (inventory.lease.draw-size). EL NODO RENUEVA SUS FILAS Y CUALQUIERA
+//DEVUELVE A inventory LAS QUE CADUCAN. SI EL NODO CAE SOLO SE PIERDE EL TROZO QUE TENIA EN MEMORIA
+@Component
+@Slf4j
+public class StockLeases {
+
+    private final InventoryRepository inventoryRepository;
+    private final StockLeaseRepository stockLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int leaseSize;
+    private final int drawSize;
+    private final Duration leaseTtl;
+    private final int hotRequestsPerSecond;
+    private final long idleReturnNanos;
+    private final long soldOutBackoffNanos;
+    private final Map<Long, Pool> pools = new ConcurrentHashMap<>();
+    private final Counter leases;
+    private final Counter leaseMisses;
+    private final ScheduledExecutorService janitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-leases");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockLeases(InventoryRepository inventoryRepository,
+                       StockLeaseRepository stockLeaseRepository,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${inventory.lease.size:50}") int leaseSize,
+                       @Value("${inventory.lease.draw-size:5}") int drawSize,
+                       @Value("${inventory.lease.ttl:2m}") Duration leaseTtl,
+                       @Value("${inventory.hot.requests-per-second:20}") int hotRequestsPerSecond,
+                       @Value("${inventory.lease.idle-return:30s}") Duration idleReturn,
+                       @Value("${inventory.hot.sold-out-backoff:250ms}") Duration soldOutBackoff) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockLeaseRepository = stockLeaseRepository;
+        //TRANSACCION CORTA Y PROPIA AUNQUE LA RESERVA SE PIDA DENTRO DE OTRA: EL BLOQUEO DE LA FILA DURA LO QUE EL UPDATE
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leaseSize = leaseSize;
+        this.drawSize = Math.max(1, drawSize);
+        this.leaseTtl = leaseTtl;
+        this.hotRequestsPerSecond = hotRequestsPerSecond;
+        this.idleReturnNanos = idleReturn.toNanos();
+        this.soldOutBackoffNanos = soldOutBackoff.toNanos();
+        this.leases = Counter.builder("inventory.leases")
+                .description("Lotes de unidades reservados en la base de datos para la reserva en memoria")
+                .register(meterRegistry);
+        this.leaseMisses = Counter.builder("inventory.lease.misses")
+                .description("Lotes pedidos a la base de datos sin stock suficiente")
+                .register(meterRegistry);
+        janitor.scheduleWithFixedDelay(this::returnIdle, idleReturn.toMillis(), idleReturn.toMillis(), TimeUnit.MILLISECONDS);
+        long heartbeat = leaseTtl.toMillis() / 3;
+        janitor.scheduleWithFixedDelay(this::renewAndReclaim, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    //CUENTA LA DEMANDA DEL PRODUCTO Y DICE SI YA VA POR LA RESERVA EN MEMORIA
+    public boolean isHot(Long productId) {
+        return pool(productId).recordDemand(hotRequestsPerSecond);
+    }
+
+    //TRUE SI LAS UNIDADES QUEDAN APARTADAS PARA ESTE NODO, FALSE SI NO HAY STOCK
+    public boolean take(Long productId, int quantity) {
+        Pool pool = pool(productId);
+        if (pool.tryTake(quantity)) {
+            return true;
+        }
+        if (pool.isSoldOut()) {
+            return false;
+        }
+        //SOLO UN HILO POR PRODUCTO VA A LA BASE DE DATOS; LOS DEMAS ESPERAN Y REINTENTAN CON EL LOTE QUE TRAIGA
+        synchronized (pool) {
+            if (pool.tryTake(quantity)) {
+                return true;
+            }
+            if (pool.isSoldOut()) {
+                return false;
+            }
+            int local = pool.drain();
+            int missing = quantity - local;
+            if (draw(productId, pool, missing)) {
+                return true;
+            }
+            int batch = Math.max(leaseSize, missing);
+            int ready = Math.min(drawSize, batch - missing);
+            if (lease(productId, batch, batch - missing - ready)) {
+                pool.bank(batch - missing - ready);
+                pool.add(ready);
+                return true;
+            }
+            //QUEDAN MENOS UNIDADES QUE UN LOTE: SE PIDE SOLO LO QUE FALTA PARA ESTA COMPRA
+            if (batch > missing && lease(productId, missing, 0)) {
+                return true;
+            }
+            pool.add(local);
+            pool.markSoldOut(soldOutBackoffNanos);
+            return false;
+        }
+    }
+
+    //UNIDADES DE UN PEDIDO QUE NO LLEGO A GUARDARSE. VUELVEN A MEMORIA, NO A stock_leases
+    public void giveBack(Long productId, int quantity) {
+        pool(productId).add(quantity);
+    }
+
+    void returnIdle() {
+        long now = System.nanoTime();
+        pools.forEach((productId, pool) -> {
+            if (now - pool.lastDemand() > idleReturnNanos) {
+                pool.cool();
+                returnLeftovers(productId, pool);
+            }
+        });
+    }
+
+    public void returnAll() {
+        pools.forEach(this::returnLeftovers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        janitor.shutdownNow();
+        returnAll();
+    }
+
+    //RENUEVA LOS LOTES DE ESTE NODO Y DEVUELVE LOS DE NODOS QUE HAN DEJADO DE HACERLO
+    void renewAndReclaim() {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    stockLeaseRepository.renew(nodeId, LocalDateTime.now().plus(leaseTtl)));
+            reclaimExpired();
+        } catch (RuntimeException e) {
+            log.warn("No se han podido renovar o recuperar los lotes de stock", e);
+        }
+    }
+
+    public void reclaimExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        for (StockLease expired : stockLeaseRepository.findTop100ByExpiresAtBefore(now)) {
+            transactionTemplate.executeWithoutResult(status ->
+                    stockLeaseRepository.lockExpired(expired.getId(), now).ifPresent(lease -> {
+                        if (lease.getUnits() > 0 && inventoryRepository.returnLease(lease.getId().getProductId(), lease.getUnits()) == 0) {
+                            log.warn("No se han podido devolver {} unidades del producto {}", lease.getUnits(), lease.getId().getProductId());
+                        }
+                        stockLeaseRepository.delete(lease);
+                        log.info("Recuperadas {} unidades del producto {} apartadas por el nodo {}",
+                                lease.getUnits(), lease.getId().getProductId(), lease.getId().getNodeId());
+                    }));
+        }
+    }
+
+    private void returnLeftovers(Long productId, Pool pool) {
+        synchronized (pool) {
+            int leftovers = pool.drain();
+            int banked = pool.banked();
+            if (leftovers == 0 && banked == 0) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    //SI OTRO NODO YA HA RECUPERADO EL LOTE CADUCADO SOLO QUEDAN POR DEVOLVER LAS DE MEMORIA
+                    int fromLease = stockLeaseRepository.close(nodeId, productId, banked) == 1 ? banked : 0;
+                    if (leftovers + fromLease > 0) {
+                        inventoryRepository.returnLease(productId, leftovers + fromLease);
+                    }
+                });
+                pool.bank(-banked);
+            } catch (RuntimeException e) {
+                //SE QUEDAN EN MEMORIA Y SE REINTENTA EN LA SIGUIENTE PASADA
+                pool.add(leftovers);
+                log.warn("No se han podido devolver {} unidades del producto {}", leftovers + banked, productId, e);
+            }
+        }
+    }
+
+    //PASA A MEMORIA UN TROZO DEL LOTE APUNTADO EN stock_leases, CON AL MENOS LO QUE FALTA PARA ESTA COMPRA
+    private boolean draw(Long productId, Pool pool, int missing) {
+        int banked = pool.banked();
+        if (banked == 0 || banked < missing) {
+            return false;
+        }
+        int chunk = Math.min(banked, Math.max(drawSize, missing));
+        Integer taken = transactionTemplate.execute(status -> stockLeaseRepository.take(nodeId, productId, chunk));
+        if (taken == null || taken == 0) {
+            //EL LOTE HA CADUCADO Y OTRO NODO YA LO HA DEVUELTO A inventory
+            pool.bank(-banked);
+            return false;
+        }
+        pool.bank(-chunk);
+        pool.add(chunk - missing);
+        return true;
+    }
+
+    //RESERVA quantity EN inventory Y APUNTA banked DE ELLAS A NOMBRE DE ESTE NODO, TODO O NADA
+    private boolean lease(Long productId, int quantity, int banked) {
+        Boolean leased = transactionTemplate.execute(status -> {
+            if (inventoryRepository.lease(productId, quantity) == 0) {
+                return false;
+            }
+            if (banked > 0) {
+                stockLeaseRepository.add(nodeId, productId, banked, LocalDateTime.now().plus(leaseTtl));
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(leased)) {
+            leases.increment();
+            return true;
+        }
+        leaseMisses.increment();
+        return false;
+    }
+
+    private Pool pool(Long productId) {
+        return pools.computeIfAbsent(productId, id -> new Pool());
+    }
+
+    private static final class Pool {
+
+        private final AtomicInteger available = new AtomicInteger();
+        //LO QUE ESTE NODO TIENE APUNTADO EN stock_leases; SOLO SE TOCA CON EL MONITOR DEL POOL
+        private int banked;
+        private final AtomicLong demandSecond = new AtomicLong();
+        private final AtomicInteger demand = new AtomicInteger();
+        private volatile boolean hot;
+        private volatile long lastDemand = System.nanoTime();
+        private volatile long soldOutUntil;
+
+        //VENTANAS DE UN SEGUNDO APROXIMADAS: BASTA CON SABER SI HAY RAFAGA, NO CONTAR EXACTO
+        boolean recordDemand(int threshold) {
+            long now = System.nanoTime();
+            lastDemand = now;
+            if (hot) {
+                return true;
+            }
+            long second = TimeUnit.NANOSECONDS.toSeconds(now);
+            long window = demandSecond.get();
+            if (window != second && demandSecond.compareAndSet(window, second)) {
+                demand.set(0);
+            }
+            if (demand.incrementAndGet() >= threshold) {
+                hot = true;
+            }
+            return hot;
+        }
+
+        boolean tryTake(int quantity) {
+            while (true) {
+                int current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+
+        void add(int quantity) {
+            if (quantity > 0) {
+                available.addAndGet(quantity);
+                soldOutUntil = 0;
+            }
+        }
+
+        int drain() {
+            return available.getAndSet(0);
+        }
+
+        int banked() {
+            return banked;
+        }
+
+        void bank(int quantity) {
+            banked += quantity;
+            if (quantity > 0) {
+                soldOutUntil = 0;
+            }
+        }
+
+        boolean isSoldOut() {
+            long until = soldOutUntil;
+            return until != 0 && System.nanoTime() - until < 0;
+        }
+
+        void markSoldOut(long backoffNanos) {
+            soldOutUntil = System.nanoTime() + backoffNanos;
+        }
+
+        long lastDemand() {
+            return lastDemand;
+        }
+
+        void cool() {
+            hot = false;
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.bazarPepe.eccomerce.inventory;
+
+import java.util.List;
+
+//UNIDADES YA APARTADAS PARA UN PEDIDO QUE TODAVIA NO SE HA GUARDADO, PARA PODER DEVOLVERLAS SI FALLA
+public record StockReservation(List<Item> items) {
+
+    //LOS PRODUCTOS SIN FILA DE INVENTARIO NO ENTRAN EN LA RESERVA
+    public boolean covers(Long productId) {
+        return items.stream().anyMatch(item -> item.productId().equals(productId));
+    }
+
+    //hot: SALIO DE LA RESERVA EN MEMORIA DE ESTE NODO Y VUELVE A ELLA, NO A LA BASE DE DATOS
+    public record Item(Long productId, int quantity, boolean hot) {
+    }
+
+}
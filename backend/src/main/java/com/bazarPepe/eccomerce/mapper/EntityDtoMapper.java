@@ -2,9 +2,11 @@ package com.bazarPepe.eccomerce.mapper;
 
 import com.bazarPepe.eccomerce.dto.*;
 import com.bazarPepe.eccomerce.entity.*;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
 import org.springframework.stereotype.Component;
 
-import java.util.Base64;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -59,13 +61,33 @@ public class EntityDtoMapper {
         productDto.setName(product.getName());
         productDto.setDescription(product.getDescription());
         productDto.setPrice(product.getPrice());
-        // Convertir la imagen a Base64 y asignarla a productDto
-        productDto.setImage(product.getImage() != null ?
-                Base64.getEncoder().encodeToString(product.getImage()) : null);
+        //SOLO SE ENVIA LA URL DE LA IMAGEN, EL CLIENTE LA DESCARGA (Y CACHEA) POR SEPARADO
+        productDto.setImageHash(product.getImageHash());
+        productDto.setImageUrl(productImageUrl(product.getId(), product.getImageHash()));
+        return productDto;
+    }
 
+    //PROYECCION PRODUCT SUMMARY TO PRODUCT DTO BASIC
+    public ProductDto mapProductSummaryToDto(ProductSummary productSummary){
+        ProductDto productDto=new ProductDto();
+        productDto.setId(productSummary.id());
+        productDto.setName(productSummary.name());
+        productDto.setDescription(productSummary.description());
+        productDto.setPrice(productSummary.price());
+        productDto.setImageHash(productSummary.imageHash());
+        productDto.setImageUrl(productImageUrl(productSummary.id(), productSummary.imageHash()));
         return productDto;
     }
 
+    //URL DE LA IMAGEN DEL PRODUCTO, EL HASH HACE QUE CAMBIE CUANDO CAMBIA LA IMAGEN
+    public String productImageUrl(Long productId, String imageHash){
+        if (productId==null){
+            return null;
+        }
+        String url="/product/"+productId+"/image";
+        return imageHash!=null ? url+"?v="+imageHash : url;
+    }
+
     //ADD ADDRESS TO USER DTO
     public UserDto mapUserToDtoPlusAddress(User user){
         UserDto userDto=mapUserToDtoBasic(user);
@@ -76,33 +98,31 @@ public class EntityDtoMapper {
         return userDto;
     }
 
-    //ADD PRODUCT TO ORDERITEM DTO
-    public OrderItemDto mapOrderItemToDtoPlusProduct(OrderItem orderItem){
+    //ADD PRODUCT SUMMARY TO ORDERITEM DTO
+    public OrderItemDto mapOrderItemToDtoPlusProductSummary(OrderItem orderItem, ProductSummary productSummary){
         OrderItemDto orderItemDto=mapOrderItemToDtoBasic(orderItem);
-        if(orderItem.getProduct()!=null){
-            ProductDto productDto=mapProductToDtoBasic(orderItem.getProduct());
-            orderItemDto.setProduct(productDto);
+        if (productSummary!=null){
+            orderItemDto.setProduct(mapProductSummaryToDto(productSummary));
         }
         return orderItemDto;
     }
 
-    //ADD USER,PRODUCT TO ORDERITEM DTO
-    public OrderItemDto mapOrderItemToDtoPlusProductAndUser(OrderItem orderItem){
-        OrderItemDto orderItemDto=mapOrderItemToDtoPlusProduct(orderItem);
+    //ADD USER AND PRODUCT SUMMARY TO ORDERITEM DTO, SIN TOCAR LA ENTIDAD PRODUCT
+    public OrderItemDto mapOrderItemToDtoPlusProductSummaryAndUser(OrderItem orderItem, ProductSummary productSummary){
+        OrderItemDto orderItemDto=mapOrderItemToDtoPlusProductSummary(orderItem,productSummary);
         if(orderItem.getUser()!=null){
-            UserDto userDto=mapUserToDtoPlusAddress(orderItem.getUser());
-            orderItemDto.setUser(userDto);
+            orderItemDto.setUser(mapUserToDtoPlusAddress(orderItem.getUser()));
         }
         return orderItemDto;
     }
 
-    //ADD ADDRESS, ORDER ITEMS HISTORY TO USER DTO
-    public UserDto mapUsertoDtoPlusAddressAndOrderHistory(User user){
+    //ADD ADDRESS, ORDER ITEMS HISTORY TO USER DTO. EL HISTORIAL LLEGA YA CARGADO CON SUS PRODUCTOS EN UNA CONSULTA
+    public UserDto mapUsertoDtoPlusAddressAndOrderHistory(User user, List<OrderItemRow> orderHistory){
         UserDto userDto=mapUserToDtoPlusAddress(user);
-        if (user.getOrderItemList()!=null && !user.getOrderItemList().isEmpty()){
-            userDto.setOrderItemList(user.getOrderItemList()
+        if (orderHistory!=null && !orderHistory.isEmpty()){
+            userDto.setOrderItemList(orderHistory
                     .stream()
-                    .map(this::mapOrderItemToDtoPlusProduct)
+                    .map(row->mapOrderItemToDtoPlusProductSummary(row.orderItem(),row.product()))
                     .collect(Collectors.toList()));
         }
         return userDto;
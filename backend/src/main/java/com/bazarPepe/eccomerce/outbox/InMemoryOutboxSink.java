@@ -0,0 +1,35 @@
+package com.bazarPepe.eccomerce.outbox;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+//CONSUMIDORES DENTRO DE LA MISMA APLICACION. CADA OYENTE RECIBE LOS EVENTOS EN ORDEN, EN EL HILO DEL RELAY
+@Component
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<Consumer<OutboxMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    public void subscribe(Consumer<OutboxMessage> listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Consumer<OutboxMessage> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (Consumer<OutboxMessage> listener : listeners) {
+            messages.forEach(listener);
+        }
+    }
+
+}
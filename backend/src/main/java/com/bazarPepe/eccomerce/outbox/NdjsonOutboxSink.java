@@ -0,0 +1,60 @@
+package com.bazarPepe.eccomerce.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//UN EVENTO JSON POR LINEA EN UN FICHERO LOCAL, PARA QUE OTRO PROCESO LO SIGA (tail -f, UN AGENTE DE LOGS...)
+@Component
+@ConditionalOnProperty(name = "outbox.sink.ndjson.enabled", havingValue = "true")
+public class NdjsonOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public NdjsonOutboxSink(ObjectMapper objectMapper,
+                            @Value("${outbox.sink.ndjson.path:./data/outbox/events.ndjson}") Path path) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String name() {
+        return "ndjson";
+    }
+
+    //TODO EL LOTE EN UNA ESCRITURA Y UN fsync: EL RELAY SOLO LO DA POR PUBLICADO CUANDO ESTA EN DISCO
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(messages.size() * 256);
+        for (OutboxMessage message : messages) {
+            objectMapper.writeValue(buffer, message);
+            buffer.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.bazarPepe.eccomerce.outbox;
+
+import com.bazarPepe.eccomerce.entity.OutboxEvent;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.bazarPepe.eccomerce.repository.OutboxEventRepository;
+import com.bazarPepe.eccomerce.repository.OutboxSequenceRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+//ESCRIBE EL EVENTO EN LA MISMA TRANSACCION QUE EL CAMBIO: O SE GUARDAN LOS DOS O NINGUNO. ANTES DE GUARDARLO TOMA
+//EL SIGUIENTE NUMERO DE SU AGREGADO EN outbox_sequences, Y ESE BLOQUEO SE MANTIENE HASTA EL COMMIT: OTRA TRANSACCION
+//CON EVENTOS DEL MISMO AGREGADO ESPERA A QUE ESTA TERMINE, ASI QUE SU EVENTO SE CONFIRMA DESPUES Y CON UN ID MAYOR.
+//SI LA TRANSACCION SE DESHACE, EL NUMERO SE DESHACE CON ELLA Y NO QUEDAN HUECOS
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType eventType, Long aggregateId, Object payload) {
+        String aggregateType = eventType.getAggregateType().name();
+        outboxSequenceRepository.increment(aggregateType, aggregateId);
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(eventType.getAggregateType());
+        event.setAggregateId(aggregateId);
+        event.setAggregateSequence(outboxSequenceRepository.current(aggregateType, aggregateId));
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se ha podido serializar el evento " + eventType, e);
+        }
+        outboxEventRepository.save(event);
+    }
+
+}
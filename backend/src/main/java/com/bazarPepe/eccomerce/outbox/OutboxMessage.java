@@ -0,0 +1,23 @@
+package com.bazarPepe.eccomerce.outbox;
+
+import com.bazarPepe.eccomerce.entity.OutboxEvent;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+//LO QUE RECIBEN LOS SINKS. CON ENTREGA AL MENOS UNA VEZ UN EVENTO PUEDE LLEGAR REPETIDO: EL id LO IDENTIFICA
+//Y aggregateSequence DICE SU POSICION DENTRO DEL AGREGADO
+public record OutboxMessage(Long id,
+                            OutboxEventType.AggregateType aggregateType,
+                            Long aggregateId,
+                            Long aggregateSequence,
+                            OutboxEventType eventType,
+                            @JsonRawValue String payload,
+                            LocalDateTime createdAt) {
+
+    public static OutboxMessage from(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getAggregateSequence(), event.getEventType(), event.getPayload(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,129 @@
+package com.bazarPepe.eccomerce.outbox;
+
+import com.bazarPepe.eccomerce.entity.OutboxEvent;
+import com.bazarPepe.eccomerce.id.Snowflake;
+import com.bazarPepe.eccomerce.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+//PUBLICA LOS EVENTOS DEL OUTBOX EN TODOS LOS SINKS, POR LOTES Y EN ORDEN DE ID. UN LOTE SOLO SE MARCA COMO PUBLICADO
+//CUANDO TODOS LOS SINKS LO HAN ACEPTADO; SI ALGUNO FALLA SE REPITE ENTERO (ENTREGA AL MENOS UNA VEZ) Y NO SE AVANZA
+//HASTA QUE SALE. DENTRO DE UN AGREGADO EL ORDEN DE ID ES EL DE COMMIT (LO GARANTIZA EL BLOQUEO DE outbox_sequences EN
+//Outbox.append): CUANDO SE VE UN EVENTO YA ESTAN CONFIRMADOS TODOS LOS ANTERIORES DE SU AGREGADO, ASI QUE NUNCA SE
+//ADELANTAN AUNQUE SU TRANSACCION TARDE LO QUE TARDE. ENTRE AGREGADOS DISTINTOS EL ORDEN ES EL MEJOR POSIBLE: UNA
+//TRANSACCION QUE CONFIRMA MAS DE outbox.relay.settle DESPUES DE ESCRIBIR SU EVENTO LO VERA PUBLICADO DETRAS DE EVENTOS
+//MAS NUEVOS DE OTROS AGREGADOS. DEBE HABER UN SOLO RELAY ACTIVO (outbox.relay.enabled EN UN UNICO NODO)
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final int CLEANUP_CHUNK = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration settle;
+    private final Duration retention;
+    private final DistributionSummary batchSizes;
+    private final Timer publishTimer;
+    private final MeterRegistry meterRegistry;
+    //MILISEGUNDOS QUE LLEVA ESPERANDO EL EVENTO PENDIENTE MAS ANTIGUO
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSink> sinks,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.relay.settle:500ms}") Duration settle,
+                       @Value("${outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.settle = settle;
+        this.retention = retention;
+        this.meterRegistry = meterRegistry;
+        this.batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Eventos publicados en cada lote")
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("outbox.relay.publish")
+                .description("Tiempo en publicar un lote en todos los sinks")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Antiguedad del evento pendiente mas antiguo")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:1s}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        while (true) {
+            //SE DEJAN SIN LEER LOS EVENTOS DE LOS ULTIMOS MILISEGUNDOS: UNA TRANSACCION LENTA AUN PUEDE CONFIRMAR
+            //UN EVENTO CON UN ID MENOR. SOLO AFECTA AL ORDEN ENTRE AGREGADOS DISTINTOS
+            long maxId = Snowflake.firstIdAt(System.currentTimeMillis() - settle.toMillis());
+            List<OutboxEvent> events = outboxEventRepository.findUnpublished(maxId, PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                lagMillis.set(0);
+                return;
+            }
+            lagMillis.set(System.currentTimeMillis() - Snowflake.timestampMillis(events.get(0).getId()));
+            List<OutboxMessage> messages = events.stream().map(OutboxMessage::from).toList();
+            if (!publish(messages)) {
+                return;
+            }
+            outboxEventRepository.markPublished(messages.stream().map(OutboxMessage::id).toList(), LocalDateTime.now());
+            batchSizes.record(messages.size());
+            if (events.size() < batchSize) {
+                lagMillis.set(0);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval:1h}")
+    public void deletePublished() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int deleted;
+        do {
+            deleted = outboxEventRepository.deletePublishedBefore(before, CLEANUP_CHUNK);
+        } while (deleted == CLEANUP_CHUNK);
+    }
+
+    private boolean publish(List<OutboxMessage> messages) {
+        return publishTimer.record(() -> {
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.publish(messages);
+                } catch (Exception e) {
+                    Counter.builder("outbox.relay.failures")
+                            .description("Lotes que un sink no ha podido recibir")
+                            .tag("sink", sink.name())
+                            .register(meterRegistry)
+                            .increment();
+                    log.warn("El sink {} no ha aceptado un lote de {} eventos, se reintentara", sink.name(), messages.size(), e);
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.bazarPepe.eccomerce.outbox;
+
+import java.util.List;
+
+//DESTINO DE LOS EVENTOS. SI publish LANZA UNA EXCEPCION EL LOTE ENTERO SE REPITE MAS TARDE, EN EL MISMO ORDEN
+public interface OutboxSink {
+
+    String name();
+
+    void publish(List<OutboxMessage> messages) throws Exception;
+
+}
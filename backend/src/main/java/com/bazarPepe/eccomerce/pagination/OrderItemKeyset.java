@@ -0,0 +1,69 @@
+package com.bazarPepe.eccomerce.pagination;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//POSICION DENTRO DEL LISTADO DE ORDER ITEMS DEL PANEL, SIEMPRE DEL MAS NUEVO AL MAS VIEJO (ID DESCENDENTE).
+//CADA PAGINA ES "LOS size SIGUIENTES CON ID MENOR QUE EL ULTIMO", QUE RESUELVEN LOS INDICES (status,id) Y LA CLAVE PRIMARIA
+public class OrderItemKeyset {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final Long lastId;
+
+    private OrderItemKeyset(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public static OrderItemKeyset firstPage() {
+        return new OrderItemKeyset(null);
+    }
+
+    //LO SIGUIENTE A UN ID YA CONOCIDO, PARA RECORRER EL FILTRO POR LOTES DESDE EL SERVIDOR
+    public static OrderItemKeyset after(Long lastId) {
+        return new OrderItemKeyset(lastId);
+    }
+
+    //EL CURSOR ES OPACO PARA EL CLIENTE: BASE64 DE "v1|id"
+    public static OrderItemKeyset fromCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", -1);
+            if (parts.length != 2 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return new OrderItemKeyset(Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidCredentialsException("Cursor no valido");
+        }
+    }
+
+    public boolean isFirstPage() {
+        return lastId == null;
+    }
+
+    public String nextCursor(OrderItem last) {
+        String raw = String.join(SEPARATOR, VERSION, String.valueOf(last.getId()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Predicate afterPredicate(Root<OrderItem> root, CriteriaBuilder criteriaBuilder) {
+        if (lastId == null) {
+            return null;
+        }
+        return criteriaBuilder.lessThan(root.get("id"), lastId);
+    }
+
+    public Order orderBy(Root<OrderItem> root, CriteriaBuilder criteriaBuilder) {
+        return criteriaBuilder.desc(root.get("id"));
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.bazarPepe.eccomerce.pagination;
+
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+//POSICION DENTRO DEL LISTADO PAGINADO POR KEYSET: ORDEN + ULTIMA FILA DEVUELTA.
+//EN LUGAR DE OFFSET SE PIDE "LO SIGUIENTE A (valor, id)", ASI UNA PAGINA PROFUNDA CUESTA LO MISMO QUE LA PRIMERA
+public class ProductKeyset {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final ProductSortKey sortKey;
+    private final Sort.Direction direction;
+    private final Comparable<?> lastValue;
+    private final Long lastId;
+
+    private ProductKeyset(ProductSortKey sortKey, Sort.Direction direction, Comparable<?> lastValue, Long lastId) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    //PRIMERA PAGINA A PARTIR DEL PARAMETRO sort, CON EL FORMATO "campo,direccion" (POR EJEMPLO "price,asc")
+    public static ProductKeyset firstPage(String sort) {
+        try {
+            String[] parts = sort.split(",");
+            ProductSortKey sortKey = ProductSortKey.fromParam(parts[0]);
+            Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.DESC;
+            return new ProductKeyset(sortKey, direction, null, null);
+        } catch (RuntimeException e) {
+            throw new InvalidCredentialsException("Orden no valido: " + sort);
+        }
+    }
+
+    //EL CURSOR ES OPACO PARA EL CLIENTE: BASE64 DE "v1|clave|direccion|valor|id"
+    public static ProductKeyset fromCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException(decoded);
+            }
+            ProductSortKey sortKey = ProductSortKey.valueOf(parts[1]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[2]);
+            return new ProductKeyset(sortKey, direction, sortKey.parse(parts[3]), Long.valueOf(parts[4]));
+        } catch (RuntimeException e) {
+            throw new InvalidCredentialsException("Cursor no valido");
+        }
+    }
+
+    public String nextCursor(ProductSummary last) {
+        Object value = sortKey.valueOf(last);
+        String raw = String.join(SEPARATOR, VERSION, sortKey.name(), direction.name(), String.valueOf(value), String.valueOf(last.id()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //(clave > valor) OR (clave = valor AND id > ultimoId), O AL REVES SI EL ORDEN ES DESCENDENTE
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Predicate afterPredicate(Root<Product> root, CriteriaBuilder criteriaBuilder) {
+        if (lastId == null) {
+            return null;
+        }
+        Expression<Long> id = root.get("id");
+        Predicate idAfter = direction.isAscending() ? criteriaBuilder.greaterThan(id, lastId) : criteriaBuilder.lessThan(id, lastId);
+        if (sortKey == ProductSortKey.ID) {
+            return idAfter;
+        }
+        Expression<Comparable> key = root.get(sortKey.getAttribute());
+        Comparable value = lastValue;
+        Predicate keyAfter = direction.isAscending() ? criteriaBuilder.greaterThan(key, value) : criteriaBuilder.lessThan(key, value);
+        return criteriaBuilder.or(keyAfter, criteriaBuilder.and(criteriaBuilder.equal(key, value), idAfter));
+    }
+
+    public List<Order> orderBy(Root<Product> root, CriteriaBuilder criteriaBuilder) {
+        Expression<?> id = root.get("id");
+        if (sortKey == ProductSortKey.ID) {
+            return List.of(order(criteriaBuilder, id));
+        }
+        return List.of(order(criteriaBuilder, root.get(sortKey.getAttribute())), order(criteriaBuilder, id));
+    }
+
+    private Order order(CriteriaBuilder criteriaBuilder, Expression<?> expression) {
+        return direction.isAscending() ? criteriaBuilder.asc(expression) : criteriaBuilder.desc(expression);
+    }
+
+}
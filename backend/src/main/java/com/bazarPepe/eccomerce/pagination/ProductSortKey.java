@@ -0,0 +1,44 @@
+package com.bazarPepe.eccomerce.pagination;
+
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Function;
+
+//CLAVES DE ORDENACION ESTABLES PARA EL LISTADO DE PRODUCTOS, TODAS DESEMPATAN POR ID Y TIENEN SU INDICE
+public enum ProductSortKey {
+    ID("id", ProductSummary::id),
+    PRICE("price", ProductSummary::price),
+    CREATED_AT("createdAt", ProductSummary::createdAt);
+
+    private final String attribute;
+    private final Function<ProductSummary, Object> extractor;
+
+    ProductSortKey(String attribute, Function<ProductSummary, Object> extractor) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    Object valueOf(ProductSummary productSummary) {
+        return extractor.apply(productSummary);
+    }
+
+    //CONVIERTE EL VALOR GUARDADO EN EL CURSOR AL TIPO DE LA COLUMNA
+    Comparable<?> parse(String value) {
+        return switch (this) {
+            case ID -> Long.valueOf(value);
+            case PRICE -> new BigDecimal(value);
+            case CREATED_AT -> LocalDateTime.parse(value);
+        };
+    }
+
+    public static ProductSortKey fromParam(String value) {
+        return ProductSortKey.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,8 @@
+package com.bazarPepe.eccomerce.projection;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+
+//UN ORDER ITEM LISTO PARA MAPEAR A DTO: CON SU USUARIO Y DIRECCION YA CARGADOS
+//Y EL PRODUCTO SOLO COMO RESUMEN, SIN LA COLUMNA IMAGE
+public record OrderItemRow(OrderItem orderItem, ProductSummary product) {
+}
@@ -0,0 +1,12 @@
+package com.bazarPepe.eccomerce.projection;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+//LO QUE HACE FALTA DE UNA LINEA DE PEDIDO PARA CAMBIARLE EL ESTADO: STOCK (PRODUCTO Y CANTIDAD) Y EVENTO
+//(PEDIDO, Y PRECIO Y FECHA PARA LOS ACUMULADOS DE VENTAS)
+public record OrderItemStatusRow(Long id, OrderStatus status, int quantity, BigDecimal price, LocalDateTime createdAt,
+                                 Long productId, Long orderId, boolean reserved) {
+}
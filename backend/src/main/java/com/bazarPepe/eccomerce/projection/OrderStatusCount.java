@@ -0,0 +1,7 @@
+package com.bazarPepe.eccomerce.projection;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+
+//NUMERO DE ORDER ITEMS EN UN ESTADO
+public record OrderStatusCount(OrderStatus status, Long count) {
+}
@@ -0,0 +1,10 @@
+package com.bazarPepe.eccomerce.projection;
+
+//PROYECCION CERRADA CON LOS DATOS NECESARIOS PARA SERVIR LA IMAGEN DE UN PRODUCTO
+public interface ProductImageView {
+
+    String getImageHash();
+
+    String getImageContentType();
+
+}
@@ -0,0 +1,5 @@
+package com.bazarPepe.eccomerce.projection;
+
+//UNIDADES VENDIDAS DE UN PRODUCTO, AGREGADAS SOBRE TODOS LOS PEDIDOS
+public record ProductSales(Long productId, Long quantity) {
+}
@@ -0,0 +1,18 @@
+package com.bazarPepe.eccomerce.projection;
+
+import com.bazarPepe.eccomerce.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+//VISTA DE UN PRODUCTO PARA LISTADOS: NUNCA INCLUYE LA COLUMNA IMAGE (BLOB)
+public record ProductSummary(Long id, String name, String description, BigDecimal price, String imageHash, Long categoryId,
+                             LocalDateTime createdAt) {
+
+    //RESUMEN DE UNA ENTIDAD YA CARGADA, PARA MANTENER LOS INDICES EN MEMORIA SIN VOLVER A CONSULTAR
+    public static ProductSummary from(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getImageHash(), product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCreatedAt());
+    }
+}
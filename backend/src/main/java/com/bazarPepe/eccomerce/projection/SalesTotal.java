@@ -0,0 +1,7 @@
+package com.bazarPepe.eccomerce.projection;
+
+import java.math.BigDecimal;
+
+//SUMA DE LOS ACUMULADOS DE VENTAS DE UN PRODUCTO O CATEGORIA EN UN RANGO DE DIAS
+public record SalesTotal(Long dimensionId, Long units, BigDecimal revenue, Long itemCount) {
+}
@@ -0,0 +1,56 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    //INSERT DIRECTO (save HARIA UN SELECT ANTES): SI LA CLAVE YA EXISTE FALLA POR LA CLAVE PRIMARIA Y OTRA PETICION ES LA DUEÑA
+    @Modifying
+    @Transactional
+    @Query(value = "insert into idempotency_keys (key_hash,request_hash,created_at,expires_at,owner_node,heartbeat_at) " +
+            "values (:keyHash,:requestHash,:now,:expiresAt,:ownerNode,:now)", nativeQuery = true)
+    int claim(@Param("keyHash") String keyHash, @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt, @Param("ownerNode") String ownerNode);
+
+    //UNA CLAVE CADUCADA QUE AUN NO SE HA BORRADO, O UNA EN CURSO CUYO NODO HA DEJADO DE RENOVARLA (NODO CAIDO),
+    //SE PUEDE VOLVER A USAR. UNA EN CURSO DE UN NODO VIVO NUNCA, TARDE LO QUE TARDE
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.requestHash=:requestHash, r.responseStatus=null, r.responseBody=null, r.createdAt=:now, " +
+            "r.expiresAt=:expiresAt, r.ownerNode=:ownerNode, r.heartbeatAt=:now " +
+            "where r.keyHash=:keyHash and (r.expiresAt<:now or (r.responseStatus is null and coalesce(r.heartbeatAt,r.createdAt)<:staleBefore))")
+    int takeOver(@Param("keyHash") String keyHash, @Param("requestHash") String requestHash, @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("ownerNode") String ownerNode);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.heartbeatAt=:now where r.keyHash in :keyHashes and r.ownerNode=:ownerNode and r.responseStatus is null")
+    int heartbeat(@Param("keyHashes") Collection<String> keyHashes, @Param("ownerNode") String ownerNode, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.responseStatus=:responseStatus, r.responseBody=:responseBody where r.keyHash=:keyHash")
+    int complete(@Param("keyHash") String keyHash, @Param("responseStatus") int responseStatus, @Param("responseBody") String responseBody);
+
+    //LA PRIMERA PETICION HA FALLADO SIN GUARDAR NADA: UN REINTENTO DEBE PODER EJECUTARSE
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.keyHash=:keyHash and r.responseStatus is null")
+    int abandon(@Param("keyHash") String keyHash);
+
+    //POR TROZOS PARA NO BLOQUEAR LA TABLA EN UN SOLO DELETE GRANDE
+    @Modifying
+    @Transactional
+    @Query(value = "delete from idempotency_keys where expires_at<:now limit :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+}
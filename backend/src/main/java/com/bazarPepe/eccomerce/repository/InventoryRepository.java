@@ -0,0 +1,60 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.Inventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Set;
+
+//TODOS LOS MOVIMIENTOS DE STOCK SON UPDATE CONDICIONALES: SE COMPRUEBA Y SE CAMBIA EN LA MISMA SENTENCIA,
+//SIN LEER ANTES LA FILA, Y EL NUMERO DE FILAS AFECTADAS DICE SI HABIA UNIDADES
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, InventoryReservationRepository {
+
+    //LOS PRODUCTOS SIN FILA NO LLEVAN CONTROL DE STOCK (LOS DE ANTES DEL INVENTARIO Y LOS QUE EL ADMIN NO HA CONFIGURADO)
+    @Query("select i.productId from Inventory i where i.productId in :productIds")
+    Set<Long> findTrackedIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.reserved=i.reserved+:quantity where i.productId=:productId and i.stock-i.reserved>=:quantity")
+    int reserve(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.reserved=i.reserved-:quantity where i.productId=:productId and i.reserved>=:quantity")
+    int release(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    //EL PEDIDO SALE DEL ALMACEN: LAS UNIDADES DEJAN DE ESTAR RESERVADAS Y DE ESTAR EN STOCK
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.stock=i.stock-:quantity, i.reserved=i.reserved-:quantity where i.productId=:productId and i.reserved>=:quantity")
+    int consume(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.stock=i.stock+:quantity where i.productId=:productId")
+    int restock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    //NUNCA POR DEBAJO DE LO YA RESERVADO
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.stock=:stock where i.productId=:productId and i.reserved<=:stock")
+    int updateStock(@Param("productId") Long productId, @Param("stock") int stock);
+
+    //LOS LOTES DE LA RESERVA EN MEMORIA VAN EN UNA TRANSACCION CORTA DE StockLeases, JUNTO CON SU FILA EN stock_leases
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("update Inventory i set i.reserved=i.reserved+:quantity where i.productId=:productId and i.stock-i.reserved>=:quantity")
+    int lease(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("update Inventory i set i.reserved=i.reserved-:quantity where i.productId=:productId and i.reserved>=:quantity")
+    int returnLease(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+}
@@ -0,0 +1,11 @@
+package com.bazarPepe.eccomerce.repository;
+
+import java.util.Map;
+
+public interface InventoryReservationRepository {
+
+    //RESERVA VARIOS PRODUCTOS CON UN SOLO UPDATE CONDICIONAL. DEVUELVE LAS FILAS AFECTADAS: SI ES MENOR QUE EL
+    //NUMERO DE PRODUCTOS A ALGUNO LE FALTA STOCK Y HAY QUE DESHACER LA TRANSACCION
+    int reserveAll(Map<Long, Integer> quantitiesByProduct);
+
+}
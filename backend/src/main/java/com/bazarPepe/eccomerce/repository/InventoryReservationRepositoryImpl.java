@@ -0,0 +1,45 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.Inventory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class InventoryReservationRepositoryImpl implements InventoryReservationRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //update inventory set reserved=reserved+case product_id when ? then ? ... end
+    //where (product_id=? and stock-reserved>=?) or ...
+    @Override
+    public int reserveAll(Map<Long, Integer> quantitiesByProduct) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Inventory> update = criteriaBuilder.createCriteriaUpdate(Inventory.class);
+        Root<Inventory> inventory = update.from(Inventory.class);
+        Path<Long> productId = inventory.get("productId");
+        Path<Integer> stock = inventory.get("stock");
+        Path<Integer> reserved = inventory.get("reserved");
+
+        CriteriaBuilder.SimpleCase<Long, Integer> quantity = criteriaBuilder.selectCase(productId);
+        List<Predicate> available = new ArrayList<>(quantitiesByProduct.size());
+        quantitiesByProduct.forEach((id, units) -> {
+            quantity.when(id, units);
+            available.add(criteriaBuilder.and(
+                    criteriaBuilder.equal(productId, id),
+                    criteriaBuilder.ge(criteriaBuilder.diff(stock, reserved), units)));
+        });
+        update.set(reserved, criteriaBuilder.sum(reserved, quantity.otherwise(0)));
+        update.where(criteriaBuilder.or(available.toArray(Predicate[]::new)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface OrderItemExportRepository {
+
+    //RECORRE TODOS LOS ORDER ITEMS QUE CUMPLEN EL FILTRO SIN CARGARLOS EN MEMORIA. HAY QUE CONSUMIRLO DENTRO
+    //DE UNA TRANSACCION Y CERRARLO AL TERMINAR
+    Stream<OrderItemRow> streamForExport(Specification<OrderItem> specification);
+
+}
@@ -0,0 +1,34 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class OrderItemExportRepositoryImpl implements OrderItemExportRepository {
+
+    //CON MYSQL CONNECTOR/J, Integer.MIN_VALUE HACE QUE EL DRIVER ENTREGUE LAS FILAS UNA A UNA EN LUGAR DE
+    //LEER TODO EL RESULTADO EN MEMORIA ANTES DE DEVOLVER LA PRIMERA
+    static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<OrderItemRow> streamForExport(Specification<OrderItem> specification) {
+        OrderItemRowQuery rows = new OrderItemRowQuery(entityManager)
+                .where(specification)
+                .newestFirst();
+
+        return entityManager.createQuery(rows.query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAMING_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(OrderItemRowQuery::toRow);
+    }
+
+}
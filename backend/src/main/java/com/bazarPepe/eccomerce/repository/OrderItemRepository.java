@@ -1,12 +1,48 @@
 package com.bazarPepe.eccomerce.repository;
 
 import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.projection.OrderItemStatusRow;
+import com.bazarPepe.eccomerce.projection.OrderStatusCount;
+import com.bazarPepe.eccomerce.projection.ProductSales;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, JpaSpecificationExecutor<OrderItem> {
+import java.util.Collection;
+import java.util.List;
 
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, JpaSpecificationExecutor<OrderItem>, OrderItemExportRepository, OrderItemRowRepository {
 
+    //PAGINACION POR OFFSET DEL FILTRO: USUARIO Y DIRECCION EN LA MISMA CONSULTA QUE LA PAGINA
+    @Override
+    @EntityGraph(attributePaths = {"user","user.address"})
+    Page<OrderItem>findAll(Specification<OrderItem> specification, Pageable pageable);
 
+    //UNIDADES VENDIDAS POR PRODUCTO, PARA ORDENAR EL AUTOCOMPLETADO POR POPULARIDAD
+    @Query("select new com.bazarPepe.eccomerce.projection.ProductSales(oi.product.id,sum(oi.quantity)) from OrderItem oi group by oi.product.id")
+    List<ProductSales>findProductSales();
+
+    //RECUENTO POR ESTADO: RECORRE EL INDICE (status,id), NO LA TABLA
+    @Query("select new com.bazarPepe.eccomerce.projection.OrderStatusCount(oi.status,count(oi)) from OrderItem oi group by oi.status")
+    List<OrderStatusCount>countByStatus();
+
+    //ESTADO ACTUAL DE UN LOTE DE LINEAS, SIN CARGAR LAS ENTIDADES
+    @Query("select new com.bazarPepe.eccomerce.projection.OrderItemStatusRow(oi.id,oi.status,oi.quantity,oi.price,oi.createdAt,oi.product.id,oi.order.id,oi.reserved) from OrderItem oi where oi.id in :ids")
+    List<OrderItemStatusRow>findStatusRows(@Param("ids") Collection<Long> ids);
+
+    //CAMBIO DE ESTADO DE UN LOTE EN UN SOLO UPDATE. SOLO TOCA LAS FILAS QUE SIGUEN EN previous: SI DEVUELVE MENOS
+    //DE ids.size() ES QUE OTRA PETICION HA CAMBIADO ALGUNA ENTRE MEDIAS
+    @Modifying
+    @Transactional
+    @Query("update OrderItem oi set oi.status=:next where oi.id in :ids and oi.status=:previous")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("previous") OrderStatus previous, @Param("next") OrderStatus next);
 
 }
@@ -0,0 +1,81 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.entity.User;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//UNA SOLA SELECT PARA TODO LO QUE NECESITA EL DTO DE UN ORDER ITEM: EL USUARIO Y SU DIRECCION VAN EN FETCH JOIN
+//Y DEL PRODUCTO SOLO SE LEEN LAS COLUMNAS DEL RESUMEN, ASI MAPEAR N FILAS NO DISPARA NINGUNA CONSULTA MAS
+final class OrderItemRowQuery {
+
+    final CriteriaBuilder criteriaBuilder;
+    final CriteriaQuery<Tuple> query;
+    final Root<OrderItem> root;
+
+    OrderItemRowQuery(EntityManager entityManager) {
+        criteriaBuilder = entityManager.getCriteriaBuilder();
+        query = criteriaBuilder.createTupleQuery();
+        root = query.from(OrderItem.class);
+        Fetch<OrderItem, User> user = root.fetch("user", JoinType.LEFT);
+        user.fetch("address", JoinType.LEFT);
+        Join<OrderItem, Product> product = root.join("product", JoinType.LEFT);
+        query.multiselect(root,
+                product.get("id"), product.get("name"), product.get("description"), product.get("price"),
+                product.get("imageHash"), product.get("category").get("id"), product.get("createdAt"));
+    }
+
+    //EL FILTRO Y LOS PREDICADOS EXTRA (NULL SE IGNORA) UNIDOS CON AND
+    OrderItemRowQuery where(Specification<OrderItem> specification, Predicate... extra) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        for (Predicate predicate : extra) {
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        return this;
+    }
+
+    OrderItemRowQuery newestFirst() {
+        query.orderBy(criteriaBuilder.desc(root.get("id")));
+        return this;
+    }
+
+    static OrderItemRow toRow(Tuple tuple) {
+        return new OrderItemRow(tuple.get(0, OrderItem.class), productSummary(tuple));
+    }
+
+    private static ProductSummary productSummary(Tuple tuple) {
+        Long productId = tuple.get(1, Long.class);
+        if (productId == null) {
+            return null;
+        }
+        return new ProductSummary(productId, tuple.get(2, String.class), tuple.get(3, String.class),
+                tuple.get(4, BigDecimal.class), tuple.get(5, String.class), tuple.get(6, Long.class),
+                tuple.get(7, LocalDateTime.class));
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.pagination.OrderItemKeyset;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+//FRAGMENTO DE ORDERITEMREPOSITORY PARA LOS LISTADOS DE ORDER ITEMS QUE SE DEVUELVEN COMO DTO. CADA LLAMADA ES
+//UNA SOLA CONSULTA, TENGA LAS FILAS QUE TENGA
+public interface OrderItemRowRepository {
+
+    //DEVUELVE COMO MUCHO size FILAS DESPUES DEL KEYSET, SIN NINGUNA CONSULTA COUNT(*)
+    Slice<OrderItemRow> findSlice(Specification<OrderItem> specification, OrderItemKeyset keyset, int size);
+
+    //TODAS LAS FILAS DEL FILTRO, DE LA MAS NUEVA A LA MAS VIEJA
+    List<OrderItemRow> findRows(Specification<OrderItem> specification);
+
+    //SOLO LOS IDS DE LA SIGUIENTE PAGINA DEL FILTRO, PARA RECORRERLO POR LOTES
+    List<Long> findIds(Specification<OrderItem> specification, OrderItemKeyset keyset, int size);
+
+}
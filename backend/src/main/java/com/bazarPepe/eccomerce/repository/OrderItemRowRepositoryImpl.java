@@ -0,0 +1,81 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OrderItem;
+import com.bazarPepe.eccomerce.pagination.OrderItemKeyset;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderItemRowRepositoryImpl implements OrderItemRowRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<OrderItemRow> findSlice(Specification<OrderItem> specification, OrderItemKeyset keyset, int size) {
+        OrderItemRowQuery rows = new OrderItemRowQuery(entityManager);
+        rows.where(specification, keyset.afterPredicate(rows.root, rows.criteriaBuilder));
+        rows.query.orderBy(keyset.orderBy(rows.root, rows.criteriaBuilder));
+
+        //SE PIDE UNA FILA DE MAS PARA SABER SI HAY PAGINA SIGUIENTE. LOS FETCH JOIN SON TODOS A UNO,
+        //ASI QUE EL LIMITE VA EN EL SQL Y NO SE PAGINA EN MEMORIA
+        List<OrderItemRow> result = entityManager.createQuery(rows.query)
+                .setMaxResults(size + 1)
+                .getResultList()
+                .stream()
+                .map(OrderItemRowQuery::toRow)
+                .toList();
+        boolean hasNext = result.size() > size;
+        List<OrderItemRow> content = hasNext ? new ArrayList<>(result.subList(0, size)) : result;
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    public List<OrderItemRow> findRows(Specification<OrderItem> specification) {
+        OrderItemRowQuery rows = new OrderItemRowQuery(entityManager)
+                .where(specification)
+                .newestFirst();
+        return entityManager.createQuery(rows.query)
+                .getResultList()
+                .stream()
+                .map(OrderItemRowQuery::toRow)
+                .toList();
+    }
+
+    @Override
+    public List<Long> findIds(Specification<OrderItem> specification, OrderItemKeyset keyset, int size) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<OrderItem> root = query.from(OrderItem.class);
+        query.select(root.get("id"));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        Predicate after = keyset.afterPredicate(root, criteriaBuilder);
+        if (after != null) {
+            predicates.add(after);
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(keyset.orderBy(root, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+}
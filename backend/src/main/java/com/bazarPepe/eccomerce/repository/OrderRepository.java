@@ -2,6 +2,18 @@ package com.bazarPepe.eccomerce.repository;
 
 import com.bazarPepe.eccomerce.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Set;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    @Query("select o.intakeToken from Order o where o.intakeToken in :intakeTokens")
+    Set<String>findIntakeTokensIn(@Param("intakeTokens") Collection<String> intakeTokens);
+
+    @Query("select count(o)>0 from Order o join o.orderItemList oi where o.intakeToken=:intakeToken and oi.user.id=:userId")
+    boolean existsByIntakeTokenAndUserId(@Param("intakeToken") String intakeToken, @Param("userId") Long userId);
+
 }
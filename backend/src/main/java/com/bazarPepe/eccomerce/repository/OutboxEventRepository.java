@@ -0,0 +1,38 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OutboxEvent;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    //SOLO HASTA maxId: LOS EVENTOS MAS RECIENTES PUEDEN TENER AUN TRANSACCIONES SIN CONFIRMAR CON IDS MENORES DE OTROS AGREGADOS
+    @Query("select e from OutboxEvent e where e.publishedAt is null and e.id<:maxId order by e.id")
+    List<OutboxEvent>findUnpublished(@Param("maxId") long maxId, Pageable pageable);
+
+    //LOS PENDIENTES DE ESOS TIPOS DESDE UNA FECHA QUE LOS ACUMULADOS DE VENTAS AUN NO HAN SUMADO: LOS QUE EL RELAY
+    //TODAVIA LES VA A ENTREGAR
+    @Query("select e from OutboxEvent e where e.publishedAt is null and e.createdAt>=:since and e.eventType in :eventTypes " +
+            "and not exists (select a from SalesRollupAppliedEvent a where a.eventId=e.id) order by e.id")
+    List<OutboxEvent>findUnpublishedNotInSalesRollups(@Param("since") LocalDateTime since, @Param("eventTypes") Collection<OutboxEventType> eventTypes);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.publishedAt=:publishedAt where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from outbox_events where published_at<:before limit :limit", nativeQuery = true)
+    int deletePublishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+}
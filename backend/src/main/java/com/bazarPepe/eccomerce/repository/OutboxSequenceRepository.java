@@ -0,0 +1,23 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.OutboxSequence;
+import com.bazarPepe.eccomerce.entity.OutboxSequenceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+//SE USA SIEMPRE DENTRO DE LA TRANSACCION QUE ESCRIBE EL EVENTO: EL BLOQUEO DE LA FILA SE SUELTA EN SU COMMIT
+public interface OutboxSequenceRepository extends JpaRepository<OutboxSequence, OutboxSequenceId> {
+
+    //CREA LA FILA CON 1 O LA INCREMENTA; EN LOS DOS CASOS QUEDA BLOQUEADA HASTA EL FINAL DE LA TRANSACCION
+    @Modifying
+    @Query(value = "insert into outbox_sequences (aggregate_type,aggregate_id,last_sequence) values (:aggregateType,:aggregateId,1) " +
+            "on duplicate key update last_sequence=last_sequence+1", nativeQuery = true)
+    int increment(@Param("aggregateType") String aggregateType, @Param("aggregateId") Long aggregateId);
+
+    //LA FILA YA ESTA BLOQUEADA POR ESTA TRANSACCION: LEE EL VALOR QUE ACABA DE DEJAR increment
+    @Query(value = "select last_sequence from outbox_sequences where aggregate_type=:aggregateType and aggregate_id=:aggregateId", nativeQuery = true)
+    long current(@Param("aggregateType") String aggregateType, @Param("aggregateId") Long aggregateId);
+
+}
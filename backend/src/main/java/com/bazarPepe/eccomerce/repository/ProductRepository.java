@@ -1,16 +1,54 @@
 package com.bazarPepe.eccomerce.repository;
 
 import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.projection.ProductImageView;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSummaryRepository {
+
+    //PARA COMPROBAR QUE EXISTEN TODOS LOS PRODUCTOS DE UN PEDIDO SIN CARGARLOS
+    long countByIdIn(Collection<Long> ids);
+
+    //CUANTOS PRODUCTOS COMPARTEN UNA IMAGEN, PARA NO BORRAR IMAGENES EN USO
+    long countByImageHash(String imageHash);
+
+    //LISTADOS SIN LA COLUMNA IMAGE, SOLO LO QUE NECESITA EL PRODUCTDTO
+    @Query("select new com.bazarPepe.eccomerce.projection.ProductSummary(p.id,p.name,p.description,p.price,p.imageHash,p.category.id,p.createdAt) from Product p")
+    List<ProductSummary>findAllSummaries(Sort sort);
+
+    @Query("select new com.bazarPepe.eccomerce.projection.ProductSummary(p.id,p.name,p.description,p.price,p.imageHash,p.category.id,p.createdAt) from Product p where p.id=:productId")
+    Optional<ProductSummary>findSummaryById(@Param("productId") Long productId);
+
+    //HIDRATA SOLO LOS PRODUCTOS QUE DEVUELVE EL INDICE DE BUSQUEDA
+    @Query("select new com.bazarPepe.eccomerce.projection.ProductSummary(p.id,p.name,p.description,p.price,p.imageHash,p.category.id,p.createdAt) from Product p where p.id in :productIds")
+    List<ProductSummary>findSummariesByIdIn(@Param("productIds") Collection<Long> productIds);
 
     //PARA BUSCAR SEGUN LA CATEGORIA
-    List<Product>findByCategoryId(Long categoryId);
+    @Query("select new com.bazarPepe.eccomerce.projection.ProductSummary(p.id,p.name,p.description,p.price,p.imageHash,p.category.id,p.createdAt) from Product p where p.category.id=:categoryId")
+    List<ProductSummary>findSummariesByCategoryId(@Param("categoryId") Long categoryId);
 
     //PARA BUSCAR FILTRANDO POR EL NOMBRE O LA DESCRIPCION, EJEMPLO CA ENCONTRARIA CAMISA
-    List<Product>findByNameContainingOrDescriptionContaining(String name,String description);
+    @Query("select new com.bazarPepe.eccomerce.projection.ProductSummary(p.id,p.name,p.description,p.price,p.imageHash,p.category.id,p.createdAt) from Product p " +
+            "where p.name like concat('%',:searchValue,'%') or p.description like concat('%',:searchValue,'%')")
+    List<ProductSummary>searchSummaries(@Param("searchValue") String searchValue);
+
+    //SOLO EL HASH Y EL TIPO DE LA IMAGEN, SIN CARGAR EL BLOB LEGACY
+    Optional<ProductImageView>findImageViewById(Long id);
+
+    //CAMBIA LA IMAGEN SIN CARGAR LA ENTIDAD, Y LIBERA EL BLOB LEGACY SI LO HUBIERA
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.imageHash=:imageHash, p.imageContentType=:imageContentType, p.image=null where p.id=:productId")
+    int updateImage(@Param("productId") Long productId, @Param("imageHash") String imageHash, @Param("imageContentType") String imageContentType);
 
 }
@@ -0,0 +1,15 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.pagination.ProductKeyset;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+//FRAGMENTO DE PRODUCTREPOSITORY PARA LISTADOS PAGINADOS POR KEYSET
+public interface ProductSummaryRepository {
+
+    //DEVUELVE COMO MUCHO size FILAS DESPUES DEL KEYSET, SIN NINGUNA CONSULTA COUNT(*)
+    Slice<ProductSummary> findSummarySlice(Specification<Product> specification, ProductKeyset keyset, int size);
+
+}
@@ -0,0 +1,57 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.pagination.ProductKeyset;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductSummaryRepositoryImpl implements ProductSummaryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<ProductSummary> findSummarySlice(Specification<Product> specification, ProductKeyset keyset, int size) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = criteriaBuilder.createQuery(ProductSummary.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(criteriaBuilder.construct(ProductSummary.class,
+                root.get("id"), root.get("name"), root.get("description"), root.get("price"),
+                root.get("imageHash"), root.get("category").get("id"), root.get("createdAt")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        Predicate after = keyset.afterPredicate(root, criteriaBuilder);
+        if (after != null) {
+            predicates.add(after);
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(keyset.orderBy(root, criteriaBuilder));
+
+        //SE PIDE UNA FILA DE MAS PARA SABER SI HAY PAGINA SIGUIENTE
+        List<ProductSummary> rows = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        List<ProductSummary> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.SalesRollup;
+import com.bazarPepe.eccomerce.entity.SalesRollupId;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.SalesDimension;
+import com.bazarPepe.eccomerce.projection.SalesTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+//SOLO LECTURA: LOS ACUMULADOS LOS ESCRIBE SalesRollups. LAS DOS CONSULTAS RECORREN EL INDICE (dimension,dimension_id,sales_day)
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollupId> {
+
+    @Query("select r from SalesRollup r where r.id.dimension=:dimension and r.id.dimensionId=:dimensionId " +
+            "and r.id.day between :startDate and :endDate order by r.id.day, r.id.status")
+    List<SalesRollup>findDaily(@Param("dimension") SalesDimension dimension, @Param("dimensionId") Long dimensionId,
+                               @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select new com.bazarPepe.eccomerce.projection.SalesTotal(r.id.dimensionId,sum(r.units),sum(r.revenue),sum(r.itemCount)) " +
+            "from SalesRollup r where r.id.dimension=:dimension and r.id.day between :startDate and :endDate " +
+            "and r.id.status in :statuses group by r.id.dimensionId order by sum(r.revenue) desc")
+    List<SalesTotal>findTop(@Param("dimension") SalesDimension dimension, @Param("startDate") LocalDate startDate,
+                            @Param("endDate") LocalDate endDate, @Param("statuses") Collection<OrderStatus> statuses,
+                            Pageable pageable);
+
+}
@@ -0,0 +1,45 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.entity.StockLease;
+import com.bazarPepe.eccomerce.entity.StockLeaseId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+//SE USA SIEMPRE DENTRO DE LA TRANSACCION DE StockLeases QUE MUEVE LAS MISMAS UNIDADES EN inventory
+public interface StockLeaseRepository extends JpaRepository<StockLease, StockLeaseId> {
+
+    @Modifying
+    @Query(value = "insert into stock_leases (node_id,product_id,units,expires_at) values (:nodeId,:productId,:units,:expiresAt) " +
+            "on duplicate key update units=units+values(units), expires_at=values(expires_at)", nativeQuery = true)
+    int add(@Param("nodeId") String nodeId, @Param("productId") Long productId, @Param("units") int units,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    //0 SI YA NO QUEDAN TANTAS O SI OTRO NODO HA RECUPERADO EL LOTE CADUCADO
+    @Modifying
+    @Query("update StockLease l set l.units=l.units-:units where l.id.nodeId=:nodeId and l.id.productId=:productId and l.units>=:units")
+    int take(@Param("nodeId") String nodeId, @Param("productId") Long productId, @Param("units") int units);
+
+    //CIERRA EL LOTE SI SIGUE TENIENDO LAS UNIDADES QUE CREE EL NODO
+    @Modifying
+    @Query("delete from StockLease l where l.id.nodeId=:nodeId and l.id.productId=:productId and l.units=:units")
+    int close(@Param("nodeId") String nodeId, @Param("productId") Long productId, @Param("units") int units);
+
+    @Modifying
+    @Query("update StockLease l set l.expiresAt=:expiresAt where l.id.nodeId=:nodeId")
+    int renew(@Param("nodeId") String nodeId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    List<StockLease> findTop100ByExpiresAtBefore(LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from StockLease l where l.id=:id and l.expiresAt<:now")
+    Optional<StockLease> lockExpired(@Param("id") StockLeaseId id, @Param("now") LocalDateTime now);
+
+}
@@ -1,12 +1,26 @@
 package com.bazarPepe.eccomerce.repository;
 
 import com.bazarPepe.eccomerce.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     //BUSCAR POR EMAIL
     Optional<User>findByEmail(String email);
+
+    //TODOS LOS USUARIOS COMO STREAM, FILA A FILA DESDE EL DRIVER (FETCH SIZE Integer.MIN_VALUE EN MYSQL).
+    //HAY QUE CONSUMIRLO DENTRO DE UNA TRANSACCION Y CERRARLO AL TERMINAR
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User>streamAll();
 }
@@ -0,0 +1,8 @@
+package com.bazarPepe.eccomerce.search;
+
+import java.util.Map;
+
+//RECUENTOS DE UN FILTRO DEL CATALOGO. CADA FACETA SE CUENTA IGNORANDO SU PROPIO FILTRO,
+//PARA QUE EL USUARIO VEA CUANTOS PRODUCTOS TENDRIA AL MARCAR OTRA CATEGORIA U OTRO TRAMO
+public record FacetCounts(long total, Map<Long, Long> categories, Map<PriceBucket, Long> prices) {
+}
@@ -0,0 +1,215 @@
+package com.bazarPepe.eccomerce.search;
+
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//BITSETS POR CATEGORIA Y POR TRAMO DE PRECIO PARA CONTAR FACETAS DEL CATALOGO.
+//CADA PRODUCTO OCUPA UNA POSICION (ORDINAL) Y LOS RECUENTOS SON AND + CARDINALITY SOBRE PALABRAS DE 64 BITS,
+//ASI QUE EL COSTE DEPENDE DEL TAMAÑO DEL CATALOGO Y DEL NUMERO DE FACETAS, NO DE CUANTOS PRODUCTOS COINCIDEN
+@Component
+@Slf4j
+public class FacetIndex {
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    //ORDINALES LIBERADOS AL BORRAR PRODUCTOS, SE REUTILIZAN PARA QUE LOS BITSETS NO CREZCAN SIN FIN
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Integer, IndexedProduct> products = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<PriceBucket, BitSet> byPrice = new EnumMap<>(PriceBucket.class);
+    private int nextOrdinal;
+    private volatile boolean ready;
+
+    public FacetIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductSummary> productList = productRepository.findAllSummaries(Sort.by("id"));
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            products.clear();
+            live.clear();
+            byCategory.clear();
+            byPrice.clear();
+            nextOrdinal = 0;
+            productList.forEach(this::add);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indice de facetas construido con {} productos en {} ms", productList.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(ProductSummary product) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(product.id());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //AL BORRAR UNA CATEGORIA SUS PRODUCTOS SE BORRAN EN CASCADA
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            BitSet members = byCategory.get(categoryId);
+            if (members == null) {
+                return;
+            }
+            for (int ordinal = members.nextSetBit(0); ordinal >= 0; ordinal = members.nextSetBit(ordinal + 1)) {
+                removeProduct(products.get(ordinal).id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //categoryIds Y priceBuckets VACIOS NO FILTRAN; textMatches NULL NO FILTRA POR TEXTO
+    public FacetCounts count(Collection<Long> categoryIds, Collection<PriceBucket> priceBuckets, Collection<Long> textMatches) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (textMatches != null) {
+                BitSet text = new BitSet();
+                for (Long productId : textMatches) {
+                    Integer ordinal = ordinals.get(productId);
+                    if (ordinal != null) {
+                        text.set(ordinal);
+                    }
+                }
+                base.and(text);
+            }
+            BitSet categoryMask = union(categoryIds, byCategory);
+            BitSet priceMask = union(priceBuckets, byPrice);
+
+            BitSet forCategories = masked(base, priceMask);
+            Map<Long, Long> categoryCounts = new LinkedHashMap<>();
+            byCategory.forEach((categoryId, members) -> {
+                long count = intersectionSize(forCategories, members);
+                if (count > 0) {
+                    categoryCounts.put(categoryId, count);
+                }
+            });
+
+            BitSet forPrices = masked(base, categoryMask);
+            Map<PriceBucket, Long> priceCounts = new EnumMap<>(PriceBucket.class);
+            for (PriceBucket bucket : PriceBucket.values()) {
+                BitSet members = byPrice.get(bucket);
+                priceCounts.put(bucket, members != null ? intersectionSize(forPrices, members) : 0L);
+            }
+
+            long total = masked(forPrices, priceMask).cardinality();
+            return new FacetCounts(total, categoryCounts, priceCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(ProductSummary product) {
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        PriceBucket bucket = product.price() != null ? PriceBucket.of(product.price()) : null;
+        ordinals.put(product.id(), ordinal);
+        products.put(ordinal, new IndexedProduct(product.id(), product.categoryId(), bucket));
+        live.set(ordinal);
+        if (product.categoryId() != null) {
+            byCategory.computeIfAbsent(product.categoryId(), key -> new BitSet()).set(ordinal);
+        }
+        if (bucket != null) {
+            byPrice.computeIfAbsent(bucket, key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void removeProduct(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        IndexedProduct product = products.remove(ordinal);
+        live.clear(ordinal);
+        if (product.categoryId() != null) {
+            BitSet members = byCategory.get(product.categoryId());
+            members.clear(ordinal);
+            if (members.isEmpty()) {
+                byCategory.remove(product.categoryId());
+            }
+        }
+        if (product.bucket() != null) {
+            byPrice.get(product.bucket()).clear(ordinal);
+        }
+        //EN UNA ACTUALIZACION EL PRODUCTO VUELVE A ENTRAR ENSEGUIDA Y REUTILIZA SU MISMO ORDINAL
+        freeOrdinals.push(ordinal);
+    }
+
+    private static <K> BitSet union(Collection<K> keys, Map<K, BitSet> sets) {
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (K key : keys) {
+            BitSet members = sets.get(key);
+            if (members != null) {
+                union.or(members);
+            }
+        }
+        return union;
+    }
+
+    private static BitSet masked(BitSet base, BitSet mask) {
+        if (mask == null) {
+            return base;
+        }
+        BitSet result = (BitSet) base.clone();
+        result.and(mask);
+        return result;
+    }
+
+    private static long intersectionSize(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private record IndexedProduct(Long id, Long categoryId, PriceBucket bucket) {
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.bazarPepe.eccomerce.search;
+
+import java.math.BigDecimal;
+
+//TRAMOS DE PRECIO DEL FILTRO DEL CATALOGO: MINIMO INCLUIDO, MAXIMO EXCLUIDO, EL ULTIMO SIN TECHO
+public enum PriceBucket {
+    UNDER_10("0-10", null, new BigDecimal("10")),
+    FROM_10_TO_25("10-25", new BigDecimal("10"), new BigDecimal("25")),
+    FROM_25_TO_50("25-50", new BigDecimal("25"), new BigDecimal("50")),
+    FROM_50_TO_100("50-100", new BigDecimal("50"), new BigDecimal("100")),
+    FROM_100_TO_250("100-250", new BigDecimal("100"), new BigDecimal("250")),
+    OVER_250("250+", new BigDecimal("250"), null);
+
+    private final String key;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceBucket(String key, BigDecimal min, BigDecimal max) {
+        this.key = key;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public BigDecimal min() {
+        return min;
+    }
+
+    public BigDecimal max() {
+        return max;
+    }
+
+    public static PriceBucket of(BigDecimal price) {
+        for (PriceBucket bucket : values()) {
+            if (bucket.max == null || price.compareTo(bucket.max) < 0) {
+                return bucket;
+            }
+        }
+        return OVER_250;
+    }
+
+    public static PriceBucket fromKey(String key) {
+        for (PriceBucket bucket : values()) {
+            if (bucket.key.equals(key)) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Unknown price bucket: " + key);
+    }
+}
@@ -0,0 +1,268 @@
+package com.bazarPepe.eccomerce.search;
+
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//INDICE INVERTIDO EN MEMORIA SOBRE NOMBRE Y DESCRIPCION DE LOS PRODUCTOS CON RANKING BM25.
+//SE CONSTRUYE AL ARRANCAR Y SE MANTIENE AL CREAR, ACTUALIZAR O BORRAR PRODUCTOS
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    //PARAMETROS ESTANDAR DE BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    //UNA COINCIDENCIA EN EL NOMBRE PESA MAS QUE EN LA DESCRIPCION
+    private static final int NAME_WEIGHT = 3;
+    //EXPANSIONES MAXIMAS DEL ULTIMO TERMINO COMO PREFIJO ("cami" -> camisa, camiseta...)
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    //BUSQUEDA APROXIMADA: PALABRAS PARECIDAS POR TERMINO Y SIMILITUD MINIMA DE TRIGRAMAS
+    private static final int MAX_FUZZY_EXPANSIONS = 3;
+    private static final double MIN_FUZZY_SIMILARITY = 0.45;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //TERMINO -> (ID PRODUCTO -> FRECUENCIA PONDERADA)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    //ID PRODUCTO -> TERMINOS Y LONGITUD, PARA PODER DESINDEXAR Y NORMALIZAR POR LONGITUD
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    //PALABRA DE NOMBRE -> NUMERO DE PRODUCTOS QUE LA USAN, PARA SABER CUANDO SALE DEL INDICE DE TRIGRAMAS
+    private final Map<String, Integer> nameTermCounts = new HashMap<>();
+    private final TrigramIndex nameTrigrams = new TrigramIndex();
+    private long totalLength;
+    private volatile boolean ready;
+
+    private final Timer exactTimer;
+    private final Timer fuzzyTimer;
+
+    public ProductSearchIndex(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        //PERCENTILES DE LATENCIA DE LA BUSQUEDA EXACTA FRENTE A LA APROXIMADA
+        this.exactTimer = searchTimer(meterRegistry, "exact");
+        this.fuzzyTimer = searchTimer(meterRegistry, "fuzzy");
+    }
+
+    private static Timer searchTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("product.search.latency")
+                .description("Tiempo de busqueda en el indice en memoria")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductSummary> products = productRepository.findAllSummaries(Sort.unsorted());
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            nameTermCounts.clear();
+            nameTrigrams.clear();
+            totalLength = 0;
+            products.forEach(this::addDocument);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indice de busqueda construido con {} productos en {} ms", products.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(ProductSummary product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.id());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //DEVUELVE LOS IDS DE LOS limit PRODUCTOS MAS RELEVANTES, DE MAYOR A MENOR PUNTUACION.
+    //SI NINGUN TERMINO COINCIDE SE REINTENTA CON LAS PALABRAS DE NOMBRES MAS PARECIDAS (ERRORES TIPOGRAFICOS)
+    public List<Long> search(String query, int limit) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        Map<Long, Double> scores;
+        boolean fuzzy = false;
+        lock.readLock().lock();
+        try {
+            scores = exactScores(terms);
+            if (scores.isEmpty()) {
+                fuzzy = true;
+                scores = fuzzyScores(terms);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        (fuzzy ? fuzzyTimer : exactTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, Double> exactScores(List<String> terms) {
+        Map<Long, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+        double averageLength = averageLength();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            boolean last = i == terms.size() - 1;
+            for (Map.Entry<String, Map<Long, Integer>> entry : matchingTerms(term, last).entrySet()) {
+                //UNA EXPANSION POR PREFIJO PUNTUA MENOS QUE EL TERMINO EXACTO
+                double boost = entry.getKey().equals(term) ? 1.0 : 0.5;
+                score(entry.getValue(), documentCount, averageLength, boost, scores);
+            }
+        }
+        return scores;
+    }
+
+    //CADA TERMINO SE SUSTITUYE POR LAS PALABRAS DE NOMBRES MAS PARECIDAS SEGUN EL INDICE DE TRIGRAMAS,
+    //PONDERANDO POR LA SIMILITUD. TODO SE RESUELVE EN MEMORIA, SIN CONSULTAR LA TABLA DE PRODUCTOS
+    private Map<Long, Double> fuzzyScores(List<String> terms) {
+        Map<Long, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+        double averageLength = averageLength();
+        for (String term : terms) {
+            for (TrigramIndex.SimilarWord similarWord : nameTrigrams.similar(term, MAX_FUZZY_EXPANSIONS, MIN_FUZZY_SIMILARITY)) {
+                Map<Long, Integer> posting = postings.get(similarWord.word());
+                if (posting != null) {
+                    score(posting, documentCount, averageLength, similarWord.similarity(), scores);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private double averageLength() {
+        return documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+    }
+
+    private Map<String, Map<Long, Integer>> matchingTerms(String term, boolean allowPrefix) {
+        Map<String, Map<Long, Integer>> matches = new HashMap<>();
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            matches.put(term, exact);
+        }
+        if (allowPrefix) {
+            for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+                if (matches.size() >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                matches.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    private void score(Map<Long, Integer> posting, int documentCount, double averageLength, double boost, Map<Long, Double> scores) {
+        double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+        for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+            int frequency = entry.getValue();
+            int length = documents.get(entry.getKey()).length();
+            double normalization = K1 * (1 - B + B * (averageLength == 0 ? 1 : length / averageLength));
+            double termScore = idf * frequency * (K1 + 1) / (frequency + normalization);
+            scores.merge(entry.getKey(), boost * termScore, Double::sum);
+        }
+    }
+
+    private void addDocument(ProductSummary product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        List<String> nameTerms = TextNormalizer.tokenize(product.name());
+        for (String token : nameTerms) {
+            frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+            length += NAME_WEIGHT;
+        }
+        Set<String> distinctNameTerms = new HashSet<>(nameTerms);
+        for (String term : distinctNameTerms) {
+            if (nameTermCounts.merge(term, 1, Integer::sum) == 1) {
+                nameTrigrams.add(term);
+            }
+        }
+        for (String token : TextNormalizer.tokenize(product.description())) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(product.id(), frequency));
+        documents.put(product.id(), new IndexedDocument(new ArrayList<>(frequencies.keySet()), distinctNameTerms, length));
+        totalLength += length;
+    }
+
+    private void removeDocument(Long productId) {
+        IndexedDocument document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : document.nameTerms()) {
+            if (nameTermCounts.merge(term, -1, Integer::sum) <= 0) {
+                nameTermCounts.remove(term);
+                nameTrigrams.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record IndexedDocument(Collection<String> terms, Collection<String> nameTerms, int length) {
+    }
+
+}
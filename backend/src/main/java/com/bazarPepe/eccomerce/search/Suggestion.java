@@ -0,0 +1,9 @@
+package com.bazarPepe.eccomerce.search;
+
+//ENTRADA DEL AUTOCOMPLETADO: UN PRODUCTO O UNA CATEGORIA CON SU ETIQUETA Y SU POPULARIDAD (UNIDADES VENDIDAS)
+public record Suggestion(Type type, Long id, String label, long popularity) {
+
+    public enum Type {
+        PRODUCT, CATEGORY
+    }
+}
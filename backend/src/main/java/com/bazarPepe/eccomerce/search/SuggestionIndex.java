@@ -0,0 +1,241 @@
+package com.bazarPepe.eccomerce.search;
+
+import com.bazarPepe.eccomerce.entity.Category;
+import com.bazarPepe.eccomerce.projection.ProductSales;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.OrderItemRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//AUTOCOMPLETADO DE NOMBRES DE PRODUCTOS Y CATEGORIAS ORDENADO POR UNIDADES VENDIDAS.
+//UNA CATEGORIA ES TAN POPULAR COMO LA SUMA DE SUS PRODUCTOS. SE CONSTRUYE AL ARRANCAR Y DESPUES
+//SE ACTUALIZA ENTRADA A ENTRADA DESDE LOS SERVICIOS DE PRODUCTOS, CATEGORIAS Y PEDIDOS
+@Component
+@Slf4j
+public class SuggestionIndex {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SuggestionTrie trie = new SuggestionTrie();
+    private final Map<Long, Suggestion> products = new HashMap<>();
+    private final Map<Long, Long> productCategories = new HashMap<>();
+    private final Map<Long, Long> productSales = new HashMap<>();
+    private final Map<Long, Suggestion> categories = new HashMap<>();
+    private final Map<Long, Long> categorySales = new HashMap<>();
+
+    private final Timer suggestTimer;
+
+    public SuggestionIndex(ProductRepository productRepository, CategoryRepository categoryRepository,
+                           OrderItemRepository orderItemRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.suggestTimer = Timer.builder("product.suggest.latency")
+                .description("Tiempo de consulta del autocompletado en memoria")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Category> categoryList = categoryRepository.findAll();
+        List<ProductSummary> productList = productRepository.findAllSummaries(Sort.unsorted());
+        List<ProductSales> salesList = orderItemRepository.findProductSales();
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            products.clear();
+            productCategories.clear();
+            productSales.clear();
+            categories.clear();
+            categorySales.clear();
+            for (ProductSales sales : salesList) {
+                productSales.put(sales.productId(), sales.quantity());
+            }
+            for (ProductSummary product : productList) {
+                long sold = productSales.getOrDefault(product.id(), 0L);
+                if (product.categoryId() != null) {
+                    productCategories.put(product.id(), product.categoryId());
+                    categorySales.merge(product.categoryId(), sold, Long::sum);
+                }
+                putEntry(products, new Suggestion(Suggestion.Type.PRODUCT, product.id(), product.name(), sold));
+            }
+            for (Category category : categoryList) {
+                putEntry(categories, new Suggestion(Suggestion.Type.CATEGORY, category.getId(), category.getName(),
+                        categorySales.getOrDefault(category.getId(), 0L)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Autocompletado construido con {} productos y {} categorias en {} ms",
+                productList.size(), categoryList.size(), System.currentTimeMillis() - start);
+    }
+
+    //LAS limit ENTRADAS MAS POPULARES CON ALGUNA PALABRA QUE EMPIECE POR prefix
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = TextNormalizer.foldWords(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return trie.topByPrefix(key, limit);
+        } finally {
+            lock.readLock().unlock();
+            suggestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void putProduct(ProductSummary product) {
+        lock.writeLock().lock();
+        try {
+            long sold = productSales.getOrDefault(product.id(), 0L);
+            Long previousCategoryId = productCategories.get(product.id());
+            if (!Objects.equals(previousCategoryId, product.categoryId())) {
+                addCategorySales(previousCategoryId, -sold);
+                if (product.categoryId() != null) {
+                    productCategories.put(product.id(), product.categoryId());
+                } else {
+                    productCategories.remove(product.id());
+                }
+                addCategorySales(product.categoryId(), sold);
+            }
+            putEntry(products, new Suggestion(Suggestion.Type.PRODUCT, product.id(), product.name(), sold));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(products, productId);
+            Long sold = productSales.remove(productId);
+            addCategorySales(productCategories.remove(productId), sold != null ? -sold : 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putCategory(Long categoryId, String name) {
+        lock.writeLock().lock();
+        try {
+            putEntry(categories, new Suggestion(Suggestion.Type.CATEGORY, categoryId, name,
+                    categorySales.getOrDefault(categoryId, 0L)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //AL BORRAR UNA CATEGORIA SE BORRAN EN CASCADA SUS PRODUCTOS, ASI QUE TAMBIEN SALEN DEL AUTOCOMPLETADO
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(categories, categoryId);
+            categorySales.remove(categoryId);
+            List<Long> productIds = new ArrayList<>();
+            productCategories.forEach((productId, productCategoryId) -> {
+                if (categoryId.equals(productCategoryId)) {
+                    productIds.add(productId);
+                }
+            });
+            for (Long productId : productIds) {
+                removeEntry(products, productId);
+                productSales.remove(productId);
+                productCategories.remove(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //SUMA LAS UNIDADES DE UN PEDIDO NUEVO A LA POPULARIDAD DEL PRODUCTO Y DE SU CATEGORIA
+    public void recordSales(Map<Long, Integer> quantitiesByProduct) {
+        lock.writeLock().lock();
+        try {
+            quantitiesByProduct.forEach((productId, quantity) -> {
+                productSales.merge(productId, quantity.longValue(), Long::sum);
+                Suggestion product = products.get(productId);
+                if (product != null) {
+                    putEntry(products, withPopularity(product, product.popularity() + quantity));
+                }
+                addCategorySales(productCategories.get(productId), quantity);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addCategorySales(Long categoryId, long delta) {
+        if (categoryId == null || delta == 0) {
+            return;
+        }
+        long total = categorySales.merge(categoryId, delta, Long::sum);
+        Suggestion category = categories.get(categoryId);
+        if (category != null) {
+            putEntry(categories, withPopularity(category, total));
+        }
+    }
+
+    private void putEntry(Map<Long, Suggestion> entries, Suggestion suggestion) {
+        removeEntry(entries, suggestion.id());
+        if (suggestion.label() == null) {
+            return;
+        }
+        entries.put(suggestion.id(), suggestion);
+        for (String key : keys(suggestion.label())) {
+            trie.insert(key, suggestion);
+        }
+    }
+
+    private void removeEntry(Map<Long, Suggestion> entries, Long id) {
+        Suggestion previous = entries.remove(id);
+        if (previous != null) {
+            for (String key : keys(previous.label())) {
+                trie.remove(key, previous);
+            }
+        }
+    }
+
+    private static Suggestion withPopularity(Suggestion suggestion, long popularity) {
+        return new Suggestion(suggestion.type(), suggestion.id(), suggestion.label(), popularity);
+    }
+
+    //UNA CLAVE POR CADA PALABRA DE LA ETIQUETA: "camiseta roja basica" TAMBIEN SE ENCUENTRA CON "roj" O "bas"
+    private static Set<String> keys(String label) {
+        String folded = TextNormalizer.foldWords(label);
+        Set<String> keys = new LinkedHashSet<>();
+        if (folded.isEmpty()) {
+            return keys;
+        }
+        keys.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            keys.add(folded.substring(i + 1));
+        }
+        return keys;
+    }
+
+}
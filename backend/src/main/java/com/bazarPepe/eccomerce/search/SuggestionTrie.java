@@ -0,0 +1,173 @@
+package com.bazarPepe.eccomerce.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+//TRIE COMPRIMIDO (RADIX): CADA ARISTA GUARDA UN TROZO DE CLAVE Y NO UN SOLO CARACTER.
+//CADA NODO CONOCE LA MAYOR POPULARIDAD DE SU SUBARBOL, ASI QUE LAS MEJORES SUGERENCIAS DE UN PREFIJO
+//SE OBTIENEN RECORRIENDO PRIMERO LAS RAMAS MAS POPULARES Y PARANDO AL LLEGAR A limit, SIN VISITAR TODO EL SUBARBOL.
+//NO ES THREAD-SAFE, LO PROTEGE EL CERROJO DE SUGGESTIONINDEX
+class SuggestionTrie {
+
+    private final Node root = new Node("");
+
+    void insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int position = 0;
+        path.add(node);
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.children.put(key.charAt(position), child);
+                node = child;
+                path.add(node);
+                position = key.length();
+                break;
+            }
+            int common = commonPrefixLength(child.edge, key, position);
+            if (common < child.edge.length()) {
+                //LA CLAVE SE SEPARA A MITAD DE LA ARISTA: SE PARTE EN UN NODO INTERMEDIO
+                Node middle = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                middle.children.put(child.edge.charAt(0), child);
+                middle.best = child.best;
+                node.children.put(middle.edge.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+        node.suggestions.add(suggestion);
+        for (Node visited : path) {
+            visited.best = Math.max(visited.best, suggestion.popularity());
+        }
+    }
+
+    void remove(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int position = 0;
+        path.add(node);
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.edge, position)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            position += child.edge.length();
+        }
+        if (!node.suggestions.remove(suggestion)) {
+            return;
+        }
+        //DE ABAJO ARRIBA: SE PODAN LOS NODOS VACIOS, SE FUSIONAN LOS QUE QUEDAN CON UN SOLO HIJO Y SE RECALCULA best
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.suggestions.isEmpty() && current.children.isEmpty()) {
+                parent.children.remove(current.edge.charAt(0));
+                continue;
+            }
+            if (current.suggestions.isEmpty() && current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                only.edge = current.edge + only.edge;
+                parent.children.put(only.edge.charAt(0), only);
+                continue;
+            }
+            current.recomputeBest();
+        }
+        root.recomputeBest();
+    }
+
+    //SUGERENCIAS CUYA CLAVE EMPIEZA POR prefix, DE MAS A MENOS POPULAR. UNA MISMA SUGERENCIA PUEDE ESTAR
+    //BAJO VARIAS CLAVES (UNA POR PALABRA) Y SOLO SE DEVUELVE UNA VEZ
+    List<Suggestion> topByPrefix(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(position));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefixLength(child.edge, prefix, position);
+            if (position + common < prefix.length() && common < child.edge.length()) {
+                return List.of();
+            }
+            node = child;
+            position += common;
+        }
+        Set<Suggestion> results = new LinkedHashSet<>();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Candidate.ORDER);
+        queue.add(new Candidate(node.best, node, null));
+        while (!queue.isEmpty() && results.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.suggestion() != null) {
+                results.add(candidate.suggestion());
+                continue;
+            }
+            for (Suggestion suggestion : candidate.node().suggestions) {
+                queue.add(new Candidate(suggestion.popularity(), null, suggestion));
+            }
+            for (Node child : candidate.node().children.values()) {
+                queue.add(new Candidate(child.best, child, null));
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    void clear() {
+        root.children.clear();
+        root.suggestions.clear();
+        root.best = 0;
+    }
+
+    private static int commonPrefixLength(String edge, String key, int offset) {
+        int length = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private String edge;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<Suggestion> suggestions = new LinkedHashSet<>(2);
+        private long best;
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        private void recomputeBest() {
+            long max = 0;
+            for (Suggestion suggestion : suggestions) {
+                max = Math.max(max, suggestion.popularity());
+            }
+            for (Node child : children.values()) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+
+    //A IGUAL PUNTUACION SE SACAN ANTES LAS SUGERENCIAS QUE LOS NODOS, Y ENTRE SUGERENCIAS LA ETIQUETA MAS CORTA
+    private record Candidate(long score, Node node, Suggestion suggestion) {
+        private static final Comparator<Candidate> ORDER = Comparator
+                .comparingLong(Candidate::score).reversed()
+                .thenComparing(candidate -> candidate.suggestion() == null)
+                .thenComparingInt(candidate -> candidate.suggestion() == null ? 0 : candidate.suggestion().label().length())
+                .thenComparing(candidate -> candidate.suggestion() == null ? "" : candidate.suggestion().label());
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.bazarPepe.eccomerce.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+//NORMALIZA TEXTO EN ESPAÑOL PARA INDEXAR Y BUSCAR: MINUSCULAS, SIN TILDES NI DIERESIS, SIN PALABRAS VACIAS
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "sin", "su", "sus", "un", "una", "unos", "unas", "y");
+
+    private TextNormalizer() {
+    }
+
+    //"Camión ÑANDÚ" -> "camion nandu"
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    //"Camión  ÑANDÚ-2" -> "camion nandu 2": CONSERVA TODAS LAS PALABRAS Y SU ORDEN, PARA CLAVES DE AUTOCOMPLETADO
+    public static String foldWords(String text) {
+        return NON_ALPHANUMERIC.matcher(fold(text)).replaceAll(" ").trim();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.bazarPepe.eccomerce.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//INDICE DE TRIGRAMAS SOBRE LAS PALABRAS DEL CATALOGO PARA ENCONTRAR PALABRAS PARECIDAS A UNA MAL ESCRITA.
+//"camieta" Y "camiseta" COMPARTEN LA MAYORIA DE TRIGRAMAS AUNQUE NO COINCIDAN LETRA A LETRA.
+//NO ES THREAD-SAFE, LO PROTEGE EL CERROJO DE PRODUCTSEARCHINDEX
+class TrigramIndex {
+
+    private static final char PADDING = '$';
+
+    //TRIGRAMA -> PALABRAS QUE LO CONTIENEN
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    //PALABRA -> NUMERO DE TRIGRAMAS DISTINTOS, PARA CALCULAR LA SIMILITUD
+    private final Map<String, Integer> trigramCounts = new HashMap<>();
+
+    void add(String word) {
+        if (trigramCounts.containsKey(word)) {
+            return;
+        }
+        Set<String> trigrams = trigrams(word);
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(word);
+        }
+        trigramCounts.put(word, trigrams.size());
+    }
+
+    void remove(String word) {
+        if (trigramCounts.remove(word) == null) {
+            return;
+        }
+        for (String trigram : trigrams(word)) {
+            Set<String> words = postings.get(trigram);
+            if (words != null) {
+                words.remove(word);
+                if (words.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        trigramCounts.clear();
+    }
+
+    //PALABRAS CON SIMILITUD DICE >= minSimilarity, DE MAS A MENOS PARECIDA.
+    //SOLO RECORRE LAS PALABRAS QUE COMPARTEN ALGUN TRIGRAMA, NUNCA TODO EL VOCABULARIO
+    List<SimilarWord> similar(String word, int limit, double minSimilarity) {
+        Set<String> queryTrigrams = trigrams(word);
+        Map<String, Integer> overlaps = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> words = postings.get(trigram);
+            if (words != null) {
+                for (String candidate : words) {
+                    overlaps.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        List<SimilarWord> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : overlaps.entrySet()) {
+            double similarity = 2.0 * entry.getValue() / (queryTrigrams.size() + trigramCounts.get(entry.getKey()));
+            if (similarity >= minSimilarity) {
+                matches.add(new SimilarWord(entry.getKey(), similarity));
+            }
+        }
+        matches.sort((a, b) -> Double.compare(b.similarity(), a.similarity()));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    static Set<String> trigrams(String word) {
+        String padded = PADDING + word + PADDING;
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    record SimilarWord(String word, double similarity) {
+    }
+
+}
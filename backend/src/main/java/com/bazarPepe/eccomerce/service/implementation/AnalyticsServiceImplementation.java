@@ -0,0 +1,109 @@
+package com.bazarPepe.eccomerce.service.implementation;
+
+import com.bazarPepe.eccomerce.analytics.ColumnQuery;
+import com.bazarPepe.eccomerce.analytics.GroupTotals;
+import com.bazarPepe.eccomerce.analytics.OrderItemAnalytics;
+import com.bazarPepe.eccomerce.analytics.OrderItemColumns;
+import com.bazarPepe.eccomerce.dto.OrderItemAggregateDto;
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.enums.AnalyticsDimension;
+import com.bazarPepe.eccomerce.enums.AnalyticsMetric;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.exception.AnalyticsNotReadyException;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import com.bazarPepe.eccomerce.service.interfaces.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsServiceImplementation implements AnalyticsService {
+
+    private static final int MAX_LIMIT=1000;
+    //ESTAS DIMENSIONES SE DEVUELVEN EN SU ORDEN NATURAL SI NO SE PIDE ORDENAR POR UNA SUMA
+    private static final Set<AnalyticsDimension> ORDERED_DIMENSIONS=
+            EnumSet.of(AnalyticsDimension.STATUS,AnalyticsDimension.DAY,AnalyticsDimension.MONTH);
+
+    private final OrderItemAnalytics orderItemAnalytics;
+
+    @Override
+    public Response queryOrderItems(String groupBy, List<String> statuses, List<Long> productIds, List<Long> categoryIds,
+                                    List<Long> userIds, LocalDate startDate, LocalDate endDate, String orderBy, int limit) {
+        if (limit<1||limit>MAX_LIMIT){
+            throw new InvalidCredentialsException("El limite debe estar entre 1 y "+MAX_LIMIT);
+        }
+        if (startDate!=null&&endDate!=null&&startDate.isAfter(endDate)){
+            throw new InvalidCredentialsException("La fecha de inicio es posterior a la de fin");
+        }
+        AnalyticsDimension dimension=parse(AnalyticsDimension.class,groupBy,"Agrupacion no valida: ");
+        AnalyticsMetric metric=orderBy==null||orderBy.isBlank() ? null : parse(AnalyticsMetric.class,orderBy,"Orden no valido: ");
+        ColumnQuery query=new ColumnQuery(dimension,parseStatuses(statuses),toSet(productIds),toSet(categoryIds),
+                toSet(userIds),startDate,endDate);
+
+        OrderItemColumns columns=orderItemAnalytics.current()
+                .orElseThrow(()->new AnalyticsNotReadyException("Los datos de pedidos aun se estan cargando"));
+        GroupTotals totals=columns.aggregate(query,orderItemAnalytics.pool());
+
+        int[] keys;
+        if (metric==null&&ORDERED_DIMENSIONS.contains(dimension)){
+            keys=totals.all();
+        }else {
+            keys=totals.top(metric!=null ? metric : AnalyticsMetric.REVENUE,limit);
+        }
+        List<OrderItemAggregateDto>aggregates=new ArrayList<>(Math.min(keys.length,limit));
+        for (int i=0;i<keys.length&&i<limit;i++){
+            int key=keys[i];
+            aggregates.add(new OrderItemAggregateDto(totals.label(key),totals.itemCount(key),totals.units(key),totals.revenue(key)));
+        }
+        return Response.builder()
+                .status(200)
+                .aggregateList(aggregates)
+                .totalElement(totals.matchedItems())
+                .dataAsOf(columns.builtAt())
+                .build();
+    }
+
+    @Override
+    public Response refreshOrderItems() {
+        boolean reloaded=orderItemAnalytics.reload();
+        return Response.builder()
+                .status(200)
+                .message(reloaded ? "Datos de pedidos recargados" : "Ya habia una carga en curso")
+                .dataAsOf(orderItemAnalytics.current().map(OrderItemColumns::builtAt).orElse(null))
+                .build();
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String error) {
+        if (value==null||value.isBlank()){
+            throw new InvalidCredentialsException(error+value);
+        }
+        try {
+            return Enum.valueOf(type,value.toUpperCase());
+        }catch (IllegalArgumentException e){
+            throw new InvalidCredentialsException(error+value);
+        }
+    }
+
+    private static Set<OrderStatus> parseStatuses(List<String> statuses) {
+        if (statuses==null||statuses.isEmpty()){
+            return null;
+        }
+        Set<OrderStatus>parsed=EnumSet.noneOf(OrderStatus.class);
+        for (String status:statuses){
+            parsed.add(parse(OrderStatus.class,status,"Estado no valido: "));
+        }
+        return parsed;
+    }
+
+    private static Set<Long> toSet(List<Long> ids) {
+        return ids==null||ids.isEmpty() ? null : new HashSet<>(ids);
+    }
+
+}
@@ -1,18 +1,31 @@
 package com.bazarPepe.eccomerce.service.implementation;
 
+import com.bazarPepe.eccomerce.cache.CatalogVersion;
+import com.bazarPepe.eccomerce.cache.CategoryCache;
+import com.bazarPepe.eccomerce.cache.ProductCache;
 import com.bazarPepe.eccomerce.dto.CategoryDto;
 import com.bazarPepe.eccomerce.dto.Response;
 import com.bazarPepe.eccomerce.entity.Category;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
 import com.bazarPepe.eccomerce.exception.NotFoundException;
-import com.bazarPepe.eccomerce.mapper.EntityDtoMapper;
+import com.bazarPepe.eccomerce.outbox.Outbox;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
 import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.search.FacetIndex;
+import com.bazarPepe.eccomerce.search.ProductSearchIndex;
+import com.bazarPepe.eccomerce.search.SuggestionIndex;
 import com.bazarPepe.eccomerce.service.interfaces.CategoryService;
+import com.bazarPepe.eccomerce.storage.ImageSweeper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -21,14 +34,26 @@ public class CategoryServiceImplementation implements CategoryService {
 
     //INYECCION DE DEPENDENCIAS
     private final CategoryRepository categoryRepository;
-    private final EntityDtoMapper entityDtoMapper;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final CategoryCache categoryCache;
+    private final ProductCache productCache;
+    private final CatalogVersion catalogVersion;
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageSweeper imageSweeper;
+    private final Outbox outbox;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Override
     public Response createCategory(CategoryDto categoryRequest) {
         Category category=new Category();
         category.setName(categoryRequest.getName());
-        categoryRepository.save(category);
+        saveWithEvent(category,OutboxEventType.CATEGORY_CREATED);
+        categoryCache.invalidateAll();
+        suggestionIndex.putCategory(category.getId(),category.getName());
+        catalogVersion.bump();
         return Response.builder()
                 .status(200)
                 .message("Categoria creada con exito")
@@ -39,7 +64,10 @@ public class CategoryServiceImplementation implements CategoryService {
     public Response updateCategory(Long categoryId, CategoryDto categoryRequest) {
         Category category=categoryRepository.findById(categoryId).orElseThrow(()->new NotFoundException("No se ha encontrado esa categoria"));
         category.setName(categoryRequest.getName());
-        categoryRepository.save(category);
+        saveWithEvent(category,OutboxEventType.CATEGORY_UPDATED);
+        categoryCache.invalidate(categoryId);
+        suggestionIndex.putCategory(category.getId(),category.getName());
+        catalogVersion.bump();
         return Response.builder()
                 .status(200)
                 .message("Se ha actualizado con exito")
@@ -48,10 +76,7 @@ public class CategoryServiceImplementation implements CategoryService {
 
     @Override
     public Response getAllCategories() {
-        List<Category>categories=categoryRepository.findAll();
-        List<CategoryDto>categoryDtosList=categories.stream()
-                .map(entityDtoMapper::mapCategoryToDtoBasic)
-                .collect(Collectors.toList());
+        List<CategoryDto>categoryDtosList=categoryCache.getAll();
         return Response.builder()
                 .status(200)
                 .categoryList(categoryDtosList)
@@ -60,8 +85,7 @@ public class CategoryServiceImplementation implements CategoryService {
 
     @Override
     public Response getCategoryById(Long categoryId) {
-        Category category=categoryRepository.findById(categoryId).orElseThrow(()->new NotFoundException("No se ha encontrado la categoria"));
-        CategoryDto categoryDto=entityDtoMapper.mapCategoryToDtoBasic(category);
+        CategoryDto categoryDto=categoryCache.findById(categoryId).orElseThrow(()->new NotFoundException("No se ha encontrado la categoria"));
         return Response.builder()
                 .status(200)
                 .category(categoryDto)
@@ -71,10 +95,46 @@ public class CategoryServiceImplementation implements CategoryService {
     @Override
     public Response deleteCategory(Long categoryId) {
         Category category=categoryRepository.findById(categoryId).orElseThrow(()->new NotFoundException("No se ha encontrado esa categoria"));
-        categoryRepository.delete(category);
+        //SUS PRODUCTOS SE BORRAN EN CASCADA: CADA UNO LLEVA SU EVENTO Y SALE DE INDICES Y CACHES COMO EN deleteProduct
+        List<ProductSummary>products=transactionTemplate.execute(status->{
+            List<ProductSummary>children=productRepository.findSummariesByCategoryId(categoryId);
+            categoryRepository.delete(category);
+            for (ProductSummary product:children){
+                outbox.append(OutboxEventType.PRODUCT_DELETED,product.id(),Map.of("productId",product.id()));
+            }
+            outbox.append(OutboxEventType.CATEGORY_DELETED,categoryId,Map.of("categoryId",categoryId));
+            return children;
+        });
+        categoryCache.invalidate(categoryId);
+        for (ProductSummary product:products){
+            productCache.remove(product.id());
+            productSearchIndex.remove(product.id());
+            suggestionIndex.removeProduct(product.id());
+            facetIndex.remove(product.id());
+        }
+        suggestionIndex.removeCategory(categoryId);
+        facetIndex.removeCategory(categoryId);
+        catalogVersion.bump();
+        //LAS IMAGENES QUE YA NO USE NINGUN PRODUCTO LAS BORRA EL BARRIDO
+        products.stream()
+                .map(ProductSummary::imageHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(imageSweeper::markUnused);
         return Response.builder()
                 .status(200)
                 .message("Se ha eliminado con exito la categoria")
                 .build();
     }
+
+    //LA CATEGORIA Y SU EVENTO EN LA MISMA TRANSACCION; CACHES E INDICES DESPUES DEL COMMIT
+    private void saveWithEvent(Category category, OutboxEventType eventType) {
+        transactionTemplate.executeWithoutResult(status->{
+            categoryRepository.save(category);
+            Map<String,Object>payload=new LinkedHashMap<>();
+            payload.put("categoryId",category.getId());
+            payload.put("name",category.getName());
+            outbox.append(eventType,category.getId(),payload);
+        });
+    }
 }
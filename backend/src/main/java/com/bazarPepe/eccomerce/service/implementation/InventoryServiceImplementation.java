@@ -0,0 +1,159 @@
+package com.bazarPepe.eccomerce.service.implementation;
+
+import com.bazarPepe.eccomerce.dto.InventoryDto;
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.entity.Inventory;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import com.bazarPepe.eccomerce.exception.NotFoundException;
+import com.bazarPepe.eccomerce.exception.OutOfStockException;
+import com.bazarPepe.eccomerce.inventory.StockLeases;
+import com.bazarPepe.eccomerce.inventory.StockReservation;
+import com.bazarPepe.eccomerce.repository.InventoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.service.interfaces.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryServiceImplementation implements InventoryService {
+
+    //ESTADOS EN LOS QUE LAS UNIDADES SIGUEN RESERVADAS Y EN EL ALMACEN
+    private static final Set<OrderStatus> RESERVED_STATUSES = EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED);
+    private static final Set<OrderStatus> SHIPPED_STATUSES = EnumSet.of(OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    private final InventoryRepository inventoryRepository;
+    private final ProductRepository productRepository;
+    private final StockLeases stockLeases;
+    private final TransactionTemplate transactionTemplate;
+
+    //LOS PRODUCTOS NORMALES SE RESERVAN TODOS JUNTOS CON UN UPDATE CONDICIONAL; LOS CALIENTES SALEN DE LA RESERVA
+    //EN MEMORIA Y NO TOCAN SU FILA SALVO PARA PEDIR OTRO LOTE. LOS QUE NO TIENEN FILA DE INVENTARIO SE VENDEN SIN LIMITE,
+    //COMO ANTES DE QUE HUBIERA INVENTARIO, Y NO ENTRAN EN LA RESERVA
+    @Override
+    public StockReservation reserve(Map<Long, Integer> quantitiesByProduct) {
+        quantitiesByProduct.values().forEach(quantity -> {
+            if (quantity == null || quantity <= 0) {
+                throw new InvalidCredentialsException("La cantidad debe ser mayor que cero");
+            }
+        });
+        if (quantitiesByProduct.isEmpty()) {
+            return new StockReservation(List.of());
+        }
+        Set<Long> tracked = inventoryRepository.findTrackedIds(quantitiesByProduct.keySet());
+        Map<Long, Integer> cold = new LinkedHashMap<>();
+        Map<Long, Integer> hot = new LinkedHashMap<>();
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            if (tracked.contains(productId)) {
+                (stockLeases.isHot(productId) ? hot : cold).put(productId, quantity);
+            }
+        });
+
+        List<StockReservation.Item> items = new ArrayList<>(quantitiesByProduct.size());
+        if (!cold.isEmpty()) {
+            Boolean reserved = transactionTemplate.execute(status -> {
+                if (inventoryRepository.reserveAll(cold) == cold.size()) {
+                    return true;
+                }
+                status.setRollbackOnly();
+                return false;
+            });
+            if (!Boolean.TRUE.equals(reserved)) {
+                throw new OutOfStockException("No queda stock suficiente para completar el pedido");
+            }
+            cold.forEach((productId, quantity) -> items.add(new StockReservation.Item(productId, quantity, false)));
+        }
+        for (Map.Entry<Long, Integer> entry : hot.entrySet()) {
+            if (!stockLeases.take(entry.getKey(), entry.getValue())) {
+                cancel(new StockReservation(items));
+                throw new OutOfStockException("No queda stock suficiente del producto " + entry.getKey());
+            }
+            items.add(new StockReservation.Item(entry.getKey(), entry.getValue(), true));
+        }
+        return new StockReservation(items);
+    }
+
+    @Override
+    public void cancel(StockReservation reservation) {
+        for (StockReservation.Item item : reservation.items()) {
+            if (item.hot()) {
+                stockLeases.giveBack(item.productId(), item.quantity());
+            } else if (inventoryRepository.release(item.productId(), item.quantity()) == 0) {
+                log.warn("No se han podido liberar {} unidades del producto {}", item.quantity(), item.productId());
+            }
+        }
+    }
+
+    //RESERVADO -> ENVIADO: SALE DEL ALMACEN. RESERVADO -> CANCELADO: SE LIBERA. ENVIADO -> DEVUELTO: VUELVE AL ALMACEN.
+    //SOLO PARA LINEAS QUE RESERVARON SUS UNIDADES (OrderItem.reserved): LAS DEMAS SE LLEVARIAN LAS RESERVAS DE OTROS PEDIDOS
+    @Override
+    public void applyStatusChange(Long productId, int quantity, OrderStatus previous, OrderStatus next) {
+        if (previous == next) {
+            return;
+        }
+        int updated;
+        if (RESERVED_STATUSES.contains(previous) && SHIPPED_STATUSES.contains(next)) {
+            updated = inventoryRepository.consume(productId, quantity);
+        } else if (RESERVED_STATUSES.contains(previous) && next == OrderStatus.CANCELLED) {
+            updated = inventoryRepository.release(productId, quantity);
+        } else if (SHIPPED_STATUSES.contains(previous) && next == OrderStatus.RETURNED) {
+            updated = inventoryRepository.restock(productId, quantity);
+        } else {
+            return;
+        }
+        if (updated == 0) {
+            //EL CAMBIO DE ESTADO SIGUE ADELANTE: LA MERCANCIA YA SE HA MOVIDO, EL INVENTARIO HAY QUE REVISARLO A MANO
+            log.error("El inventario del producto {} no cuadra al pasar {} unidades de {} a {}", productId, quantity, previous, next);
+        }
+    }
+
+    @Override
+    public Response getInventory(Long productId) {
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseThrow(() -> new NotFoundException("El producto no tiene inventario"));
+        return Response.builder()
+                .status(200)
+                .inventory(mapInventoryToDto(inventory))
+                .build();
+    }
+
+    @Override
+    public Response updateStock(Long productId, int stock) {
+        if (stock < 0) {
+            throw new InvalidCredentialsException("El stock no puede ser negativo");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new NotFoundException("No se ha encontrado el producto");
+        }
+        if (inventoryRepository.updateStock(productId, stock) == 0) {
+            if (inventoryRepository.existsById(productId)) {
+                throw new InvalidCredentialsException("El stock no puede ser menor que las unidades reservadas");
+            }
+            Inventory inventory = new Inventory();
+            inventory.setProductId(productId);
+            inventory.setStock(stock);
+            inventoryRepository.save(inventory);
+        }
+        return Response.builder()
+                .status(200)
+                .message("Stock actualizado con exito")
+                .build();
+    }
+
+    private InventoryDto mapInventoryToDto(Inventory inventory) {
+        return new InventoryDto(inventory.getProductId(), inventory.getStock(), inventory.getReserved(),
+                inventory.getStock() - inventory.getReserved());
+    }
+
+}
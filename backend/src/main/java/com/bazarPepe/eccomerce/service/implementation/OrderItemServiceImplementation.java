@@ -1,6 +1,9 @@
 package com.bazarPepe.eccomerce.service.implementation;
 
 import com.bazarPepe.eccomerce.dto.OrderItemDto;
+import com.bazarPepe.eccomerce.dto.OrderItemRequest;
+import com.bazarPepe.eccomerce.dto.OrderItemStatusBulkRequest;
+import com.bazarPepe.eccomerce.dto.OrderItemStatusResultDto;
 import com.bazarPepe.eccomerce.dto.OrderRequest;
 import com.bazarPepe.eccomerce.dto.Response;
 import com.bazarPepe.eccomerce.entity.Order;
@@ -8,24 +11,60 @@ import com.bazarPepe.eccomerce.entity.OrderItem;
 import com.bazarPepe.eccomerce.entity.Product;
 import com.bazarPepe.eccomerce.entity.User;
 import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.bazarPepe.eccomerce.enums.StatusChangeOutcome;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
 import com.bazarPepe.eccomerce.exception.NotFoundException;
+import com.bazarPepe.eccomerce.exception.OutOfStockException;
+import com.bazarPepe.eccomerce.intake.QueuedOrder;
+import com.bazarPepe.eccomerce.inventory.StockReservation;
 import com.bazarPepe.eccomerce.mapper.EntityDtoMapper;
+import com.bazarPepe.eccomerce.outbox.Outbox;
+import com.bazarPepe.eccomerce.pagination.OrderItemKeyset;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import com.bazarPepe.eccomerce.projection.OrderItemStatusRow;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
 import com.bazarPepe.eccomerce.repository.OrderItemRepository;
 import com.bazarPepe.eccomerce.repository.OrderRepository;
 import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.search.SuggestionIndex;
+import com.bazarPepe.eccomerce.service.interfaces.InventoryService;
 import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
 import com.bazarPepe.eccomerce.service.interfaces.UserService;
 import com.bazarPepe.eccomerce.specification.OrderItemSpecification;
+import com.bazarPepe.eccomerce.stats.OrderStatusCounts;
+import com.bazarPepe.eccomerce.web.StreamingJsonResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,19 +78,32 @@ public class OrderItemServiceImplementation implements OrderItemService {
     private final ProductRepository productRepository;
     private final UserService userService;
     private final EntityDtoMapper entityDtoMapper;
+    private final SuggestionIndex suggestionIndex;
+    private final StreamingJsonResponses streamingJsonResponses;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final Outbox outbox;
+    private final OrderStatusCounts orderStatusCounts;
+
+    private static final int MAX_PAGE_SIZE=1000;
+    //ACTUALIZACION MASIVA: LINEAS POR TRANSACCION, TOPE POR PETICION Y REINTENTOS DE UN LOTE QUE OTRA PETICION HA TOCADO
+    private static final int STATUS_CHUNK_SIZE=500;
+    private static final int MAX_STATUS_ITEMS=10000;
+    private static final int MAX_STATUS_ATTEMPTS=3;
 
 
     @Override
     public Response filterOrderItems(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId, Pageable pageable) {
-        Specification<OrderItem>specification=Specification.where(OrderItemSpecification.hasStatus(orderStatus))
-                .and(OrderItemSpecification.createdBetween(startDate,endDate))
-                .and(OrderItemSpecification.hasItemId(itemId));
+        Specification<OrderItem>specification=filterSpecification(orderStatus,startDate,endDate,itemId);
         Page<OrderItem>orderItemPage=orderItemRepository.findAll(specification,pageable);
         if(orderItemPage.isEmpty()){
             throw new NotFoundException("No se ha encontrado el pedido");
         }
+        //USUARIO Y DIRECCION VIENEN CON LA PAGINA; LOS PRODUCTOS DE TODA LA PAGINA, EN UNA CONSULTA Y SIN LA IMAGEN
+        Map<Long,ProductSummary>productsById=findProductSummaries(orderItemPage.getContent());
         List<OrderItemDto>orderItemDtos=orderItemPage.getContent().stream()
-                .map(entityDtoMapper::mapOrderItemToDtoPlusProductAndUser)
+                .map(orderItem -> entityDtoMapper.mapOrderItemToDtoPlusProductSummaryAndUser(orderItem,
+                        orderItem.getProduct()!=null ? productsById.get(orderItem.getProduct().getId()) : null))
                 .collect(Collectors.toList());
 
         return Response.builder()
@@ -62,18 +114,265 @@ public class OrderItemServiceImplementation implements OrderItemService {
                 .build();
     }
 
+    @Override
+    public Response filterOrderItems(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId,
+                                     String cursor, int size, boolean includeTotal) {
+        if (size<1||size>MAX_PAGE_SIZE){
+            throw new InvalidCredentialsException("El tamaño de pagina debe estar entre 1 y "+MAX_PAGE_SIZE);
+        }
+        Specification<OrderItem>specification=filterSpecification(orderStatus,startDate,endDate,itemId);
+        OrderItemKeyset keyset=cursor!=null ? OrderItemKeyset.fromCursor(cursor) : OrderItemKeyset.firstPage();
+        Slice<OrderItemRow>slice=orderItemRepository.findSlice(specification,keyset,size);
+        if (slice.isEmpty()&&keyset.isFirstPage()){
+            throw new NotFoundException("No se ha encontrado el pedido");
+        }
+        List<OrderItemDto>orderItemDtos=slice.getContent().stream()
+                .map(row->entityDtoMapper.mapOrderItemToDtoPlusProductSummaryAndUser(row.orderItem(),row.product()))
+                .collect(Collectors.toList());
+        String nextCursor=slice.hasNext() ? keyset.nextCursor(slice.getContent().get(slice.getNumberOfElements()-1).orderItem()) : null;
+
+        Response response=Response.builder()
+                .status(200)
+                .orderItemList(orderItemDtos)
+                .nextCursor(nextCursor)
+                .hasNext(slice.hasNext())
+                .build();
+        if (includeTotal){
+            //SOLO POR ESTADO (O SIN FILTRO) EL TOTAL SALE DE LOS RECUENTOS EN MEMORIA; CON FECHAS O ID HACE FALTA EL COUNT
+            OptionalLong estimate=startDate==null&&endDate==null&&itemId==null ? orderStatusCounts.estimate(orderStatus) : OptionalLong.empty();
+            if (estimate.isPresent()){
+                response.setTotalElement(estimate.getAsLong());
+                response.setTotalEstimated(true);
+            }else {
+                response.setTotalElement(orderItemRepository.count(specification));
+                response.setTotalEstimated(false);
+            }
+        }
+        return response;
+    }
+
+    private Map<Long,ProductSummary> findProductSummaries(List<OrderItem> orderItems) {
+        //getId() DE UN PROXY LAZY NO LO INICIALIZA: NO HAY CONSULTA POR FILA
+        Set<Long>productIds=orderItems.stream()
+                .map(OrderItem::getProduct)
+                .filter(Objects::nonNull)
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()){
+            return Map.of();
+        }
+        return productRepository.findSummariesByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+    }
+
+    private Specification<OrderItem> filterSpecification(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId) {
+        return Specification.where(OrderItemSpecification.hasStatus(orderStatus))
+                .and(OrderItemSpecification.createdBetween(startDate,endDate))
+                .and(OrderItemSpecification.hasItemId(itemId));
+    }
+
+    @Override
+    public StreamingResponseBody exportOrderItems(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId) {
+        Specification<OrderItem>specification=filterSpecification(orderStatus,startDate,endDate,itemId);
+        return streamingJsonResponses.list("orderItemList",
+                ()->orderItemRepository.streamForExport(specification),
+                row->entityDtoMapper.mapOrderItemToDtoPlusProductSummaryAndUser(row.orderItem(),row.product()));
+    }
+
     @Override
     public Response placeOrder(OrderRequest orderRequest) {
-        User user=userService.getLoginUser();
+        return placeOrder(orderRequest,userService.getLoginUser());
+    }
+
+    //UN PEDIDO CUESTA EL MISMO NUMERO DE VIAJES A LA BASE DE DATOS TENGA LOS PRODUCTOS QUE TENGA: UNA CONSULTA PARA
+    //TODOS LOS PRODUCTOS, UN UPDATE CONDICIONAL PARA RESERVAR EL STOCK Y LOS INSERT DEL PEDIDO Y SUS LINEAS AGRUPADOS
+    //EN LOTES JDBC. EL STOCK SE RESERVA ANTES DE ABRIR LA TRANSACCION DEL PEDIDO, QUE ASI NO BLOQUEA FILAS DE INVENTARIO
+    @Override
+    public Response placeOrder(OrderRequest orderRequest, User user) {
+        checkItems(orderRequest);
+        PreparedOrder order=prepare(new QueuedOrder(null,user,orderRequest),findProducts(List.of(orderRequest)));
+        try {
+            transactionTemplate.executeWithoutResult(status->saveOrder(order));
+        }catch (RuntimeException e){
+            inventoryService.cancel(order.reservation());
+            throw e;
+        }
+
+        //LAS UNIDADES VENDIDAS SUBEN LA POSICION DEL PRODUCTO EN EL AUTOCOMPLETADO, SOLO SI EL PEDIDO LLEGA A GUARDARSE
+        suggestionIndex.recordSales(order.quantitiesByProduct());
+
+        return Response.builder()
+                .status(200)
+                .message("Se ha completado el pedido")
+                .build();
+    }
+
+    //GROUP COMMIT: LOS PRODUCTOS DE TODOS LOS PEDIDOS EN UNA CONSULTA Y TODOS LOS PEDIDOS CON STOCK EN UNA TRANSACCION.
+    //UN ERROR PASAJERO DE LA BASE DE DATOS NO ES CULPA DE NINGUN PEDIDO: SE LANZA PARA QUE LA COLA REPITA EL LOTE ENTERO
+    @Override
+    public List<Response> placeOrders(List<QueuedOrder> queuedOrders) {
+        Map<Long,ProductSummary>productsById=findProducts(queuedOrders.stream().map(QueuedOrder::orderRequest).toList());
+        Response[] responses=new Response[queuedOrders.size()];
+        List<PreparedOrder>prepared=new ArrayList<>();
+        List<Integer>preparedIndexes=new ArrayList<>();
+        //RESERVAS QUE AUN NO ESTAN EN UN PEDIDO GUARDADO: SE DEVUELVEN SIEMPRE AL SALIR, TAMBIEN SI SE REPITE EL LOTE,
+        //QUE VOLVERA A RESERVAR
+        Set<PreparedOrder>unsaved=Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            for (int i=0;i<queuedOrders.size();i++){
+                try {
+                    checkItems(queuedOrders.get(i).orderRequest());
+                    PreparedOrder order=prepare(queuedOrders.get(i),productsById);
+                    unsaved.add(order);
+                    prepared.add(order);
+                    preparedIndexes.add(i);
+                }catch (RuntimeException e){
+                    rethrowIfTransient(e);
+                    responses[i]=errorResponse(e);
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status->prepared.forEach(this::saveOrder));
+                unsaved.clear();
+                for (int i=0;i<prepared.size();i++){
+                    responses[preparedIndexes.get(i)]=placed(prepared.get(i));
+                }
+            }catch (RuntimeException batchError){
+                rethrowIfTransient(batchError);
+                //UN PEDIDO QUE HACE FALLAR EL LOTE NO DEBE TUMBAR A LOS DEMAS: SE REPITEN DE UNO EN UNO
+                log.warn("Ha fallado el lote de {} pedidos, se guardan por separado", prepared.size(), batchError);
+                for (int i=0;i<prepared.size();i++){
+                    PreparedOrder order=prepared.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status->saveOrder(order));
+                    }catch (RuntimeException e){
+                        rethrowIfTransient(e);
+                        responses[preparedIndexes.get(i)]=errorResponse(e);
+                        continue;
+                    }
+                    unsaved.remove(order);
+                    responses[preparedIndexes.get(i)]=placed(order);
+                }
+            }
+        }finally {
+            unsaved.forEach(this::release);
+        }
+        return List.of(responses);
+    }
+
+    //BLOQUEO MUERTO, ESPERA DE BLOQUEO AGOTADA O CONEXION PERDIDA: EL MISMO LOTE PUEDE SALIR BIEN UN POCO DESPUES
+    private static void rethrowIfTransient(RuntimeException exception) {
+        if (exception instanceof TransientDataAccessException
+                ||exception instanceof RecoverableDataAccessException
+                ||exception instanceof DataAccessResourceFailureException
+                ||exception instanceof CannotCreateTransactionException){
+            throw exception;
+        }
+    }
+
+    //UNA RESERVA QUE NO SE PUEDE DEVOLVER NO IMPIDE DEVOLVER LAS DEMAS
+    private void release(PreparedOrder order) {
+        try {
+            inventoryService.cancel(order.reservation());
+        }catch (RuntimeException e){
+            log.error("No se ha podido devolver el stock reservado para el pedido {}", order.queuedOrder().token(), e);
+        }
+    }
+
+    //COMPROBACION PREVIA DE LA COLA DE PEDIDOS, ANTES DE ACEPTARLO: LO QUE NO DEPENDE DEL STOCK
+    @Override
+    public void validateOrder(OrderRequest orderRequest) {
+        checkItems(orderRequest);
+        Set<Long>productIds=orderRequest.getItems().stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toSet());
+        if (productRepository.countByIdIn(productIds)!=productIds.size()){
+            throw new NotFoundException("No se encuentra el producto");
+        }
+    }
+
+    private void checkItems(OrderRequest orderRequest) {
+        if (orderRequest.getItems()==null||orderRequest.getItems().isEmpty()){
+            throw new InvalidCredentialsException("El pedido no tiene productos");
+        }
+        for (OrderItemRequest item:orderRequest.getItems()){
+            if (item.getProductId()==null){
+                throw new InvalidCredentialsException("Falta el producto");
+            }
+            if (item.getQuantity()<=0){
+                throw new InvalidCredentialsException("La cantidad debe ser mayor que cero");
+            }
+        }
+    }
+
+    //TODOS LOS PRODUCTOS DE LOS PEDIDOS EN UNA SOLA CONSULTA, SIN LA COLUMNA IMAGE
+    private Map<Long,ProductSummary> findProducts(List<OrderRequest> orderRequests) {
+        Set<Long>productIds=orderRequests.stream()
+                .filter(orderRequest -> orderRequest.getItems()!=null)
+                .flatMap(orderRequest -> orderRequest.getItems().stream())
+                .map(OrderItemRequest::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()){
+            return Map.of();
+        }
+        return productRepository.findSummariesByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+    }
+
+    private PreparedOrder prepare(QueuedOrder queuedOrder, Map<Long,ProductSummary>productsById) {
+        OrderRequest orderRequest=queuedOrder.orderRequest();
+        for (OrderItemRequest item:orderRequest.getItems()){
+            if (!productsById.containsKey(item.getProductId())){
+                throw new NotFoundException("No se encuentra el producto");
+            }
+        }
+        Map<Long,Integer>quantitiesByProduct=orderRequest.getItems().stream()
+                .collect(Collectors.toMap(OrderItemRequest::getProductId, OrderItemRequest::getQuantity, Integer::sum));
+        StockReservation reservation=inventoryService.reserve(quantitiesByProduct);
+        return new PreparedOrder(queuedOrder,productsById,quantitiesByProduct,reservation);
+    }
+
+    private Response placed(PreparedOrder order) {
+        suggestionIndex.recordSales(order.quantitiesByProduct());
+        return Response.builder()
+                .status(200)
+                .message("Se ha completado el pedido")
+                .build();
+    }
+
+    //MISMO CODIGO DE ESTADO QUE DARIA EL GLOBALEXCEPTIONHANDLER EN UN PEDIDO SINCRONO
+    private Response errorResponse(RuntimeException exception) {
+        HttpStatus status;
+        if (exception instanceof NotFoundException){
+            status=HttpStatus.NOT_FOUND;
+        }else if (exception instanceof OutOfStockException){
+            status=HttpStatus.CONFLICT;
+        }else if (exception instanceof InvalidCredentialsException){
+            status=HttpStatus.BAD_REQUEST;
+        }else {
+            status=HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return Response.builder()
+                .status(status.value())
+                .message(exception.getMessage())
+                .build();
+    }
+
+    private void saveOrder(PreparedOrder prepared) {
+        OrderRequest orderRequest=prepared.queuedOrder().orderRequest();
+        User user=prepared.queuedOrder().user();
         //MAP ORDER REQUEST ITEM TO ORDER ENTITY
         List<OrderItem>orderItems=orderRequest.getItems().stream().map(orderItemRequest -> {
-            Product product=productRepository.findById(orderItemRequest.getProductId())
-                    .orElseThrow(()->new NotFoundException("No se encuentra el producto"));
+            ProductSummary product=prepared.productsById().get(orderItemRequest.getProductId());
             OrderItem orderItem=new OrderItem();
-            orderItem.setProduct(product);
+            //REFERENCIA SIN CONSULTA: SOLO HACE FALTA EL ID PARA LA CLAVE AJENA
+            orderItem.setProduct(productRepository.getReferenceById(product.id()));
             orderItem.setQuantity(orderItemRequest.getQuantity());
-            orderItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(orderItemRequest.getQuantity())));//ESTABLECE EL PRECIO ACORDE A LA CANTIDAD
+            orderItem.setPrice(product.price().multiply(BigDecimal.valueOf(orderItemRequest.getQuantity())));//ESTABLECE EL PRECIO ACORDE A LA CANTIDAD
             orderItem.setStatus(OrderStatus.PENDING);
+            orderItem.setReserved(prepared.reservation().covers(product.id()));
             orderItem.setUser(user);
             return orderItem;
         }).collect(Collectors.toList());
@@ -87,28 +386,179 @@ public class OrderItemServiceImplementation implements OrderItemService {
         Order order=new Order();
         order.setOrderItemList(orderItems);
         order.setTotalPrice(totalPrice);
+        order.setIntakeToken(prepared.queuedOrder().token());
 
         //ESTABLECER LA REFERENCIA DE PEDIDO EN CADA PRODUCTO DEL PEDIDO
         orderItems.forEach(orderItem -> orderItem.setOrder(order));
 
         orderRepository.save(order);
+        orderStatusCounts.added(orderItems.size());
+        outbox.append(OutboxEventType.ORDER_PLACED,order.getId(),Map.of(
+                "orderId",order.getId(),
+                "userId",user.getId(),
+                "totalPrice",totalPrice,
+                "items",orderItems.stream().map(orderItem -> Map.of(
+                        "orderItemId",orderItem.getId(),
+                        "productId",orderItem.getProduct().getId(),
+                        "quantity",orderItem.getQuantity(),
+                        "price",orderItem.getPrice(),
+                        "day",orderItem.getCreatedAt().toLocalDate())).toList()));
+    }
+
+    //PEDIDO CON LOS PRODUCTOS COMPROBADOS Y EL STOCK YA RESERVADO, LISTO PARA GUARDAR
+    private record PreparedOrder(QueuedOrder queuedOrder, Map<Long,ProductSummary>productsById,
+                                 Map<Long,Integer>quantitiesByProduct, StockReservation reservation) {
+    }
 
+    //EL MISMO CAMINO QUE LA ACTUALIZACION MASIVA CON UNA SOLA LINEA: MISMAS TRANSICIONES, STOCK, RECUENTOS Y EVENTO
+    @Override
+    public Response updateOrderItemStatus(Long orderItemID, String status) {
+        OrderStatus target=parseStatus(status);
+        if (target==null){
+            throw new InvalidCredentialsException("Falta el estado");
+        }
+        OrderItemStatusResultDto result=changeStatus(List.of(orderItemID),target).get(0);
+        switch (StatusChangeOutcome.valueOf(result.getOutcome())){
+            case NOT_FOUND -> throw new NotFoundException("No se ha podido encontrar el producto del pedido");
+            case INVALID_TRANSITION -> throw new InvalidCredentialsException(
+                    "No se puede pasar de "+result.getPreviousStatus()+" a "+target);
+            case UNCHANGED -> {
+                return Response.builder()
+                        .status(200)
+                        .message("El producto del pedido ya estaba en "+target)
+                        .build();
+            }
+            default -> {
+            }
+        }
         return Response.builder()
                 .status(200)
-                .message("Se ha completado el pedido")
+                .message("Se ha actualizado con exito el estado")
                 .build();
     }
 
     @Override
-    public Response updateOrderItemStatus(Long orderItemID, String status) {
-        OrderItem orderItem=orderItemRepository.findById(orderItemID)
-                .orElseThrow(()->new NotFoundException("No se ha podido encontrar el producto del pedido"));
-        orderItem.setStatus(OrderStatus.valueOf(status.toUpperCase()));
-        orderItemRepository.save(orderItem);
+    public Response updateOrderItemsStatus(OrderItemStatusBulkRequest request) {
+        OrderStatus target=parseStatus(request.getStatus());
+        if (target==null){
+            throw new InvalidCredentialsException("Falta el estado");
+        }
+        List<OrderItemStatusResultDto>results=new ArrayList<>();
+        if (request.getOrderItemIds()!=null){
+            List<Long>ids=new ArrayList<>(new LinkedHashSet<>(request.getOrderItemIds()));
+            ids.removeIf(Objects::isNull);
+            if (ids.isEmpty()||ids.size()>MAX_STATUS_ITEMS){
+                throw new InvalidCredentialsException("Hay que indicar entre 1 y "+MAX_STATUS_ITEMS+" lineas de pedido");
+            }
+            for (int from=0;from<ids.size();from+=STATUS_CHUNK_SIZE){
+                results.addAll(changeStatus(ids.subList(from,Math.min(from+STATUS_CHUNK_SIZE,ids.size())),target));
+            }
+        }else {
+            if (request.getCurrentStatus()==null&&request.getStartDate()==null&&request.getEndDate()==null){
+                throw new InvalidCredentialsException("Hay que indicar las lineas de pedido o un filtro");
+            }
+            //EL FILTRO SE RECORRE POR KEYSET DE IDS: LAS LINEAS YA CAMBIADAS PUEDEN SALIR DEL FILTRO SIN SALTARSE NINGUNA
+            Specification<OrderItem>specification=filterSpecification(parseStatus(request.getCurrentStatus()),
+                    request.getStartDate(),request.getEndDate(),null);
+            OrderItemKeyset keyset=OrderItemKeyset.firstPage();
+            while (results.size()<MAX_STATUS_ITEMS){
+                int size=Math.min(STATUS_CHUNK_SIZE,MAX_STATUS_ITEMS-results.size());
+                List<Long>ids=orderItemRepository.findIds(specification,keyset,size);
+                if (ids.isEmpty()){
+                    break;
+                }
+                results.addAll(changeStatus(ids,target));
+                if (ids.size()<size){
+                    break;
+                }
+                keyset=OrderItemKeyset.after(ids.get(ids.size()-1));
+            }
+        }
 
+        Map<String,Long>byOutcome=results.stream()
+                .collect(Collectors.groupingBy(OrderItemStatusResultDto::getOutcome,Collectors.counting()));
         return Response.builder()
                 .status(200)
-                .message("Se ha actualizado con exito el estado")
+                .message("Lineas actualizadas: "+byOutcome.getOrDefault(StatusChangeOutcome.UPDATED.name(),0L)
+                        +" de "+results.size())
+                .statusResultList(results)
                 .build();
     }
+
+    private OrderStatus parseStatus(String status) {
+        if (status==null){
+            return null;
+        }
+        try {
+            return OrderStatus.valueOf(status.trim().toUpperCase());
+        }catch (IllegalArgumentException e){
+            throw new InvalidCredentialsException("Estado no valido: "+status);
+        }
+    }
+
+    //UN LOTE EN SU PROPIA TRANSACCION. SI OTRA PETICION CAMBIA UNA LINEA ENTRE LA LECTURA Y EL UPDATE, EL LOTE
+    //SE DESHACE ENTERO Y SE VUELVE A LEER. LO MISMO SI MYSQL LO ELIGE COMO VICTIMA DE UN INTERBLOQUEO: DOS LOTES CON
+    //LINEAS DE LOS MISMOS PEDIDOS BLOQUEAN SUS FILAS DE outbox_sequences EN ORDEN DISTINTO
+    private List<OrderItemStatusResultDto> changeStatus(List<Long> ids, OrderStatus target) {
+        for (int attempt=1;;attempt++){
+            try {
+                return transactionTemplate.execute(status->applyStatus(ids,target));
+            }catch (ConcurrencyFailureException e){
+                if (attempt==MAX_STATUS_ATTEMPTS){
+                    throw e;
+                }
+                log.debug("Lote de {} lineas modificado o bloqueado por otra peticion, intento {}", ids.size(), attempt);
+            }
+        }
+    }
+
+    private List<OrderItemStatusResultDto> applyStatus(List<Long> ids, OrderStatus target) {
+        Map<Long,OrderItemStatusRow>rowsById=orderItemRepository.findStatusRows(ids).stream()
+                .collect(Collectors.toMap(OrderItemStatusRow::id, Function.identity()));
+        List<OrderItemStatusResultDto>results=new ArrayList<>(ids.size());
+        Map<OrderStatus,List<OrderItemStatusRow>>changesByPrevious=new EnumMap<>(OrderStatus.class);
+        for (Long id:ids){
+            OrderItemStatusRow row=rowsById.get(id);
+            StatusChangeOutcome outcome;
+            if (row==null){
+                outcome=StatusChangeOutcome.NOT_FOUND;
+            }else if (row.status()==target){
+                outcome=StatusChangeOutcome.UNCHANGED;
+            }else if (row.status()==null||!row.status().canMoveTo(target)){
+                outcome=StatusChangeOutcome.INVALID_TRANSITION;
+            }else {
+                outcome=StatusChangeOutcome.UPDATED;
+                changesByPrevious.computeIfAbsent(row.status(),previous->new ArrayList<>()).add(row);
+            }
+            results.add(new OrderItemStatusResultDto(id,outcome.name(),
+                    row!=null&&row.status()!=null ? row.status().name() : null));
+        }
+
+        changesByPrevious.forEach((previous,rows)->{
+            List<Long>changedIds=rows.stream().map(OrderItemStatusRow::id).toList();
+            if (orderItemRepository.updateStatus(changedIds,previous,target)!=changedIds.size()){
+                throw new OptimisticLockingFailureException("El estado de alguna linea ha cambiado durante la actualizacion");
+            }
+            //EL STOCK SE MUEVE UNA VEZ POR PRODUCTO CON LA SUMA DE LAS CANTIDADES, NO UNA VEZ POR LINEA,
+            //Y SOLO EN LAS LINEAS QUE RESERVARON SUS UNIDADES AL GUARDARSE
+            rows.stream()
+                    .filter(row->row.reserved()&&row.productId()!=null)
+                    .collect(Collectors.groupingBy(OrderItemStatusRow::productId,Collectors.summingInt(OrderItemStatusRow::quantity)))
+                    .forEach((productId,quantity)->inventoryService.applyStatusChange(productId,quantity,previous,target));
+            orderStatusCounts.moved(previous,target,rows.size());
+            for (OrderItemStatusRow row:rows){
+                Map<String,Object>payload=new LinkedHashMap<>();
+                payload.put("orderId",row.orderId());
+                payload.put("orderItemId",row.id());
+                payload.put("productId",row.productId());
+                payload.put("quantity",row.quantity());
+                payload.put("previousStatus",previous);
+                payload.put("status",target);
+                payload.put("price",row.price());
+                payload.put("day",row.createdAt().toLocalDate());
+                outbox.append(OutboxEventType.ORDER_ITEM_STATUS_CHANGED,row.orderId(),payload);
+            }
+        });
+        return results;
+    }
 }
@@ -1,22 +1,57 @@
 package com.bazarPepe.eccomerce.service.implementation;
 
+import com.bazarPepe.eccomerce.cache.CatalogVersion;
+import com.bazarPepe.eccomerce.cache.ProductCache;
+import com.bazarPepe.eccomerce.dto.FacetDto;
 import com.bazarPepe.eccomerce.dto.ProductDto;
 import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.dto.SuggestionDto;
 import com.bazarPepe.eccomerce.entity.Category;
 import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import com.bazarPepe.eccomerce.exception.InvalidImageException;
 import com.bazarPepe.eccomerce.exception.NotFoundException;
 import com.bazarPepe.eccomerce.mapper.EntityDtoMapper;
+import com.bazarPepe.eccomerce.outbox.Outbox;
+import com.bazarPepe.eccomerce.pagination.ProductKeyset;
+import com.bazarPepe.eccomerce.projection.ProductImageView;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
 import com.bazarPepe.eccomerce.repository.CategoryRepository;
 import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.search.FacetCounts;
+import com.bazarPepe.eccomerce.search.FacetIndex;
+import com.bazarPepe.eccomerce.search.PriceBucket;
+import com.bazarPepe.eccomerce.search.ProductSearchIndex;
+import com.bazarPepe.eccomerce.search.SuggestionIndex;
 import com.bazarPepe.eccomerce.service.interfaces.ProductService;
+import com.bazarPepe.eccomerce.specification.ProductSpecification;
+import com.bazarPepe.eccomerce.storage.ImageDerivativeService;
+import com.bazarPepe.eccomerce.storage.ImageStore;
+import com.bazarPepe.eccomerce.storage.ImageSweeper;
+import com.bazarPepe.eccomerce.storage.ImageVariant;
+import com.bazarPepe.eccomerce.storage.ProductImage;
+import com.bazarPepe.eccomerce.storage.StoredImage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,22 +65,72 @@ public class ProductServiceImplementation implements ProductService {
 
     private final EntityDtoMapper entityDtoMapper;
 
+    private final ImageStore imageStore;
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final ImageSweeper imageSweeper;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final SuggestionIndex suggestionIndex;
+
+    private final FacetIndex facetIndex;
+
+    private final ProductCache productCache;
+
+    private final CatalogVersion catalogVersion;
+
+    private final Outbox outbox;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private static final String DEFAULT_IMAGE_CONTENT_TYPE="image/jpeg";
+
+    private static final String DERIVATIVE_CONTENT_TYPE="image/jpeg";
+
+    private static final int MAX_PAGE_SIZE=100;
+
+    private static final int MAX_SEARCH_RESULTS=200;
+
+    private static final int MAX_SUGGESTIONS=20;
+
     @Override
     public Response createProduct(Long categoryId, MultipartFile image, String name, String description, BigDecimal price) {
         Category category=categoryRepository.findById(categoryId).orElseThrow(()->new NotFoundException("No existe esa categoria"));
+        StoredImage storedImage=null;
         try {
             Product product = new Product();
             product.setCategory(category);
             product.setPrice(price);
             product.setName(name);
             product.setDescription(description);
-            product.setImage(image.getBytes());
-            productRepository.save(product);
+            storedImage=storeImage(image);
+            product.setImageHash(storedImage.getHash());
+            product.setImageContentType(storedImage.getContentType());
+            //EL PRODUCTO Y SU EVENTO EN LA MISMA TRANSACCION; INDICES Y CACHES DESPUES DEL COMMIT
+            ProductSummary summary=transactionTemplate.execute(status->{
+                productRepository.save(product);
+                ProductSummary created=ProductSummary.from(product);
+                outbox.append(OutboxEventType.PRODUCT_CREATED,product.getId(),created);
+                return created;
+            });
+            productSearchIndex.index(summary);
+            suggestionIndex.putProduct(summary);
+            facetIndex.index(summary);
+            catalogVersion.bump();
+            imageDerivativeService.scheduleDerivatives(storedImage.getHash());
             return Response.builder()
                     .status(200)
                     .message("Producto creado con exito")
                     .build();
+        }catch (InvalidImageException e){
+            throw e;
         }catch (Exception e){
+            //SI EL PRODUCTO NO LLEGO A GUARDARSE SU IMAGEN QUEDA SIN USO
+            if (storedImage!=null){
+                releaseImage(storedImage.getHash());
+            }
             return Response.builder()
                     .status(500)
                     .message("Error al procesar la imagen")
@@ -65,15 +150,18 @@ public class ProductServiceImplementation implements ProductService {
             category=categoryRepository.findById(categoryId).orElseThrow(()->new NotFoundException("No existe esa categoria"));
         }
 
-        // Convertir la imagen a byte[] si se ha proporcionado una nueva imagen
-        byte[] productImage = null;
+        //GUARDA LA NUEVA IMAGEN EN EL IMAGESTORE SI SE HA PROPORCIONADO
+        StoredImage storedImage = null;
         if (image != null && !image.isEmpty()) {
             try {
-                productImage = image.getBytes();
+                storedImage = storeImage(image);
+            } catch (InvalidImageException e) {
+                throw e;
             } catch (Exception e) {
                 throw new RuntimeException("Error processing the image", e);
             }
         }
+        String previousImageHash=product.getImageHash();
 
         //ACTUALIZAR LOS CAMPOS SI SE HAN PROPORCIONADO VALORES
         if (category != null) {
@@ -88,11 +176,39 @@ public class ProductServiceImplementation implements ProductService {
         if (description != null && !description.isEmpty()) {
             product.setDescription(description);
         }
-        if (productImage!=null){
-            product.setImage(productImage);
+        if (storedImage!=null){
+            product.setImageHash(storedImage.getHash());
+            product.setImageContentType(storedImage.getContentType());
+            product.setImage(null);
+        }
+
+        ProductSummary summary;
+        try {
+            summary=transactionTemplate.execute(status->{
+                productRepository.save(product);
+                ProductSummary updated=ProductSummary.from(product);
+                outbox.append(OutboxEventType.PRODUCT_UPDATED,productId,updated);
+                return updated;
+            });
+        }catch (RuntimeException e){
+            if (storedImage!=null&&!storedImage.getHash().equals(previousImageHash)){
+                releaseImage(storedImage.getHash());
+            }
+            throw e;
         }
+        productCache.evict(productId);
+        productSearchIndex.index(summary);
+        suggestionIndex.putProduct(summary);
+        facetIndex.index(summary);
+        catalogVersion.bump();
 
-        productRepository.save(product);
+        if (storedImage!=null){
+            imageDerivativeService.scheduleDerivatives(storedImage.getHash());
+            //LA IMAGEN ANTERIOR SE BORRARA SI YA NINGUN PRODUCTO LA USA
+            if (previousImageHash!=null&&!previousImageHash.equals(storedImage.getHash())){
+                releaseImage(previousImageHash);
+            }
+        }
 
         return Response.builder()
                 .status(200)
@@ -103,7 +219,18 @@ public class ProductServiceImplementation implements ProductService {
     @Override
     public Response deleteProduct(Long productId) {
         Product product=productRepository.findById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado al producto"));
-        productRepository.delete(product);
+        transactionTemplate.executeWithoutResult(status->{
+            productRepository.delete(product);
+            outbox.append(OutboxEventType.PRODUCT_DELETED,productId,Map.of("productId",productId));
+        });
+        productCache.remove(productId);
+        productSearchIndex.remove(productId);
+        suggestionIndex.removeProduct(productId);
+        facetIndex.remove(productId);
+        catalogVersion.bump();
+        if (product.getImageHash()!=null){
+            releaseImage(product.getImageHash());
+        }
         return Response.builder()
                 .status(200)
                 .message("Se ha eliminado el producto correctamente")
@@ -112,8 +239,7 @@ public class ProductServiceImplementation implements ProductService {
 
     @Override
     public Response getProductById(Long productId) {
-        Product product=productRepository.findById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado el producto"));
-        ProductDto productDto=entityDtoMapper.mapProductToDtoBasic(product);
+        ProductDto productDto=productCache.findById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado el producto"));
         return Response.builder()
                 .status(200)
                 .product(productDto)
@@ -122,9 +248,9 @@ public class ProductServiceImplementation implements ProductService {
 
     @Override
     public Response getAllProduct() {
-        List<Product>products=productRepository.findAll(Sort.by(Sort.Direction.DESC,"id"));
+        List<ProductSummary>products=productRepository.findAllSummaries(Sort.by(Sort.Direction.DESC,"id"));
         List<ProductDto>productDtoList=products.stream()
-                .map(entityDtoMapper::mapProductToDtoBasic)
+                .map(entityDtoMapper::mapProductSummaryToDto)
                 .collect(Collectors.toList());
         return Response.builder()
                 .status(200)
@@ -134,13 +260,13 @@ public class ProductServiceImplementation implements ProductService {
 
     @Override
     public Response getProductsByCategory(Long categoryId) {
-        List<Product>productsByCategory=productRepository.findByCategoryId(categoryId);
+        List<ProductSummary>productsByCategory=productRepository.findSummariesByCategoryId(categoryId);
         if (productsByCategory==null||productsByCategory.isEmpty()){
             throw new NotFoundException("No se ha encontrado productos para esta categoria");
 
         }
         List<ProductDto>productDtoList=productsByCategory.stream()
-                .map(entityDtoMapper::mapProductToDtoBasic)
+                .map(entityDtoMapper::mapProductSummaryToDto)
                 .collect(Collectors.toList());
 
         return Response.builder()
@@ -151,17 +277,252 @@ public class ProductServiceImplementation implements ProductService {
 
     @Override
     public Response searchProduct(String searchValue) {
-        List<Product>products=productRepository.findByNameContainingOrDescriptionContaining(searchValue, searchValue);
+        List<ProductSummary>products=findSearchResults(searchValue);
         if (products.isEmpty()){
             throw new NotFoundException("No se ha encontrado productos");
         }
         List<ProductDto>productDtoList=products.stream()
-                .map(entityDtoMapper::mapProductToDtoBasic)
+                .map(entityDtoMapper::mapProductSummaryToDto)
+                .collect(Collectors.toList());
+
+        return Response.builder()
+                .status(200)
+                .productList(productDtoList)
+                .build();
+    }
+
+    @Override
+    public Response getAllProduct(String cursor, int size, String sort) {
+        return productSlice(null,cursor,size,sort);
+    }
+
+    @Override
+    public Response getProductsByCategory(Long categoryId, String cursor, int size, String sort) {
+        return productSlice(ProductSpecification.hasCategoryId(categoryId),cursor,size,sort);
+    }
+
+    @Override
+    public Response searchProduct(String searchValue, String cursor, int size, String sort) {
+        if (!productSearchIndex.isReady()){
+            return productSlice(ProductSpecification.nameOrDescriptionContains(searchValue),cursor,size,sort);
+        }
+        //EL INDICE DECIDE QUE PRODUCTOS COINCIDEN Y EL KEYSET LOS PAGINA EN EL ORDEN PEDIDO
+        List<Long>productIds=productSearchIndex.search(searchValue,MAX_SEARCH_RESULTS);
+        if (productIds.isEmpty()){
+            return Response.builder()
+                    .status(200)
+                    .productList(List.of())
+                    .hasNext(false)
+                    .build();
+        }
+        return productSlice(ProductSpecification.idIn(productIds),cursor,size,sort);
+    }
+
+    @Override
+    public Response filterProducts(List<Long> categoryIds, List<String> priceBuckets, String text, String cursor, int size, String sort) {
+        List<PriceBucket>buckets=new ArrayList<>();
+        if (priceBuckets!=null){
+            for (String key:priceBuckets){
+                try {
+                    buckets.add(PriceBucket.fromKey(key));
+                }catch (IllegalArgumentException e){
+                    throw new InvalidCredentialsException("Tramo de precio no valido: "+key);
+                }
+            }
+        }
+        //EL TEXTO LO RESUELVE EL INDICE DE BUSQUEDA; SI AUN NO ESTA LISTO SE FILTRA CON LIKE Y NO HAY RECUENTOS
+        boolean hasText=text!=null&&!text.isBlank();
+        boolean indexed=productSearchIndex.isReady()&&facetIndex.isReady();
+        List<Long>textMatches=hasText&&indexed ? productSearchIndex.search(text,MAX_SEARCH_RESULTS) : null;
+
+        Specification<Product>specification=Specification.where(ProductSpecification.categoryIdIn(categoryIds))
+                .and(ProductSpecification.priceInBuckets(buckets));
+        if (textMatches!=null){
+            specification=specification.and(ProductSpecification.idIn(textMatches));
+        }else if (hasText){
+            specification=specification.and(ProductSpecification.nameOrDescriptionContains(text));
+        }
+
+        Response response;
+        if (textMatches!=null&&textMatches.isEmpty()){
+            response=Response.builder()
+                    .status(200)
+                    .productList(List.of())
+                    .hasNext(false)
+                    .build();
+        }else {
+            response=productSlice(specification,cursor,size,sort);
+        }
+        if (indexed){
+            FacetCounts counts=facetIndex.count(categoryIds,buckets,textMatches);
+            response.setTotalElement(counts.total());
+            response.setFacets(Map.of(
+                    "category",counts.categories().entrySet().stream()
+                            .map(entry -> new FacetDto(String.valueOf(entry.getKey()),entry.getValue()))
+                            .collect(Collectors.toList()),
+                    "price",counts.prices().entrySet().stream()
+                            .map(entry -> new FacetDto(entry.getKey().key(),entry.getValue()))
+                            .collect(Collectors.toList())));
+        }
+        return response;
+    }
+
+    @Override
+    public Response suggest(String prefix, int limit) {
+        List<SuggestionDto>suggestionList=suggestionIndex.suggest(prefix,Math.max(1,Math.min(limit,MAX_SUGGESTIONS))).stream()
+                .map(suggestion -> new SuggestionDto(suggestion.id(),suggestion.label(),suggestion.type().name()))
                 .collect(Collectors.toList());
+        return Response.builder()
+                .status(200)
+                .suggestionList(suggestionList)
+                .build();
+    }
 
+    //BUSQUEDA CON EL INDICE EN MEMORIA: SOLO SE CONSULTAN EN BASE DE DATOS LOS IDS MEJOR PUNTUADOS, EN ORDEN DE RELEVANCIA
+    private List<ProductSummary> findSearchResults(String searchValue){
+        if (!productSearchIndex.isReady()){
+            return productRepository.searchSummaries(searchValue);
+        }
+        List<Long>productIds=productSearchIndex.search(searchValue,MAX_SEARCH_RESULTS);
+        if (productIds.isEmpty()){
+            return List.of();
+        }
+        Map<Long,ProductSummary>productsById=productRepository.findSummariesByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    //UNA PAGINA DEL LISTADO: EL CURSOR YA LLEVA EL ORDEN, ASI QUE sort SOLO SE USA EN LA PRIMERA PAGINA
+    private Response productSlice(Specification<Product> specification, String cursor, int size, String sort){
+        if (size<1||size>MAX_PAGE_SIZE){
+            throw new InvalidCredentialsException("El tamaño de pagina debe estar entre 1 y "+MAX_PAGE_SIZE);
+        }
+        ProductKeyset keyset=cursor!=null ? ProductKeyset.fromCursor(cursor) : ProductKeyset.firstPage(sort);
+        Slice<ProductSummary>slice=productRepository.findSummarySlice(specification,keyset,size);
+        List<ProductDto>productDtoList=slice.getContent().stream()
+                .map(entityDtoMapper::mapProductSummaryToDto)
+                .collect(Collectors.toList());
+        String nextCursor=slice.hasNext() ? keyset.nextCursor(slice.getContent().get(slice.getNumberOfElements()-1)) : null;
         return Response.builder()
                 .status(200)
                 .productList(productDtoList)
+                .nextCursor(nextCursor)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    @Override
+    public ProductImage getProductImage(Long productId, ImageVariant variant) {
+        ProductImageView imageView=productRepository.findImageViewById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado el producto"));
+        String imageHash=imageView.getImageHash();
+        String contentType=imageView.getImageContentType();
+        if (imageHash==null){
+            //SOLO LOS PRODUCTOS CON LA IMAGEN TODAVIA EN BLOB CARGAN LA ENTIDAD COMPLETA, UNA UNICA VEZ
+            Product product=productRepository.findById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado el producto"));
+            if (product.getImage()==null){
+                throw new NotFoundException("El producto no tiene imagen");
+            }
+            migrateLegacyImage(product);
+            imageHash=product.getImageHash();
+            contentType=product.getImageContentType();
+        }
+        if (variant!=null){
+            Optional<Resource> variantResource=imageStore.loadVariant(imageHash,variant);
+            if (variantResource.isPresent()){
+                return new ProductImage(imageHash,DERIVATIVE_CONTENT_TYPE,variantResource.get(),imageHash+"-"+variant.key(),false);
+            }
+            //MIENTRAS LA VARIANTE NO EXISTE SE SIRVE LA ORIGINAL Y SE PIDE GENERARLA
+            imageDerivativeService.scheduleDerivatives(imageHash);
+        }
+        Resource resource=imageStore.load(imageHash)
+                .orElseThrow(()->new NotFoundException("No se ha encontrado la imagen del producto"));
+        return new ProductImage(imageHash,contentType!=null ? contentType : DEFAULT_IMAGE_CONTENT_TYPE,resource,imageHash,variant!=null);
+    }
+
+    @Override
+    public Response updateProductImage(Long productId, InputStream imageData) {
+        ProductImageView imageView=productRepository.findImageViewById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado el producto"));
+        StoredImage storedImage;
+        try {
+            storedImage=saveImage(imageData);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al guardar la imagen", e);
+        }
+        String imageHash=storedImage.getHash();
+        String contentType=storedImage.getContentType();
+        ProductSummary summary;
+        try {
+            summary=transactionTemplate.execute(status->{
+                productRepository.updateImage(productId,imageHash,contentType);
+                ProductSummary updated=productRepository.findSummaryById(productId).orElseThrow(()->new NotFoundException("No se ha encontrado el producto"));
+                outbox.append(OutboxEventType.PRODUCT_UPDATED,productId,updated);
+                return updated;
+            });
+        }catch (RuntimeException e){
+            if (!imageHash.equals(imageView.getImageHash())){
+                releaseImage(imageHash);
+            }
+            throw e;
+        }
+        productCache.evict(productId);
+        productSearchIndex.index(summary);
+        suggestionIndex.putProduct(summary);
+        facetIndex.index(summary);
+        catalogVersion.bump();
+        imageDerivativeService.scheduleDerivatives(storedImage.getHash());
+        String previousImageHash=imageView.getImageHash();
+        if (previousImageHash!=null&&!previousImageHash.equals(storedImage.getHash())){
+            releaseImage(previousImageHash);
+        }
+        return Response.builder()
+                .status(200)
+                .message("Imagen del producto actualizada correctamente")
                 .build();
     }
+
+    //LA PARTE MULTIPART YA ESTA EN DISCO, SE LEE COMO STREAM EN VEZ DE CON getBytes()
+    private StoredImage storeImage(MultipartFile image) throws IOException {
+        try (InputStream inputStream=image.getInputStream()){
+            return saveImage(inputStream);
+        }
+    }
+
+    //LA IMAGEN SALE DEL BARRIDO DE IMAGENES SIN USO ANTES DE QUE EL ALMACEN MIRE SI YA LA TIENE
+    private StoredImage saveImage(InputStream data) throws IOException {
+        return imageStore.save(data,imageSweeper::unmark);
+    }
+
+    //MUEVE AL IMAGESTORE UNA IMAGEN QUE TODAVIA ESTABA GUARDADA COMO BLOB EN LA TABLA
+    private void migrateLegacyImage(Product product){
+        try {
+            StoredImage storedImage=saveImage(new ByteArrayInputStream(product.getImage()));
+            product.setImageHash(storedImage.getHash());
+            product.setImageContentType(storedImage.getContentType());
+            product.setImage(null);
+            ProductSummary summary=transactionTemplate.execute(status->{
+                productRepository.save(product);
+                ProductSummary updated=ProductSummary.from(product);
+                outbox.append(OutboxEventType.PRODUCT_UPDATED,product.getId(),updated);
+                return updated;
+            });
+            productCache.evict(product.getId());
+            productSearchIndex.index(summary);
+            suggestionIndex.putProduct(summary);
+            facetIndex.index(summary);
+            catalogVersion.bump();
+            imageDerivativeService.scheduleDerivatives(storedImage.getHash());
+            log.info("Imagen del producto {} migrada al almacen de imagenes",product.getId());
+        } catch (IOException e) {
+            throw new RuntimeException("Error al migrar la imagen del producto", e);
+        }
+    }
+
+    //NO SE BORRA AQUI: UNA SUBIDA DE LOS MISMOS BYTES PUEDE ESTAR REAPROVECHANDOLA. EL BARRIDO LA BORRA MAS TARDE SI
+    //PARA ENTONCES NINGUN PRODUCTO LA USA
+    private void releaseImage(String imageHash){
+        imageSweeper.markUnused(imageHash);
+    }
 }
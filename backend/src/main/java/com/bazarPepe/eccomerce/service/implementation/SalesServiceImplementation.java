@@ -0,0 +1,137 @@
+package com.bazarPepe.eccomerce.service.implementation;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.dto.SalesDto;
+import com.bazarPepe.eccomerce.entity.SalesRollup;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.SalesDimension;
+import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
+import com.bazarPepe.eccomerce.projection.SalesTotal;
+import com.bazarPepe.eccomerce.repository.SalesRollupRepository;
+import com.bazarPepe.eccomerce.service.interfaces.SalesService;
+import com.bazarPepe.eccomerce.stats.SalesRollups;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+//TODAS LAS CONSULTAS SALEN DE sales_rollups: EL COSTE DEPENDE DE LOS DIAS DEL RANGO, NO DE LOS PEDIDOS
+@Service
+@RequiredArgsConstructor
+public class SalesServiceImplementation implements SalesService {
+
+    private static final long MAX_DAYS=366;
+    private static final long DEFAULT_DAYS=30;
+    private static final int MAX_TOP=100;
+    //LO QUE CUENTA COMO VENDIDO SI NO SE PIDEN ESTADOS CONCRETOS
+    private static final Set<OrderStatus> SOLD_STATUSES=
+            EnumSet.of(OrderStatus.PENDING,OrderStatus.CONFIRMED,OrderStatus.SHIPPED,OrderStatus.DELIVERED);
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesRollups salesRollups;
+
+    @Override
+    public Response getDailySales(LocalDate startDate, LocalDate endDate, Long productId, Long categoryId) {
+        if (productId!=null&&categoryId!=null){
+            throw new InvalidCredentialsException("Indica un producto o una categoria, no los dos");
+        }
+        DayRange range=DayRange.of(startDate,endDate);
+        SalesDimension dimension=productId!=null ? SalesDimension.PRODUCT
+                : categoryId!=null ? SalesDimension.CATEGORY : SalesDimension.ALL;
+        Long dimensionId=productId!=null ? productId : categoryId!=null ? categoryId : 0L;
+
+        List<SalesDto>sales=salesRollupRepository.findDaily(dimension,dimensionId,range.start(),range.end()).stream()
+                .map(SalesServiceImplementation::mapRollupToDto)
+                .toList();
+        return Response.builder()
+                .status(200)
+                .salesList(sales)
+                .build();
+    }
+
+    @Override
+    public Response getTopSales(LocalDate startDate, LocalDate endDate, String dimension, List<String> statuses, int limit) {
+        if (limit<1||limit>MAX_TOP){
+            throw new InvalidCredentialsException("El limite debe estar entre 1 y "+MAX_TOP);
+        }
+        DayRange range=DayRange.of(startDate,endDate);
+        SalesDimension salesDimension=parseDimension(dimension);
+        Set<OrderStatus>statusSet=parseStatuses(statuses);
+
+        List<SalesDto>sales=salesRollupRepository.findTop(salesDimension,range.start(),range.end(),statusSet,PageRequest.of(0,limit))
+                .stream()
+                .map(total->mapTotalToDto(salesDimension,total))
+                .toList();
+        return Response.builder()
+                .status(200)
+                .salesList(sales)
+                .build();
+    }
+
+    @Override
+    public Response reconcileSales(LocalDate startDate, LocalDate endDate) {
+        DayRange range=DayRange.of(startDate,endDate);
+        int rows=salesRollups.reconcile(range.start(),range.end());
+        return Response.builder()
+                .status(200)
+                .message("Acumulados de ventas recalculados: "+rows+" filas")
+                .build();
+    }
+
+    private static SalesDimension parseDimension(String dimension) {
+        if (dimension==null||dimension.isBlank()){
+            return SalesDimension.PRODUCT;
+        }
+        try {
+            return SalesDimension.valueOf(dimension.toUpperCase());
+        }catch (IllegalArgumentException e){
+            throw new InvalidCredentialsException("Dimension no valida: "+dimension);
+        }
+    }
+
+    private static Set<OrderStatus> parseStatuses(List<String> statuses) {
+        if (statuses==null||statuses.isEmpty()){
+            return SOLD_STATUSES;
+        }
+        Set<OrderStatus>parsed=EnumSet.noneOf(OrderStatus.class);
+        for (String status:statuses){
+            try {
+                parsed.add(OrderStatus.valueOf(status.toUpperCase()));
+            }catch (IllegalArgumentException e){
+                throw new InvalidCredentialsException("Estado no valido: "+status);
+            }
+        }
+        return parsed;
+    }
+
+    private static SalesDto mapRollupToDto(SalesRollup rollup) {
+        return new SalesDto(rollup.getId().getDay(),rollup.getId().getDimension().name(),rollup.getId().getDimensionId(),
+                rollup.getId().getStatus().name(),rollup.getUnits(),rollup.getRevenue(),rollup.getItemCount());
+    }
+
+    private static SalesDto mapTotalToDto(SalesDimension dimension, SalesTotal total) {
+        return new SalesDto(null,dimension.name(),total.dimensionId(),null,total.units(),total.revenue(),total.itemCount());
+    }
+
+    //RANGO DE DIAS, AMBOS INCLUIDOS. SIN FECHAS, LOS ULTIMOS 30 DIAS
+    private record DayRange(LocalDate start, LocalDate end) {
+
+        static DayRange of(LocalDate startDate, LocalDate endDate) {
+            LocalDate end=endDate!=null ? endDate : LocalDate.now();
+            LocalDate start=startDate!=null ? startDate : end.minusDays(DEFAULT_DAYS-1);
+            if (start.isAfter(end)){
+                throw new InvalidCredentialsException("La fecha de inicio es posterior a la de fin");
+            }
+            if (ChronoUnit.DAYS.between(start,end)>=MAX_DAYS){
+                throw new InvalidCredentialsException("El rango no puede superar "+MAX_DAYS+" dias");
+            }
+            return new DayRange(start,end);
+        }
+    }
+
+}
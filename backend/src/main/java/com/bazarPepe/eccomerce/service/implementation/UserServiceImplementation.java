@@ -8,9 +8,13 @@ import com.bazarPepe.eccomerce.enums.UserRole;
 import com.bazarPepe.eccomerce.exception.InvalidCredentialsException;
 import com.bazarPepe.eccomerce.exception.NotFoundException;
 import com.bazarPepe.eccomerce.mapper.EntityDtoMapper;
+import com.bazarPepe.eccomerce.projection.OrderItemRow;
+import com.bazarPepe.eccomerce.repository.OrderItemRepository;
 import com.bazarPepe.eccomerce.repository.UserRepository;
 import com.bazarPepe.eccomerce.security.JwtUtils;
 import com.bazarPepe.eccomerce.service.interfaces.UserService;
+import com.bazarPepe.eccomerce.specification.OrderItemSpecification;
+import com.bazarPepe.eccomerce.web.StreamingJsonResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -18,9 +22,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -28,9 +32,11 @@ import java.util.stream.Collectors;
 public class UserServiceImplementation implements UserService {
 
     private final UserRepository userRepository;
+    private final OrderItemRepository orderItemRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final EntityDtoMapper entityDtoMapper;
+    private final StreamingJsonResponses streamingJsonResponses;
 
 
     @Override
@@ -103,28 +109,9 @@ public class UserServiceImplementation implements UserService {
     }
 
     @Override
-    public Response getAllUsers() {
-        try {
-            //OBTIENE TODOS LOS USUARIOS Y LOS MAPEAS A UserDto
-            List<User> users = userRepository.findAll();
-            List<UserDto> userDtos = users.stream()
-                    .map(entityDtoMapper::mapUserToDtoBasic)
-                    .toList();
-
-            //SI TODO SALE BIEN, DEVUELVE UNA RESPUESTA EXITOSA
-            return Response.builder()
-                    .status(200)
-                    .message("Éxito")
-                    .userList(userDtos)
-                    .build();
-
-        } catch (Exception exception) {
-            //SI OCURRE ALGÚN ERROR, DEVUELVE UNA RESPUESTA DE ERROR
-            return Response.builder()
-                    .status(500)
-                    .message("Error al obtener la lista de usuarios: " + exception.getMessage())
-                    .build();
-        }
+    public StreamingResponseBody getAllUsers() {
+        //CADA USUARIO SE MAPEA A UserDto Y SE ESCRIBE EN CUANTO LLEGA DE LA BASE DE DATOS
+        return streamingJsonResponses.list("userList",userRepository::streamAll,entityDtoMapper::mapUserToDtoBasic);
     }
 
     @Override
@@ -149,8 +136,9 @@ public class UserServiceImplementation implements UserService {
         //OBTIENE EL USUARIO AUTENTIFICADO
         User user=getLoginUser();
 
-        //MAPEO A USERDTO AÑADIENDO ADDRESS Y ORDER HISTORY
-        UserDto userDto=entityDtoMapper.mapUsertoDtoPlusAddressAndOrderHistory(user);
+        //MAPEO A USERDTO AÑADIENDO ADDRESS Y ORDER HISTORY, CON TODO EL HISTORIAL Y SUS PRODUCTOS EN UNA CONSULTA
+        List<OrderItemRow>orderHistory=orderItemRepository.findRows(OrderItemSpecification.hasUserId(user.getId()));
+        UserDto userDto=entityDtoMapper.mapUsertoDtoPlusAddressAndOrderHistory(user,orderHistory);
 
         //CONSTRUYE UNA RESPUESTA EXITOSA
         return Response.builder()
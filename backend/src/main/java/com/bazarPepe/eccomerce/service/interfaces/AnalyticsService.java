@@ -0,0 +1,17 @@
+package com.bazarPepe.eccomerce.service.interfaces;
+
+import com.bazarPepe.eccomerce.dto.Response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnalyticsService {
+
+    //GROUP BY SOBRE LA FOTO EN COLUMNAS DE ORDER ITEMS. LOS FILTROS SIN VALOR NO FILTRAN
+    Response queryOrderItems(String groupBy, List<String> statuses, List<Long> productIds, List<Long> categoryIds,
+                             List<Long> userIds, LocalDate startDate, LocalDate endDate, String orderBy, int limit);
+
+    //VUELVE A CARGAR LA FOTO SIN ESPERAR AL SIGUIENTE REFRESCO
+    Response refreshOrderItems();
+
+}
@@ -0,0 +1,24 @@
+package com.bazarPepe.eccomerce.service.interfaces;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.inventory.StockReservation;
+
+import java.util.Map;
+
+public interface InventoryService {
+
+    //TODO O NADA. SE LLAMA ANTES DE ABRIR LA TRANSACCION DEL PEDIDO: CADA RESERVA VA EN SU PROPIA TRANSACCION CORTA
+    StockReservation reserve(Map<Long, Integer> quantitiesByProduct);
+
+    //DEVUELVE LAS UNIDADES DE UN PEDIDO QUE NO SE HA LLEGADO A GUARDAR
+    void cancel(StockReservation reservation);
+
+    //MUEVE EL STOCK SEGUN EL CAMBIO DE ESTADO DE UNA LINEA DE PEDIDO
+    void applyStatusChange(Long productId, int quantity, OrderStatus previous, OrderStatus next);
+
+    Response getInventory(Long productId);
+
+    Response updateStock(Long productId, int stock);
+
+}
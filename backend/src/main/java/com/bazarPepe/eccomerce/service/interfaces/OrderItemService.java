@@ -1,18 +1,46 @@
 package com.bazarPepe.eccomerce.service.interfaces;
 
+import com.bazarPepe.eccomerce.dto.OrderItemStatusBulkRequest;
 import com.bazarPepe.eccomerce.dto.OrderRequest;
 import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.entity.User;
 import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.intake.QueuedOrder;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface OrderItemService {
 
     Response placeOrder(OrderRequest orderRequest);
 
+    //NUCLEO DEL PEDIDO PARA UN USUARIO YA RESUELTO, SIN DEPENDER DEL CONTEXTO DE SEGURIDAD DEL HILO
+    Response placeOrder(OrderRequest orderRequest, User user);
+
+    //VARIOS PEDIDOS EN UNA SOLA TRANSACCION; DEVUELVE UNA RESPUESTA POR PEDIDO, EN EL MISMO ORDEN.
+    //UN PEDIDO SIN STOCK O CON PRODUCTOS QUE NO EXISTEN NO IMPIDE GUARDAR LOS DEMAS
+    List<Response> placeOrders(List<QueuedOrder> queuedOrders);
+
+    //LO QUE SE PUEDE COMPROBAR ANTES DE ACEPTAR UN PEDIDO EN LA COLA
+    void validateOrder(OrderRequest orderRequest);
+
     Response updateOrderItemStatus(Long orderItemID, String status);
 
+    //CAMBIO DE ESTADO DE MUCHAS LINEAS POR LOTES, CON UN UPDATE POR LOTE Y ESTADO DE ORIGEN. SOLO SE APLICAN LOS CAMBIOS
+    //PERMITIDOS (OrderStatus.canMoveTo) Y SE DEVUELVE EL RESULTADO DE CADA LINEA
+    Response updateOrderItemsStatus(OrderItemStatusBulkRequest request);
+
+    //PAGINACION POR OFFSET CON COUNT(*) EXACTO, PARA LOS CLIENTES QUE SIGUEN PIDIENDO page
     Response filterOrderItems(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId, Pageable pageable);
 
+    //PAGINACION POR CURSOR, SIN COUNT(*). CON includeTotal SE ANADE EL TOTAL: ESTIMADO SI SOLO SE FILTRA POR ESTADO,
+    //EXACTO (Y CARO) SI HAY FECHAS O ID
+    Response filterOrderItems(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId,
+                              String cursor, int size, boolean includeTotal);
+
+    //MISMO FILTRO SIN PAGINAR, ESCRITO EN STREAMING PARA EXPORTAR RESULTADOS GRANDES
+    StreamingResponseBody exportOrderItems(OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate, Long itemId);
+
 }
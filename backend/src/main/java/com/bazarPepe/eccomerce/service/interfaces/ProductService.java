@@ -1,9 +1,13 @@
 package com.bazarPepe.eccomerce.service.interfaces;
 
 import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.storage.ImageVariant;
+import com.bazarPepe.eccomerce.storage.ProductImage;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface ProductService {
 
@@ -20,4 +24,21 @@ public interface ProductService {
     Response getProductsByCategory(Long categoryId);
 
     Response searchProduct(String searchValue);
+
+    //LISTADOS PAGINADOS POR CURSOR, cursor NULL PIDE LA PRIMERA PAGINA ORDENADA POR sort
+    Response getAllProduct(String cursor, int size, String sort);
+
+    Response getProductsByCategory(Long categoryId, String cursor, int size, String sort);
+
+    Response searchProduct(String searchValue, String cursor, int size, String sort);
+
+    //FILTRO DEL CATALOGO POR CATEGORIAS, TRAMOS DE PRECIO Y TEXTO: UNA PAGINA POR CURSOR MAS LOS RECUENTOS DE CADA FACETA
+    Response filterProducts(List<Long> categoryIds, List<String> priceBuckets, String text, String cursor, int size, String sort);
+
+    //AUTOCOMPLETADO: SOLO ID, ETIQUETA Y TIPO DE LOS PRODUCTOS Y CATEGORIAS MAS POPULARES QUE EMPIEZAN POR prefix
+    Response suggest(String prefix, int limit);
+
+    ProductImage getProductImage(Long productId, ImageVariant variant);
+
+    Response updateProductImage(Long productId, InputStream imageData);
 }
@@ -0,0 +1,19 @@
+package com.bazarPepe.eccomerce.service.interfaces;
+
+import com.bazarPepe.eccomerce.dto.Response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesService {
+
+    //VENTAS POR DIA Y ESTADO DE UN PRODUCTO, DE UNA CATEGORIA O DE TODA LA TIENDA (SIN NINGUNO DE LOS DOS)
+    Response getDailySales(LocalDate startDate, LocalDate endDate, Long productId, Long categoryId);
+
+    //PRODUCTOS O CATEGORIAS CON MAS INGRESOS DEL RANGO. SIN statuses CUENTA TODO MENOS LO CANCELADO Y DEVUELTO
+    Response getTopSales(LocalDate startDate, LocalDate endDate, String dimension, List<String> statuses, int limit);
+
+    //RECALCULA LOS ACUMULADOS DEL RANGO DESDE LOS PEDIDOS
+    Response reconcileSales(LocalDate startDate, LocalDate endDate);
+
+}
@@ -4,13 +4,15 @@ import com.bazarPepe.eccomerce.dto.LoginRequest;
 import com.bazarPepe.eccomerce.dto.Response;
 import com.bazarPepe.eccomerce.dto.UserDto;
 import com.bazarPepe.eccomerce.entity.User;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface UserService {
     Response registerUser(UserDto registrationRequest);
 
     Response loginUser(LoginRequest loginRequest);
 
-    Response getAllUsers();
+    //LISTADO COMPLETO DE USUARIOS ESCRITO EN STREAMING, SIN CARGARLO ENTERO EN MEMORIA
+    StreamingResponseBody getAllUsers();
 
     User getLoginUser();
 
@@ -35,6 +35,12 @@ public class OrderItemSpecification {
                 itemId!=null?criteriaBuilder.equal(root.get("id"),itemId):null);
     }
 
+    //GENERAR ESPECIFICACION PARA FILTRAR LOS ORDERITEMS DE UN USUARIO
+    public static Specification<OrderItem>hasUserId(Long userId){
+        return ((root, query, criteriaBuilder) ->
+                userId!=null?criteriaBuilder.equal(root.get("user").get("id"),userId):null);
+    }
+
 
 
 }
@@ -0,0 +1,66 @@
+package com.bazarPepe.eccomerce.specification;
+
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.search.PriceBucket;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ProductSpecification {
+
+    //ESPECIFICACION PARA FILTRAR PRODUCTOS POR CATEGORIA
+    public static Specification<Product>hasCategoryId(Long categoryId){
+        return ((root, query, criteriaBuilder) ->
+                categoryId!=null?criteriaBuilder.equal(root.get("category").get("id"),categoryId):null);
+    }
+
+    //ESPECIFICACION PARA BUSCAR EN EL NOMBRE O LA DESCRIPCION
+    public static Specification<Product>nameOrDescriptionContains(String searchValue){
+        return ((root, query, criteriaBuilder) -> {
+            if (searchValue==null||searchValue.isBlank()){
+                return null;
+            }
+            String pattern="%"+searchValue+"%";
+            return criteriaBuilder.or(
+                    criteriaBuilder.like(root.get("name"),pattern),
+                    criteriaBuilder.like(root.get("description"),pattern));
+        });
+    }
+
+    //ESPECIFICACION PARA FILTRAR POR VARIAS CATEGORIAS A LA VEZ (CUALQUIERA DE ELLAS)
+    public static Specification<Product>categoryIdIn(Collection<Long> categoryIds){
+        return ((root, query, criteriaBuilder) ->
+                categoryIds!=null&&!categoryIds.isEmpty()?root.get("category").get("id").in(categoryIds):null);
+    }
+
+    //ESPECIFICACION PARA FILTRAR POR TRAMOS DE PRECIO (CUALQUIERA DE ELLOS)
+    public static Specification<Product>priceInBuckets(Collection<PriceBucket> priceBuckets){
+        return ((root, query, criteriaBuilder) -> {
+            if (priceBuckets==null||priceBuckets.isEmpty()){
+                return null;
+            }
+            List<Predicate>ranges=new ArrayList<>();
+            for (PriceBucket bucket:priceBuckets){
+                List<Predicate>bounds=new ArrayList<>();
+                if (bucket.min()!=null){
+                    bounds.add(criteriaBuilder.greaterThanOrEqualTo(root.<BigDecimal>get("price"),bucket.min()));
+                }
+                if (bucket.max()!=null){
+                    bounds.add(criteriaBuilder.lessThan(root.<BigDecimal>get("price"),bucket.max()));
+                }
+                ranges.add(criteriaBuilder.and(bounds.toArray(new Predicate[0])));
+            }
+            return criteriaBuilder.or(ranges.toArray(new Predicate[0]));
+        });
+    }
+
+    //ESPECIFICACION PARA RESTRINGIR A UN CONJUNTO DE IDS (RESULTADOS DEL INDICE DE BUSQUEDA)
+    public static Specification<Product>idIn(Collection<Long> productIds){
+        return ((root, query, criteriaBuilder) -> root.get("id").in(productIds));
+    }
+
+}
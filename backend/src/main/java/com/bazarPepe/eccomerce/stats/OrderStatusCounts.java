@@ -0,0 +1,110 @@
+package com.bazarPepe.eccomerce.stats;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.projection.OrderStatusCount;
+import com.bazarPepe.eccomerce.repository.OrderItemRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//NUMERO DE ORDER ITEMS POR ESTADO, EN MEMORIA, PARA DAR EL TOTAL DEL PANEL DE PEDIDOS SIN UN COUNT(*) POR PETICION.
+//SE CARGA CON UN GROUP BY AL ARRANCAR Y CADA order.counts.refresh-interval; ENTRE MEDIAS SE AJUSTA CON LOS PEDIDOS
+//Y CAMBIOS DE ESTADO DE ESTE NODO. ES UNA ESTIMACION: LOS CAMBIOS DE OTROS NODOS SOLO APARECEN EN LA SIGUIENTE CARGA
+@Component
+@Slf4j
+public class OrderStatusCounts {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final OrderItemRepository orderItemRepository;
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    private volatile boolean loaded;
+
+    public OrderStatusCounts(OrderItemRepository orderItemRepository, MeterRegistry meterRegistry) {
+        this.orderItemRepository = orderItemRepository;
+        for (OrderStatus status : STATUSES) {
+            Gauge.builder("order.items", counts, values -> values.get(status.ordinal()))
+                    .description("Order items por estado, segun los recuentos en memoria")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    //CON status NULL DEVUELVE EL TOTAL DE TODOS LOS ESTADOS; VACIO MIENTRAS NO SE HAYA CARGADO
+    public OptionalLong estimate(OrderStatus status) {
+        if (!loaded) {
+            return OptionalLong.empty();
+        }
+        if (status != null) {
+            return OptionalLong.of(Math.max(0, counts.get(status.ordinal())));
+        }
+        long total = 0;
+        for (int i = 0; i < STATUSES.length; i++) {
+            total += Math.max(0, counts.get(i));
+        }
+        return OptionalLong.of(total);
+    }
+
+    //LINEAS NUEVAS, SIEMPRE EN PENDING. SE APLICA AL CONFIRMAR LA TRANSACCION ACTUAL, NUNCA SI SE DESHACE
+    public void added(int orderItems) {
+        afterCommit(() -> counts.addAndGet(OrderStatus.PENDING.ordinal(), orderItems));
+    }
+
+    public void moved(OrderStatus from, OrderStatus to) {
+        moved(from, to, 1);
+    }
+
+    public void moved(OrderStatus from, OrderStatus to, int orderItems) {
+        if (from == to || orderItems == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            if (from != null) {
+                counts.addAndGet(from.ordinal(), -orderItems);
+            }
+            counts.addAndGet(to.ordinal(), orderItems);
+        });
+    }
+
+    //CORRIGE LA DERIVA DE LOS AJUSTES Y RECOGE LOS CAMBIOS DE OTROS NODOS
+    @Scheduled(fixedDelayString = "${order.counts.refresh-interval:5m}")
+    public void refresh() {
+        long[] fresh = new long[STATUSES.length];
+        try {
+            for (OrderStatusCount row : orderItemRepository.countByStatus()) {
+                if (row.status() != null) {
+                    fresh[row.status().ordinal()] = row.count();
+                }
+            }
+        } catch (RuntimeException e) {
+            //SE SIGUEN USANDO LOS RECUENTOS ANTERIORES HASTA LA PROXIMA CARGA
+            log.warn("No se han podido recalcular los recuentos de pedidos por estado", e);
+            return;
+        }
+        for (int i = 0; i < fresh.length; i++) {
+            counts.set(i, fresh[i]);
+        }
+        loaded = true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
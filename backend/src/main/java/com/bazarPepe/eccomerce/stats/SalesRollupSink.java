@@ -0,0 +1,29 @@
+package com.bazarPepe.eccomerce.stats;
+
+import com.bazarPepe.eccomerce.outbox.OutboxMessage;
+import com.bazarPepe.eccomerce.outbox.OutboxSink;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//LOS ACUMULADOS DE VENTAS SE MANTIENEN COMO UN SINK MAS DEL OUTBOX: SI NO SE PUEDEN ESCRIBIR, EL LOTE SE REPITE
+@Component
+@ConditionalOnProperty(name = "sales.rollup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SalesRollupSink implements OutboxSink {
+
+    private final SalesRollups salesRollups;
+
+    @Override
+    public String name() {
+        return "sales-rollups";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        salesRollups.apply(messages);
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.bazarPepe.eccomerce.stats;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.bazarPepe.eccomerce.enums.SalesDimension;
+import com.bazarPepe.eccomerce.outbox.OutboxMessage;
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import com.bazarPepe.eccomerce.repository.OutboxEventRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//ACUMULADOS DE VENTAS POR DIA Y PRODUCTO, CATEGORIA Y TOTAL (ALL), SEPARADOS POR ESTADO. NO SE TOCAN EN LA TRANSACCION
+//DEL PEDIDO (SERIAN FILAS CALIENTES): LOS SUMA EL RELAY DEL OUTBOX A PARTIR DE ORDER_PLACED Y ORDER_ITEM_STATUS_CHANGED,
+//UN LOTE POR TRANSACCION. CADA EVENTO SUMADO SE APUNTA EN sales_rollup_applied_events EN ESA MISMA TRANSACCION: LOS
+//REPETIDOS DE LA ENTREGA AL MENOS UNA VEZ SE DESCARTAN UNO A UNO. NO VALE CON EL ULTIMO ID SUMADO, PORQUE LOS IDS SE
+//ASIGNAN AL INSERTAR Y NO AL CONFIRMAR: UNA TRANSACCION LENTA PUEDE CONFIRMAR UN EVENTO CON UN ID MENOR QUE OTRO YA
+//SUMADO. EL BLOQUEO (FOR UPDATE) DE LA FILA DE sales_rollup_progress SERIALIZA LOS LOTES CON LA RECONCILIACION
+@Component
+@Slf4j
+public class SalesRollups {
+
+    private static final Set<OutboxEventType> SALES_EVENTS =
+            EnumSet.of(OutboxEventType.ORDER_PLACED, OutboxEventType.ORDER_ITEM_STATUS_CHANGED);
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final int WRITE_BATCH_SIZE = 500;
+    private static final int PRUNE_CHUNK = 1000;
+
+    private static final String LOCK_PROGRESS =
+            "select id from sales_rollup_progress where id=1 for update";
+    private static final String INIT_PROGRESS =
+            "insert ignore into sales_rollup_progress (id) values (1)";
+    private static final String FIND_APPLIED =
+            "select event_id from sales_rollup_applied_events where event_id in (%s)";
+    private static final String MARK_APPLIED =
+            "insert into sales_rollup_applied_events (event_id) values (?)";
+    //UN EVENTO PUBLICADO YA NO SE REPITE, Y UNO BORRADO DEL OUTBOX TAMPOCO
+    private static final String PRUNE_APPLIED =
+            "delete from sales_rollup_applied_events " +
+            "where event_id not in (select id from outbox_events where published_at is null) limit ?";
+    private static final String ADD =
+            "insert into sales_rollups (sales_day,dimension,dimension_id,status,units,revenue,item_count) values (?,?,?,?,?,?,?) " +
+            "on duplicate key update units=units+values(units),revenue=revenue+values(revenue),item_count=item_count+values(item_count)";
+    private static final String DELETE_DAYS =
+            "delete from sales_rollups where sales_day between ? and ?";
+    //UNA SOLA PASADA POR order_items: CADA FILA (DIA, PRODUCTO, ESTADO) SE REPARTE DESPUES EN LAS TRES DIMENSIONES
+    private static final String SUM_ORDER_ITEMS =
+            "select date(oi.created_at) as sales_day,oi.product_id,p.category_id,oi.status," +
+            "sum(oi.quantity) as units,coalesce(sum(oi.price),0) as revenue,count(*) as item_count " +
+            "from order_items oi left join products p on p.id=oi.product_id " +
+            "where oi.created_at>=? and oi.created_at<? and oi.status is not null " +
+            "group by date(oi.created_at),oi.product_id,p.category_id,oi.status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean relayNode;
+    private final int reconcileDays;
+
+    public SalesRollups(JdbcTemplate jdbcTemplate,
+                        ProductRepository productRepository,
+                        OutboxEventRepository outboxEventRepository,
+                        ObjectMapper objectMapper,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${sales.rollup.enabled:true}") boolean enabled,
+                        @Value("${outbox.relay.enabled:true}") boolean relayEnabled,
+                        @Value("${sales.rollup.reconcile-days:7}") int reconcileDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        //LA RECONCILIACION LEE order_items Y LOS EVENTOS PENDIENTES DE UNA MISMA FOTO
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        //LA RECONCILIACION Y LA LIMPIEZA PROGRAMADAS SOLO EN EL NODO DEL RELAY, QUE ES EL QUE MANTIENE LOS ACUMULADOS
+        this.relayNode = enabled && relayEnabled;
+        this.reconcileDays = reconcileDays;
+    }
+
+    //SUMA UN LOTE DEL RELAY. SI FALLA NO SE SUMA NI SE APUNTA NADA Y EL RELAY LO REPITE ENTERO
+    public void apply(List<OutboxMessage> messages) {
+        List<OutboxMessage> sales = messages.stream()
+                .filter(message -> SALES_EVENTS.contains(message.eventType()))
+                .toList();
+        if (sales.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            lockProgress();
+            Set<Long> applied = findApplied(sales.stream().map(OutboxMessage::id).toList());
+            List<OutboxMessage> pending = sales.stream()
+                    .filter(message -> !applied.contains(message.id()))
+                    .toList();
+            if (pending.isEmpty()) {
+                return;
+            }
+            Deltas deltas = new Deltas();
+            deltas.addAll(readChanges(pending), 1);
+            write(deltas);
+            jdbcTemplate.batchUpdate(MARK_APPLIED, pending, WRITE_BATCH_SIZE,
+                    (statement, message) -> statement.setLong(1, message.id()));
+        });
+    }
+
+    //RECALCULA LOS DIAS from..to (AMBOS INCLUIDOS) DESDE order_items Y DEVUELVE LAS FILAS ESCRITAS.
+    //LOS EVENTOS YA CONFIRMADOS QUE EL RELAY AUN NO HA SUMADO ESTAN EN LA FOTO DE order_items: SE LES RESTA SU PARTE
+    //PARA QUE, CUANDO LLEGUEN, EL RESULTADO SEA EXACTO Y NO SE CUENTEN DOS VECES
+    public int reconcile(LocalDate from, LocalDate to) {
+        Integer written = transactionTemplate.execute(status -> {
+            lockProgress();
+            Deltas deltas = new Deltas();
+            jdbcTemplate.query(SUM_ORDER_ITEMS, resultSet -> {
+                deltas.add(resultSet.getDate("sales_day").toLocalDate(),
+                        resultSet.getObject("product_id", Long.class),
+                        resultSet.getObject("category_id", Long.class),
+                        STATUSES[resultSet.getInt("status")],
+                        resultSet.getLong("units"),
+                        resultSet.getBigDecimal("revenue"),
+                        resultSet.getLong("item_count"));
+            }, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+
+            //UN EVENTO SE CREA DESPUES QUE SU LINEA: LOS ANTERIORES A from NO TOCAN ESTOS DIAS
+            List<OutboxMessage> unapplied = outboxEventRepository
+                    .findUnpublishedNotInSalesRollups(from.atStartOfDay(), SALES_EVENTS).stream()
+                    .map(OutboxMessage::from)
+                    .toList();
+            deltas.addAll(readChanges(unapplied).stream()
+                    .filter(change -> !change.day().isBefore(from) && !change.day().isAfter(to))
+                    .toList(), -1);
+
+            jdbcTemplate.update(DELETE_DAYS, Date.valueOf(from), Date.valueOf(to));
+            return write(deltas);
+        });
+        return written == null ? 0 : written;
+    }
+
+    @Scheduled(cron = "${sales.rollup.reconcile-cron:0 30 3 * * *}")
+    public void reconcileRecentDays() {
+        if (!relayNode) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        try {
+            int rows = reconcile(today.minusDays(reconcileDays - 1L), today);
+            log.info("Acumulados de ventas de los ultimos {} dias reconciliados ({} filas)", reconcileDays, rows);
+        } catch (RuntimeException e) {
+            log.warn("No se han podido reconciliar los acumulados de ventas", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval:1h}")
+    public void pruneApplied() {
+        if (!relayNode) {
+            return;
+        }
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PRUNE_APPLIED, PRUNE_CHUNK);
+        } while (deleted == PRUNE_CHUNK);
+    }
+
+    private void lockProgress() {
+        jdbcTemplate.update(INIT_PROGRESS);
+        jdbcTemplate.queryForObject(LOCK_PROGRESS, Integer.class);
+    }
+
+    //LOS DEL LOTE QUE YA SE HAN SUMADO. SE LEEN CON EL BLOQUEO TOMADO: NINGUN OTRO LOTE LOS ESTA APUNTANDO A LA VEZ
+    private Set<Long> findApplied(List<Long> eventIds) {
+        String placeholders = String.join(",", Collections.nCopies(eventIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_APPLIED.formatted(placeholders), Long.class, eventIds.toArray()));
+    }
+
+    //CAMBIOS DE VENTAS DE LOS EVENTOS, CON UN PRODUCTO POR LINEA. LA CATEGORIA SE RESUELVE DESPUES PARA TODO EL LOTE
+    private List<SaleChange> readChanges(List<OutboxMessage> messages) {
+        List<SaleChange> changes = new ArrayList<>();
+        for (OutboxMessage message : messages) {
+            if (!SALES_EVENTS.contains(message.eventType())) {
+                continue;
+            }
+            JsonNode payload;
+            try {
+                payload = objectMapper.readTree(message.payload());
+            } catch (JsonProcessingException e) {
+                //NO SE BLOQUEA EL RELAY POR UN EVENTO ILEGIBLE: LA RECONCILIACION CORRIGE SU DIA
+                log.warn("Evento {} ilegible, no se suma a los acumulados de ventas", message.id(), e);
+                continue;
+            }
+            LocalDate messageDay = message.createdAt().toLocalDate();
+            if (message.eventType() == OutboxEventType.ORDER_PLACED) {
+                for (JsonNode item : payload.path("items")) {
+                    changes.add(new SaleChange(day(item, messageDay), productId(item), OrderStatus.PENDING,
+                            item.path("quantity").asLong(), revenue(item), 1));
+                }
+            } else {
+                LocalDate day = day(payload, messageDay);
+                Long productId = productId(payload);
+                long quantity = payload.path("quantity").asLong();
+                BigDecimal revenue = revenue(payload);
+                OrderStatus previous = status(payload.path("previousStatus"));
+                OrderStatus next = status(payload.path("status"));
+                if (previous != null) {
+                    changes.add(new SaleChange(day, productId, previous, -quantity, revenue.negate(), -1));
+                }
+                if (next != null) {
+                    changes.add(new SaleChange(day, productId, next, quantity, revenue, 1));
+                }
+            }
+        }
+        return changes;
+    }
+
+    //ESCRIBE LAS FILAS POR LOTES; CADA UNA SE SUMA A LA QUE YA HUBIERA
+    private int write(Deltas deltas) {
+        List<Map.Entry<RollupKey, Totals>> rows = deltas.totals.entrySet().stream()
+                .filter(entry -> !entry.getValue().isZero())
+                .toList();
+        jdbcTemplate.batchUpdate(ADD, rows, WRITE_BATCH_SIZE, (statement, row) -> {
+            RollupKey key = row.getKey();
+            Totals totals = row.getValue();
+            statement.setDate(1, Date.valueOf(key.day()));
+            statement.setString(2, key.dimension().name());
+            statement.setLong(3, key.dimensionId());
+            statement.setInt(4, key.status().ordinal());
+            statement.setLong(5, totals.units);
+            statement.setBigDecimal(6, totals.revenue);
+            statement.setLong(7, totals.itemCount);
+        });
+        return rows.size();
+    }
+
+    private static LocalDate day(JsonNode node, LocalDate fallback) {
+        //LOS EVENTOS ANTERIORES A LOS ACUMULADOS NO TRAEN EL DIA: SE USA EL DEL EVENTO
+        return node.hasNonNull("day") ? LocalDate.parse(node.get("day").asText()) : fallback;
+    }
+
+    private static Long productId(JsonNode node) {
+        return node.hasNonNull("productId") ? node.get("productId").asLong() : null;
+    }
+
+    private static BigDecimal revenue(JsonNode node) {
+        return node.hasNonNull("price") ? node.get("price").decimalValue() : BigDecimal.ZERO;
+    }
+
+    private static OrderStatus status(JsonNode node) {
+        return node.isTextual() ? OrderStatus.valueOf(node.asText()) : null;
+    }
+
+    private record SaleChange(LocalDate day, Long productId, OrderStatus status, long units, BigDecimal revenue,
+                              long itemCount) {
+    }
+
+    private record RollupKey(LocalDate day, SalesDimension dimension, long dimensionId, OrderStatus status) {
+    }
+
+    private static final class Totals {
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long itemCount;
+
+        private boolean isZero() {
+            return units == 0 && itemCount == 0 && revenue.signum() == 0;
+        }
+    }
+
+    //SUMAS EN MEMORIA ANTES DE ESCRIBIR: UN LOTE DE MIL LINEAS DEL MISMO PRODUCTO Y DIA ES UNA SOLA FILA POR DIMENSION
+    private final class Deltas {
+
+        private final Map<RollupKey, Totals> totals = new HashMap<>();
+
+        private void addAll(List<SaleChange> changes, int sign) {
+            Set<Long> productIds = changes.stream()
+                    .map(SaleChange::productId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, Long> categories = categoriesOf(productIds);
+            for (SaleChange change : changes) {
+                add(change.day(), change.productId(), categories.get(change.productId()), change.status(),
+                        sign * change.units(), change.revenue().multiply(BigDecimal.valueOf(sign)), sign * change.itemCount());
+            }
+        }
+
+        private void add(LocalDate day, Long productId, Long categoryId, OrderStatus status, long units,
+                         BigDecimal revenue, long itemCount) {
+            add(new RollupKey(day, SalesDimension.ALL, 0L, status), units, revenue, itemCount);
+            if (productId != null) {
+                add(new RollupKey(day, SalesDimension.PRODUCT, productId, status), units, revenue, itemCount);
+            }
+            if (categoryId != null) {
+                add(new RollupKey(day, SalesDimension.CATEGORY, categoryId, status), units, revenue, itemCount);
+            }
+        }
+
+        private void add(RollupKey key, long units, BigDecimal revenue, long itemCount) {
+            Totals row = totals.computeIfAbsent(key, k -> new Totals());
+            row.units += units;
+            row.revenue = row.revenue.add(revenue);
+            row.itemCount += itemCount;
+        }
+
+        //LA CATEGORIA ACTUAL DEL PRODUCTO, IGUAL QUE EN LA RECONCILIACION; UN PRODUCTO BORRADO SOLO CUENTA EN ALL
+        private Map<Long, Long> categoriesOf(Collection<Long> productIds) {
+            if (productIds.isEmpty()) {
+                return Map.of();
+            }
+            return productRepository.findSummariesByIdIn(productIds).stream()
+                    .filter(product -> product.categoryId() != null)
+                    .collect(Collectors.toMap(ProductSummary::id, ProductSummary::categoryId));
+        }
+    }
+
+}
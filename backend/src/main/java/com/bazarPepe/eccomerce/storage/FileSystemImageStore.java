@@ -0,0 +1,117 @@
+package com.bazarPepe.eccomerce.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemImageStore implements ImageStore {
+
+    private final Path root;
+    private final Path tempDir;
+    private final long maxBytes;
+
+    public FileSystemImageStore(@Value("${image.storage.filesystem.root:./data/images}") String root,
+                                @Value("${image.upload.max-bytes:10485760}") long maxBytes) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tempDir = this.root.resolve("tmp");
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public StoredImage save(InputStream data, Consumer<String> beforeStore) throws IOException {
+        ImageSpooler.SpooledImage spooled = ImageSpooler.spool(data, tempDir, maxBytes);
+        Path target = pathFor(spooled.hash());
+        try {
+            beforeStore.accept(spooled.hash());
+            if (Files.exists(target)) {
+                //MISMO CONTENIDO YA ALMACENADO, SE DESCARTA LA COPIA
+                Files.delete(spooled.file());
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(spooled.file(), target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (FileAlreadyExistsException e) {
+            //OTRA SUBIDA IDENTICA HA GANADO LA CARRERA
+            Files.deleteIfExists(spooled.file());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(spooled.file());
+            throw e;
+        }
+        return new StoredImage(spooled.hash(), spooled.size(), spooled.contentType());
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        Path path = pathFor(hash);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.isRegularFile(pathFor(hash));
+    }
+
+    @Override
+    public void delete(String hash) {
+        try {
+            Files.deleteIfExists(pathFor(hash));
+            for (ImageVariant variant : ImageVariant.values()) {
+                Files.deleteIfExists(variantPathFor(hash, variant));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se ha podido borrar la imagen " + hash, e);
+        }
+    }
+
+    @Override
+    public void saveVariant(String hash, ImageVariant variant, byte[] data) throws IOException {
+        Path target = variantPathFor(hash, variant);
+        Files.createDirectories(tempDir);
+        Path tempFile = Files.createTempFile(tempDir, "variant-", ".tmp");
+        try {
+            Files.write(tempFile, data);
+            Files.createDirectories(target.getParent());
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadVariant(String hash, ImageVariant variant) {
+        Path path = variantPathFor(hash, variant);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean variantExists(String hash, ImageVariant variant) {
+        return Files.isRegularFile(variantPathFor(hash, variant));
+    }
+
+    //REPARTE LOS FICHEROS EN SUBDIRECTORIOS PARA NO TENER MILES EN UNA SOLA CARPETA: ab/cd/abcd...
+    private Path pathFor(String hash) {
+        ImageHashes.requireValid(hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path variantPathFor(String hash, ImageVariant variant) {
+        Path original = pathFor(hash);
+        return original.resolveSibling(hash + "-" + variant.key() + ".jpg");
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.bazarPepe.eccomerce.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//GENERA EN SEGUNDO PLANO LAS VARIANTES REDIMENSIONADAS (THUMB, CARD, DETAIL) DE CADA IMAGEN
+@Component
+@Slf4j
+public class ImageDerivativeService {
+
+    //IMAGENES MAS GRANDES SE IGNORAN PARA NO AGOTAR LA MEMORIA AL DECODIFICAR
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Timer generationTimer;
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    public ImageDerivativeService(ImageStore imageStore,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${image.derivatives.threads:2}") int threads,
+                                  @Value("${image.derivatives.queue-capacity:500}") int queueCapacity) {
+        this.imageStore = imageStore;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.generationTimer = Timer.builder("image.derivatives.duration")
+                .description("Tiempo en generar todas las variantes de una imagen")
+                .register(meterRegistry);
+        this.generatedCounter = Counter.builder("image.derivatives.generated")
+                .description("Variantes generadas")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("image.derivatives.failed")
+                .description("Imagenes cuyas variantes no se han podido generar")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("image.derivatives.rejected")
+                .description("Trabajos descartados por tener la cola llena")
+                .register(meterRegistry);
+        Gauge.builder("image.derivatives.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Imagenes esperando a generar sus variantes")
+                .register(meterRegistry);
+        Gauge.builder("image.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Imagenes procesandose en este momento")
+                .register(meterRegistry);
+    }
+
+    //ENCOLA LA GENERACION DE VARIANTES, SI YA ESTA PENDIENTE O LA COLA ESTA LLENA NO HACE NADA
+    public void scheduleDerivatives(String hash) {
+        if (hash == null || !pending.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generationTimer.record(() -> generateDerivatives(hash));
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //SE VOLVERA A INTENTAR LA PROXIMA VEZ QUE SE PIDA LA VARIANTE
+            pending.remove(hash);
+            rejectedCounter.increment();
+            log.warn("Cola de variantes llena, se descarta la imagen {}", hash);
+        }
+    }
+
+    public boolean isPending(String hash) {
+        return pending.contains(hash);
+    }
+
+    private void generateDerivatives(String hash) {
+        try {
+            Optional<Resource> original = imageStore.load(hash);
+            if (original.isEmpty()) {
+                return;
+            }
+            BufferedImage source = readImage(original.get());
+            if (source == null) {
+                failedCounter.increment();
+                return;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (!imageStore.variantExists(hash, variant)) {
+                    imageStore.saveVariant(hash, variant, encodeJpeg(resize(source, variant.getMaxSize())));
+                    generatedCounter.increment();
+                }
+            }
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Error generando las variantes de la imagen {}", hash, e);
+        }
+    }
+
+    //COMPRUEBA LAS DIMENSIONES ANTES DE DECODIFICAR LA IMAGEN COMPLETA
+    private BufferedImage readImage(Resource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream();
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                log.warn("Formato de imagen no soportado: {}", resource.getDescription());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    log.warn("Imagen demasiado grande para generar variantes: {}", resource.getDescription());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    //REDIMENSIONA MANTENIENDO LA PROPORCION, NUNCA AMPLIA. PINTAR SOBRE UNA IMAGEN NUEVA DESCARTA LOS METADATOS (EXIF, GPS...)
+    private BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.bazarPepe.eccomerce.storage;
+
+import java.util.regex.Pattern;
+
+final class ImageHashes {
+
+    private static final Pattern SHA_256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private ImageHashes() {
+    }
+
+    //EVITA QUE UN HASH MANIPULADO SE CONVIERTA EN UNA RUTA O CLAVE ARBITRARIA
+    static void requireValid(String hash) {
+        if (hash == null || !SHA_256_HEX.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Hash de imagen no valido: " + hash);
+        }
+    }
+
+}
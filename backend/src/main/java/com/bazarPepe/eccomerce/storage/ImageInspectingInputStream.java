@@ -0,0 +1,104 @@
+package com.bazarPepe.eccomerce.storage;
+
+import com.bazarPepe.eccomerce.exception.InvalidImageException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+//CUENTA LOS BYTES LEIDOS, CORTA LA SUBIDA AL PASAR DEL LIMITE Y GUARDA LA CABECERA PARA DETECTAR EL FORMATO
+class ImageInspectingInputStream extends FilterInputStream {
+
+    private static final int HEADER_SIZE = 16;
+
+    private final long maxBytes;
+    private final byte[] header = new byte[HEADER_SIZE];
+    private int headerLength;
+    private long count;
+
+    ImageInspectingInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value != -1) {
+            if (headerLength < HEADER_SIZE) {
+                header[headerLength++] = (byte) value;
+            }
+            advance(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            if (headerLength < HEADER_SIZE) {
+                int copied = Math.min(read, HEADER_SIZE - headerLength);
+                System.arraycopy(buffer, offset, header, headerLength, copied);
+                headerLength += copied;
+            }
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        //SALTARSE BYTES DEJARIA EL HASH Y LA CABECERA INCOMPLETOS
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(int read) {
+        count += read;
+        if (count > maxBytes) {
+            throw new InvalidImageException("La imagen supera el tamaño maximo de " + maxBytes + " bytes");
+        }
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    //DEVUELVE EL CONTENT TYPE SEGUN LOS MAGIC NUMBERS, O NULL SI NO ES UN FORMATO DE IMAGEN ADMITIDO
+    String sniffContentType() {
+        byte[] bytes = Arrays.copyOf(header, headerLength);
+        if (startsWith(bytes, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(bytes, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(bytes, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (bytes.length >= 12 && startsWith(bytes, 'R', 'I', 'F', 'F')
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
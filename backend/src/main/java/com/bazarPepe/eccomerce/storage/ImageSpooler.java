@@ -0,0 +1,63 @@
+package com.bazarPepe.eccomerce.storage;
+
+import com.bazarPepe.eccomerce.exception.InvalidImageException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+//VUELCA UN STREAM A UN FICHERO TEMPORAL CALCULANDO HASH, TAMAÑO Y FORMATO POR EL CAMINO.
+//SOLO USA UN BUFFER FIJO, LA MEMORIA NO DEPENDE DEL TAMAÑO DE LA IMAGEN
+final class ImageSpooler {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ImageSpooler() {
+    }
+
+    static SpooledImage spool(InputStream data, Path tempDir, long maxBytes) throws IOException {
+        Files.createDirectories(tempDir);
+        Path tempFile = Files.createTempFile(tempDir, "upload-", ".tmp");
+        try {
+            ImageInspectingInputStream inspected = new ImageInspectingInputStream(data, maxBytes);
+            DigestInputStream digestStream = new DigestInputStream(inspected, sha256());
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = digestStream.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (inspected.getCount() == 0) {
+                throw new InvalidImageException("La imagen esta vacia");
+            }
+            String contentType = inspected.sniffContentType();
+            if (contentType == null) {
+                throw new InvalidImageException("El fichero no es una imagen JPEG, PNG, GIF o WEBP");
+            }
+            String hash = HexFormat.of().formatHex(digestStream.getMessageDigest().digest());
+            return new SpooledImage(tempFile, hash, inspected.getCount(), contentType);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    record SpooledImage(Path file, String hash, long size, String contentType) {
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.bazarPepe.eccomerce.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+//ALMACEN DE IMAGENES DIRECCIONADO POR CONTENIDO: LA CLAVE DE CADA IMAGEN ES EL SHA-256 DE SUS BYTES
+public interface ImageStore {
+
+    //GUARDA LA IMAGEN LEYENDO EL STREAM UNA SOLA VEZ Y DEVUELVE SU HASH Y SU FORMATO REAL.
+    //SI YA EXISTIA UNA IDENTICA NO SE VUELVE A ESCRIBIR. LANZA INVALIDIMAGEEXCEPTION SI NO ES UNA IMAGEN O ES DEMASIADO GRANDE
+    default StoredImage save(InputStream data) throws IOException {
+        return save(data, hash -> {
+        });
+    }
+
+    //IGUAL, PERO LLAMA A beforeStore CON EL HASH ANTES DE MIRAR SI YA EXISTE: QUIEN VA A USAR LA IMAGEN LA QUITA AHI
+    //DEL BARRIDO DE IMAGENES SIN USO, Y ASI NUNCA SE REAPROVECHA UNA COPIA QUE SE ESTA BORRANDO (VER ImageSweeper)
+    StoredImage save(InputStream data, Consumer<String> beforeStore) throws IOException;
+
+    Optional<Resource> load(String hash);
+
+    boolean exists(String hash);
+
+    //BORRA LA IMAGEN Y SUS VARIANTES
+    void delete(String hash);
+
+    //LAS VARIANTES SE GUARDAN JUNTO A LA ORIGINAL, SIEMPRE EN JPEG
+    void saveVariant(String hash, ImageVariant variant, byte[] data) throws IOException;
+
+    Optional<Resource> loadVariant(String hash, ImageVariant variant);
+
+    boolean variantExists(String hash, ImageVariant variant);
+
+}
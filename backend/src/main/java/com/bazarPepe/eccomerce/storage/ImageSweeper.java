@@ -0,0 +1,97 @@
+package com.bazarPepe.eccomerce.storage;
+
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//BORRADO DE IMAGENES SIN USO EN DOS PASOS. UN PRODUCTO QUE DEJA UNA IMAGEN SOLO LA APUNTA EN unused_images; EL BARRIDO
+//BORRA LAS QUE LLEVAN APUNTADAS MAS DEL PLAZO DE GRACIA Y NINGUN PRODUCTO USA, CON SU FILA BLOQUEADA MIENTRAS BORRA.
+//UNA SUBIDA CON LOS MISMOS BYTES QUITA LA MARCA (unmark) ANTES DE MIRAR SI LA IMAGEN YA EXISTE: SI EL BARRIDO LA ESTA
+//BORRANDO ESPERA AL BLOQUEO Y LUEGO LA VUELVE A ESCRIBIR, Y SI NO, EL BARRIDO YA NO ENCUENTRA LA MARCA. EL PLAZO CUBRE
+//A UNA SUBIDA QUE YA HA QUITADO LA MARCA Y AUN NO HA GUARDADO SU PRODUCTO CUANDO OTRO PRODUCTO DEJA LA MISMA IMAGEN
+@Component
+@Slf4j
+public class ImageSweeper {
+
+    private static final int SWEEP_CHUNK = 100;
+
+    private static final String MARK =
+            "insert into unused_images (image_hash,marked_at) values (?,?) " +
+            "on duplicate key update marked_at=values(marked_at)";
+    private static final String UNMARK =
+            "delete from unused_images where image_hash=?";
+    private static final String FIND_DUE =
+            "select image_hash from unused_images where marked_at<? order by marked_at limit ?";
+    private static final String LOCK_DUE =
+            "select image_hash from unused_images where image_hash=? and marked_at<? for update";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+
+    public ImageSweeper(JdbcTemplate jdbcTemplate,
+                        ImageStore imageStore,
+                        ProductRepository productRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${image.sweep.grace:1h}") Duration grace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.grace = grace;
+    }
+
+    //UN PRODUCTO HA DEJADO DE USAR LA IMAGEN (O NO LLEGO A GUARDARSE). VOLVER A MARCARLA REINICIA EL PLAZO
+    public void markUnused(String hash) {
+        jdbcTemplate.update(MARK, hash, LocalDateTime.now());
+    }
+
+    //SE LLAMA DESDE ImageStore.save ANTES DE MIRAR SI LA IMAGEN EXISTE; ESPERA A UN BARRIDO DE ESA IMAGEN EN CURSO
+    public void unmark(String hash) {
+        jdbcTemplate.update(UNMARK, hash);
+    }
+
+    @Scheduled(fixedDelayString = "${image.sweep.interval:10m}")
+    public void sweep() {
+        LocalDateTime before = LocalDateTime.now().minus(grace);
+        List<String> due;
+        do {
+            due = jdbcTemplate.queryForList(FIND_DUE, String.class, before, SWEEP_CHUNK);
+            for (String hash : due) {
+                try {
+                    sweep(hash, before);
+                } catch (RuntimeException e) {
+                    //LA MARCA SIGUE AHI Y SE REINTENTA EN EL SIGUIENTE BARRIDO
+                    log.warn("No se ha podido borrar la imagen sin uso {}", hash, e);
+                    return;
+                }
+            }
+        } while (due.size() == SWEEP_CHUNK);
+    }
+
+    //SI EL BORRADO DEL ALMACEN FALLA SE DESHACE TODO Y LA MARCA SE QUEDA; SI FALLA EL COMMIT, BORRARLA OTRA VEZ NO ROMPE NADA
+    private void sweep(String hash, LocalDateTime before) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForList(LOCK_DUE, String.class, hash, before).isEmpty()) {
+                //UNA SUBIDA LA HA QUITADO O SE HA VUELTO A MARCAR ENTRE MEDIAS
+                return;
+            }
+            if (productRepository.countByImageHash(hash) == 0) {
+                imageStore.delete(hash);
+                log.info("Imagen sin uso {} borrada del almacen de imagenes", hash);
+            }
+            jdbcTemplate.update(UNMARK, hash);
+        });
+    }
+
+}
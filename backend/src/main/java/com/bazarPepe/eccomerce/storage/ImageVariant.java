@@ -0,0 +1,32 @@
+package com.bazarPepe.eccomerce.storage;
+
+import java.util.Locale;
+
+//TAMAÑOS DERIVADOS DE LA IMAGEN ORIGINAL, EL VALOR ES EL LADO MAYOR EN PIXELES
+public enum ImageVariant {
+    THUMB(160),
+    CARD(480),
+    DETAIL(1200);
+
+    private final int maxSize;
+
+    ImageVariant(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    //DEVUELVE NULL SI NO SE PIDE NINGUNA VARIANTE (IMAGEN ORIGINAL)
+    public static ImageVariant fromParam(String size) {
+        if (size == null || size.isBlank() || size.equalsIgnoreCase("original")) {
+            return null;
+        }
+        return ImageVariant.valueOf(size.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,22 @@
+package com.bazarPepe.eccomerce.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+
+//IMAGEN DE UN PRODUCTO LISTA PARA SER ENVIADA AL CLIENTE
+@Data
+@AllArgsConstructor
+public class ProductImage {
+
+    private String hash;
+    private String contentType;
+    private Resource resource;
+
+    //IDENTIFICA EL CONTENIDO SERVIDO: EL HASH PARA LA ORIGINAL, HASH-VARIANTE PARA LAS DERIVADAS
+    private String eTag;
+
+    //TRUE SI SE PIDIO UNA VARIANTE QUE AUN NO EXISTE Y SE SIRVE LA ORIGINAL EN SU LUGAR
+    private boolean fallback;
+
+}
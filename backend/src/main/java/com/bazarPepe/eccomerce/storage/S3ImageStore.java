@@ -0,0 +1,196 @@
+package com.bazarPepe.eccomerce.storage;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+//BACKEND COMPATIBLE CON S3, SIRVE TAMBIEN PARA UN SUSTITUTO LOCAL (MINIO, LOCALSTACK) CONFIGURANDO EL ENDPOINT
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "s3")
+public class S3ImageStore implements ImageStore {
+
+    private static final String KEY_PREFIX = "images/";
+
+    private final AmazonS3 s3;
+    private final String bucket;
+    private final Path tempDir;
+    private final long maxBytes;
+
+    @Autowired
+    public S3ImageStore(@Value("${image.storage.s3.bucket}") String bucket,
+                        @Value("${image.storage.s3.region:eu-west-1}") String region,
+                        @Value("${image.storage.s3.endpoint:}") String endpoint,
+                        @Value("${image.storage.s3.access-key}") String accessKey,
+                        @Value("${image.storage.s3.secret-key}") String secretKey,
+                        @Value("${image.upload.max-bytes:10485760}") long maxBytes) {
+        this(client(region, endpoint, accessKey, secretKey), bucket,
+                Paths.get(System.getProperty("java.io.tmpdir"), "eccomerce-images"), maxBytes);
+    }
+
+    //PARA LOS TESTS, CON UN CLIENTE QUE NO SALE A LA RED
+    S3ImageStore(AmazonS3 s3, String bucket, Path tempDir, long maxBytes) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.tempDir = tempDir;
+        this.maxBytes = maxBytes;
+    }
+
+    private static AmazonS3 client(String region, String endpoint, String accessKey, String secretKey) {
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretKey)));
+        if (StringUtils.hasText(endpoint)) {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region));
+        } else {
+            builder.withRegion(region);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public StoredImage save(InputStream data, Consumer<String> beforeStore) throws IOException {
+        //S3 NECESITA LA CLAVE (EL HASH) ANTES DE SUBIR, ASI QUE SE VUELCA PRIMERO A DISCO
+        ImageSpooler.SpooledImage spooled = ImageSpooler.spool(data, tempDir, maxBytes);
+        try {
+            beforeStore.accept(spooled.hash());
+            String key = keyFor(spooled.hash());
+            if (!s3.doesObjectExist(bucket, key)) {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentType(spooled.contentType());
+                metadata.setContentLength(spooled.size());
+                s3.putObject(new PutObjectRequest(bucket, key, spooled.file().toFile()).withMetadata(metadata));
+            }
+            return new StoredImage(spooled.hash(), spooled.size(), spooled.contentType());
+        } finally {
+            Files.deleteIfExists(spooled.file());
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        return open(keyFor(hash));
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return s3.doesObjectExist(bucket, keyFor(hash));
+    }
+
+    @Override
+    public void delete(String hash) {
+        s3.deleteObject(bucket, keyFor(hash));
+        for (ImageVariant variant : ImageVariant.values()) {
+            s3.deleteObject(bucket, variantKeyFor(hash, variant));
+        }
+    }
+
+    @Override
+    public void saveVariant(String hash, ImageVariant variant, byte[] data) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType("image/jpeg");
+        metadata.setContentLength(data.length);
+        s3.putObject(bucket, variantKeyFor(hash, variant), new ByteArrayInputStream(data), metadata);
+    }
+
+    @Override
+    public Optional<Resource> loadVariant(String hash, ImageVariant variant) {
+        return open(variantKeyFor(hash, variant));
+    }
+
+    @Override
+    public boolean variantExists(String hash, ImageVariant variant) {
+        return s3.doesObjectExist(bucket, variantKeyFor(hash, variant));
+    }
+
+    //UNA SOLA PETICION A S3: EL GET DICE SI EXISTE, TRAE EL TAMAÑO EN SUS CABECERAS Y DEJA EL CUERPO LISTO PARA LEER
+    private Optional<Resource> open(String key) {
+        try {
+            return Optional.of(new S3ObjectResource(key, s3.getObject(bucket, key)));
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private String keyFor(String hash) {
+        ImageHashes.requireValid(hash);
+        return KEY_PREFIX + hash;
+    }
+
+    private String variantKeyFor(String hash, ImageVariant variant) {
+        return keyFor(hash) + "-" + variant.key() + ".jpg";
+    }
+
+    //RECURSO SOBRE UN OBJETO DE S3 YA ABIERTO. LA PRIMERA LECTURA USA ESE CUERPO; SOLO UNA SEGUNDA (VARIOS RANGOS EN
+    //LA MISMA PETICION) VUELVE A PEDIRLO. QUIEN NO LLEGA A LEERLO (UN 304) TIENE QUE CERRARLO PARA DEVOLVER LA CONEXION
+    private class S3ObjectResource extends AbstractResource implements Closeable {
+
+        private final String key;
+        private final long contentLength;
+        private S3Object object;
+
+        private S3ObjectResource(String key, S3Object object) {
+            this.key = key;
+            this.object = object;
+            this.contentLength = object.getObjectMetadata().getContentLength();
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() {
+            S3Object opened = object != null ? object : s3.getObject(bucket, key);
+            object = null;
+            return opened.getObjectContent();
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        //abort Y NO close: close LEERIA EL RESTO DEL CUERPO SOLO PARA DESCARTARLO
+        @Override
+        public synchronized void close() {
+            if (object != null) {
+                object.getObjectContent().abort();
+                object = null;
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(KEY_PREFIX.length());
+        }
+
+        @Override
+        public String getDescription() {
+            return "s3://" + bucket + "/" + key;
+        }
+
+    }
+
+}
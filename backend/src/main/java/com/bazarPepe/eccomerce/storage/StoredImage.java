@@ -0,0 +1,14 @@
+package com.bazarPepe.eccomerce.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StoredImage {
+
+    private String hash;
+    private long size;
+    private String contentType;
+
+}
@@ -0,0 +1,35 @@
+package com.bazarPepe.eccomerce.web;
+
+import com.bazarPepe.eccomerce.cache.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+//GET CONDICIONAL PARA LAS LECTURAS DEL CATALOGO: SI EL IF-NONE-MATCH DEL CLIENTE COINCIDE CON LA VERSION ACTUAL
+//SE RESPONDE 304 ANTES DE LLEGAR AL CONTROLADOR, SIN CONSULTAR REPOSITORIOS NI SERIALIZAR JSON.
+//EL ETAG SE CALCULA ANTES DE LEER: SI EL CATALOGO CAMBIA A MITAD DE LA PETICION EL CLIENTE SE LLEVA UN ETAG
+//ANTIGUO CON DATOS NUEVOS Y SIMPLEMENTE VUELVE A DESCARGAR EN LA SIGUIENTE, NUNCA AL REVES
+@Component
+@RequiredArgsConstructor
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersion catalogVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        //SIN CACHE-CONTROL no-cache EL NAVEGADOR PODRIA REUTILIZAR LA RESPUESTA SIN PREGUNTAR
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        return !webRequest.checkNotModified(catalogVersion.eTag(), catalogVersion.lastModified());
+    }
+
+}
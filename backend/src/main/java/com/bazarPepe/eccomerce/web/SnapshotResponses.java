@@ -0,0 +1,33 @@
+package com.bazarPepe.eccomerce.web;
+
+import com.bazarPepe.eccomerce.cache.CatalogSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+//ESCRIBE UN LISTADO PRESERIALIZADO DEL CATALOGO SIN PASAR POR JACKSON, EN GZIP SI EL CLIENTE LO ACEPTA
+public final class SnapshotResponses {
+
+    private SnapshotResponses() {
+    }
+
+    public static ResponseEntity<byte[]> of(CatalogSnapshot.Snapshot snapshot, HttpServletRequest request, HttpServletResponse response) {
+        //EL ETAG ES EL DE LA VERSION CON LA QUE SE CONSTRUYO EL SNAPSHOT, QUE PUEDE SER ANTERIOR A LA ACTUAL
+        response.setHeader(HttpHeaders.ETAG, snapshot.eTag());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.bazarPepe.eccomerce.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+//ESCRIBE UN RESPONSE {"status":200,"<lista>":[...]} ELEMENTO A ELEMENTO MIENTRAS SE LEE DE LA BASE DE DATOS.
+//NI LAS ENTIDADES NI LOS DTOS NI EL JSON COMPLETO LLEGAN A ESTAR EN MEMORIA A LA VEZ
+@Component
+@RequiredArgsConstructor
+public class StreamingJsonResponses {
+
+    //CADA CUANTAS FILAS SE VACIA EL CONTEXTO DE PERSISTENCIA Y SE ENVIA LO ESCRITO AL CLIENTE
+    private static final int FLUSH_EVERY = 500;
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    public <T> StreamingResponseBody list(String listField, Supplier<Stream<T>> source, Function<T, ?> mapper) {
+        return outputStream -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            //POR DEFECTO JACKSON HACE FLUSH DESPUES DE CADA VALOR; AQUI SE HACE POR BLOQUES
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<T> rows = source.get();
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartObject();
+                    generator.writeNumberField("status", 200);
+                    generator.writeArrayFieldStart(listField);
+                    int written = 0;
+                    for (T row : (Iterable<T>) rows::iterator) {
+                        writer.writeValue(generator, mapper.apply(row));
+                        if (++written % FLUSH_EVERY == 0) {
+                            entityManager.clear();
+                            generator.flush();
+                        }
+                    }
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.bazarPepe.eccomerce.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogETagInterceptor catalogETagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        //LAS IMAGENES TIENEN SU PROPIO ETAG (EL HASH) Y EL AUTOCOMPLETADO CAMBIA CON CADA VENTA
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns("/product/**", "/category/**")
+                .excludePathPatterns("/product/*/image", "/product/suggest");
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.enums.AnalyticsDimension;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//FILAS RECORRIDAS POR SEGUNDO EN LA FOTO EN COLUMNAS CON 10M LINEAS (3 AÑOS, 2000 PRODUCTOS, 200K USUARIOS), CON 1 A 8
+//HILOS: EL RESULTADO ES ops/s = FILAS/s, Y LO QUE DA CADA NUCLEO ES ESE VALOR ENTRE parallelism.
+//NO ES UN TEST: SE LANZA CON main DESDE EL IDE O CON java -cp <classpath de test> ...OrderItemColumnsBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(OrderItemColumnsBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class OrderItemColumnsBenchmark {
+
+    static final int ROWS = 10_000_000;
+    private static final int PRODUCTS = 2_000;
+    private static final int CATEGORIES = 40;
+    private static final int USERS = 200_000;
+    private static final int DAYS = 3 * 365;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private OrderItemColumns columns;
+    private ForkJoinPool pool;
+
+    private final ColumnQuery allByCategory =
+            new ColumnQuery(AnalyticsDimension.CATEGORY, null, null, null, null, null, null);
+    private final ColumnQuery shippedByProductInAQuarter = new ColumnQuery(AnalyticsDimension.PRODUCT,
+            EnumSet.of(OrderStatus.SHIPPED, OrderStatus.DELIVERED), null, null, null,
+            FIRST_DAY.plusMonths(12), FIRST_DAY.plusMonths(15).minusDays(1));
+    private final ColumnQuery oneCategoryByDay = new ColumnQuery(AnalyticsDimension.DAY,
+            null, null, Set.of(7L), null, null, null);
+    private final ColumnQuery allByUser =
+            new ColumnQuery(AnalyticsDimension.USER, null, null, null, null, null, null);
+
+    @Setup(Level.Trial)
+    public void buildColumns() {
+        SplittableRandom random = new SplittableRandom(42);
+        OrderStatus[] statuses = OrderStatus.values();
+        OrderItemColumns.Builder builder = new OrderItemColumns.Builder(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            //EN ORDEN DE ID, COMO SE CARGA DE LA BASE DE DATOS: LOS DIAS VAN CRECIENDO
+            long product = random.nextInt(PRODUCTS) + 1;
+            builder.add(statuses[random.nextInt(statuses.length)],
+                    product,
+                    product % CATEGORIES,
+                    (long) random.nextInt(USERS) + 1,
+                    FIRST_DAY.plusDays((long) i * DAYS / ROWS),
+                    random.nextInt(5) + 1,
+                    BigDecimal.valueOf(random.nextInt(10_000) + 100, 2));
+        }
+        columns = builder.build();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    //RECORRE TODAS LAS FILAS Y POCOS GRUPOS
+    @Benchmark
+    public GroupTotals groupAllByCategory() {
+        return columns.aggregate(allByCategory, pool);
+    }
+
+    //BITMAP DE ESTADOS Y RANGO DE FECHAS: LA MAYORIA DE BLOQUES SE DESCARTAN SIN LEER SUS FILAS
+    @Benchmark
+    public GroupTotals groupShippedByProductInAQuarter() {
+        return columns.aggregate(shippedByProductInAQuarter, pool);
+    }
+
+    @Benchmark
+    public GroupTotals groupOneCategoryByDay() {
+        return columns.aggregate(oneCategoryByDay, pool);
+    }
+
+    //200K GRUPOS: MUCHOS FALLOS DE CACHE AL SUMAR
+    @Benchmark
+    public GroupTotals groupAllByUser() {
+        return columns.aggregate(allByUser, pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderItemColumnsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
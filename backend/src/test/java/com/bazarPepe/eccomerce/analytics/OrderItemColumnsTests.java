@@ -0,0 +1,106 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.enums.AnalyticsDimension;
+import com.bazarPepe.eccomerce.enums.AnalyticsMetric;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//EL RECORRIDO EN PARALELO CON BITMAPS Y BLOQUES TIENE QUE DAR LO MISMO QUE SUMAR LAS FILAS UNA A UNA
+class OrderItemColumnsTests {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 11, 20);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private record Row(OrderStatus status, Long productId, Long categoryId, Long userId, LocalDate day, int quantity,
+                       BigDecimal price) {
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void parallelScanMatchesRowByRowSums() {
+        List<Row> rows = randomRows(200_003);
+        OrderItemColumns.Builder builder = new OrderItemColumns.Builder();
+        rows.forEach(row -> builder.add(row.status(), row.productId(), row.categoryId(), row.userId(), row.day(),
+                row.quantity(), row.price()));
+        OrderItemColumns columns = builder.build();
+
+        ColumnQuery query = new ColumnQuery(AnalyticsDimension.MONTH,
+                EnumSet.of(OrderStatus.SHIPPED, OrderStatus.DELIVERED), null, Set.of(1L, 2L), null,
+                FIRST_DAY.plusDays(10), FIRST_DAY.plusDays(70));
+        GroupTotals totals = columns.aggregate(query, pool);
+
+        Map<String, long[]> expected = new TreeMap<>();
+        for (Row row : rows) {
+            if ((row.status() == OrderStatus.SHIPPED || row.status() == OrderStatus.DELIVERED)
+                    && row.categoryId() != null && (row.categoryId() == 1L || row.categoryId() == 2L)
+                    && !row.day().isBefore(FIRST_DAY.plusDays(10)) && !row.day().isAfter(FIRST_DAY.plusDays(70))) {
+                long[] sums = expected.computeIfAbsent(row.day().toString().substring(0, 7), month -> new long[3]);
+                sums[0]++;
+                sums[1] += row.quantity();
+                sums[2] += row.price().movePointRight(2).longValueExact();
+            }
+        }
+        Map<String, long[]> actual = new TreeMap<>();
+        for (int key : totals.all()) {
+            actual.put(totals.label(key), new long[]{totals.itemCount(key), totals.units(key),
+                    totals.revenue(key).movePointRight(2).longValueExact()});
+        }
+        assertThat(actual).hasSameSizeAs(expected);
+        expected.forEach((month, sums) -> assertThat(actual.get(month)).containsExactly(sums));
+    }
+
+    @Test
+    void unknownIdsMatchNothing() {
+        OrderItemColumns columns = new OrderItemColumns.Builder()
+                .add(OrderStatus.PENDING, 1L, 1L, 1L, FIRST_DAY, 2, new BigDecimal("3.00"))
+                .add(OrderStatus.PENDING, 2L, null, 1L, FIRST_DAY, 1, new BigDecimal("1.50"))
+                .build();
+
+        GroupTotals byUnknownUser = columns.aggregate(new ColumnQuery(AnalyticsDimension.PRODUCT,
+                null, null, null, Set.of(99L), null, null), pool);
+        GroupTotals byProduct = columns.aggregate(new ColumnQuery(AnalyticsDimension.PRODUCT,
+                null, null, null, null, null, null), pool);
+
+        assertThat(byUnknownUser.matchedItems()).isZero();
+        assertThat(Arrays.stream(byProduct.top(AnalyticsMetric.REVENUE, 10)).mapToObj(byProduct::label))
+                .containsExactly("1", "2");
+    }
+
+    private static List<Row> randomRows(int count) {
+        SplittableRandom random = new SplittableRandom(7);
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long product = random.nextInt(50);
+            rows.add(new Row(statuses[random.nextInt(statuses.length)],
+                    product == 0 ? null : product,
+                    product % 7 == 0 ? null : product % 5,
+                    (long) random.nextInt(1000),
+                    FIRST_DAY.plusDays((long) i * 90 / count),
+                    random.nextInt(4) + 1,
+                    BigDecimal.valueOf(random.nextInt(5000), 2)));
+        }
+        return rows;
+    }
+
+}
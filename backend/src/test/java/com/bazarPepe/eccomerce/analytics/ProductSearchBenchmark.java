@@ -0,0 +1,115 @@
+package com.bazarPepe.eccomerce.analytics;
+
+import com.bazarPepe.eccomerce.projection.ProductSummary;
+import com.bazarPepe.eccomerce.search.ProductSearchIndex;
+import com.bazarPepe.eccomerce.search.TextNormalizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//BUSQUEDA DE PRODUCTOS CON 100K PRODUCTOS: EL INDICE INVERTIDO EN MEMORIA (ProductSearchIndex) FRENTE A LO QUE HACE
+//searchSummaries, UN LIKE '%texto%' SOBRE NOMBRE Y DESCRIPCION QUE RECORRE TODAS LAS FILAS. EL LIKE SE SIMULA EN
+//MEMORIA CON LOS TEXTOS YA NORMALIZADOS, ASI QUE ES UNA COTA INFERIOR DE LO QUE TARDA EN MYSQL (SIN E/S NI COLACION).
+//NO ES UN TEST: SE LANZA CON main DESDE EL IDE O CON java -cp <classpath de test> ...ProductSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int LIMIT = 50;
+    private static final String[] TYPES = {"camisa", "camiseta", "pantalon", "chaqueta", "zapatilla", "sudadera",
+            "vestido", "falda", "abrigo", "bolso", "gorra", "bufanda", "calcetin", "cinturon", "jersey", "sandalia"};
+    private static final String[] COLORS = {"azul", "rojo", "negro", "blanco", "verde", "gris", "marron", "rosa",
+            "amarillo", "beige"};
+    private static final String[] MATERIALS = {"algodon", "lino", "lana", "cuero", "seda", "poliester", "vaquero",
+            "punto"};
+    private static final String[] WORDS = {"comodo", "ligero", "clasico", "moderno", "elegante", "resistente",
+            "suave", "transpirable", "ajustado", "holgado", "verano", "invierno", "oferta", "coleccion", "basico",
+            "deportivo", "casual", "urbano", "lavable", "reciclado"};
+
+    //UNA PALABRA, UN PREFIJO (EL INDICE LO EXPANDE; EL LIKE LO ENCUENTRA DENTRO DE CUALQUIER PALABRA), DOS PALABRAS
+    //(EL LIKE SOLO ENCUENTRA LA FRASE EXACTA) Y UNA ERRATA (EL INDICE PASA A LA BUSQUEDA APROXIMADA)
+    @Param({"chaqueta", "cami", "camisa lino", "camsieta"})
+    public String query;
+
+    private ProductSearchIndex index;
+    private String[] foldedNames;
+    private String[] foldedDescriptions;
+    private long[] ids;
+    private String foldedQuery;
+
+    @Setup(Level.Trial)
+    public void buildCatalog() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new ProductSearchIndex(null, new SimpleMeterRegistry());
+        foldedNames = new String[PRODUCTS];
+        foldedDescriptions = new String[PRODUCTS];
+        ids = new long[PRODUCTS];
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = pick(random, TYPES) + " " + pick(random, COLORS) + " de " + pick(random, MATERIALS);
+            StringBuilder description = new StringBuilder();
+            for (int word = 0; word < 12; word++) {
+                description.append(word == 0 ? "" : " ").append(pick(random, WORDS));
+            }
+            ids[i] = i + 1;
+            index.index(new ProductSummary(ids[i], name, description.toString(), BigDecimal.TEN, null,
+                    (long) random.nextInt(40), createdAt));
+            foldedNames[i] = TextNormalizer.fold(name);
+            foldedDescriptions[i] = TextNormalizer.fold(description.toString());
+        }
+        foldedQuery = TextNormalizer.fold(query);
+    }
+
+    @Benchmark
+    public List<Long> searchIndex() {
+        return index.search(query, LIMIT);
+    }
+
+    //name LIKE '%q%' OR description LIKE '%q%' SIN LIMITE, COMO searchSummaries
+    @Benchmark
+    public List<Long> likeScan() {
+        List<Long> matches = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            if (foldedNames[i].contains(foldedQuery) || foldedDescriptions[i].contains(foldedQuery)) {
+                matches.add(ids[i]);
+            }
+        }
+        return matches;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
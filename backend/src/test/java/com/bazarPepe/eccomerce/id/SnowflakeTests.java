@@ -0,0 +1,65 @@
+package com.bazarPepe.eccomerce.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeTests {
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        Snowflake snowflake = new Snowflake(3, 5000);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    long previous = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        long id = snowflake.nextId();
+                        if (id <= previous || !ids.add(id)) {
+                            return false;
+                        }
+                        previous = id;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        }
+        assertThat(ids).hasSize(160_000);
+        assertThat(ids).allMatch(id -> id < (1L << 53) && Snowflake.nodeId(id) == 3);
+    }
+
+    @Test
+    void clockGoingBackwardsKeepsOrderWithinTolerance() {
+        AtomicLong clock = new AtomicLong(Snowflake.EPOCH_MILLIS + 10_000);
+        Snowflake snowflake = new Snowflake(0, 100, clock::get);
+        long first = snowflake.nextId();
+        clock.addAndGet(-50);
+        long second = snowflake.nextId();
+        assertThat(second).isGreaterThan(first);
+
+        clock.addAndGet(-200);
+        assertThatThrownBy(snowflake::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThatThrownBy(() -> new Snowflake(Snowflake.MAX_NODE_ID + 1, 5000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.pagination.OrderItemKeyset;
+import com.bazarPepe.eccomerce.specification.OrderItemSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bazarPepe.eccomerce.repository.SqlCapturingInspector")
+class OrderItemFilterQueryTests {
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @BeforeEach
+    void clearStatements() {
+        SqlCapturingInspector.clear();
+    }
+
+    @Test
+    void keysetPagesNeverCount() {
+        orderItemRepository.findSlice(OrderItemSpecification.hasStatus(OrderStatus.PENDING), OrderItemKeyset.firstPage(), 50);
+        orderItemRepository.findSlice(OrderItemSpecification.createdBetween(LocalDateTime.now().minusDays(7), null),
+                OrderItemKeyset.firstPage(), 50);
+
+        assertThat(SqlCapturingInspector.statements())
+                .isNotEmpty()
+                .noneMatch(sql -> sql.toLowerCase().contains("count("));
+    }
+
+}
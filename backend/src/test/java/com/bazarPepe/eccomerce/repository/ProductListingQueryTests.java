@@ -0,0 +1,42 @@
+package com.bazarPepe.eccomerce.repository;
+
+import com.bazarPepe.eccomerce.pagination.ProductKeyset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bazarPepe.eccomerce.repository.SqlCapturingInspector")
+class ProductListingQueryTests {
+
+    //LA COLUMNA BLOB "image", SIN CONFUNDIRLA CON image_hash O image_content_type
+    private static final Pattern IMAGE_COLUMN = Pattern.compile("\\.image\\b", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void clearStatements() {
+        SqlCapturingInspector.clear();
+    }
+
+    @Test
+    void listingQueriesNeverSelectTheImageBlob() {
+        productRepository.findAllSummaries(Sort.by(Sort.Direction.DESC, "id"));
+        productRepository.findSummariesByCategoryId(1L);
+        productRepository.searchSummaries("camisa");
+        productRepository.findSummaryById(1L);
+        productRepository.findImageViewById(1L);
+        productRepository.findSummarySlice(null, ProductKeyset.firstPage("price,asc"), 10);
+
+        assertThat(SqlCapturingInspector.statements())
+                .isNotEmpty()
+                .noneMatch(sql -> IMAGE_COLUMN.matcher(sql).find());
+    }
+
+}
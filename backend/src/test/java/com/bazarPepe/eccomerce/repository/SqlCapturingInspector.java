@@ -0,0 +1,33 @@
+package com.bazarPepe.eccomerce.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//GUARDA LAS SENTENCIAS SQL QUE GENERA HIBERNATE PARA PODER COMPROBARLAS EN LOS TESTS. SOLO LAS DEL HILO QUE HA LLAMADO
+//A clear(): LAS TAREAS @Scheduled (OrderStatusCounts, EL RELAY DEL OUTBOX...) VAN EN OTROS HILOS Y NO SE CUELAN
+public class SqlCapturingInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    //EMPIEZA (O REINICIA) LA CAPTURA EN EL HILO ACTUAL
+    public static void clear() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    public static List<String> statements() {
+        List<String> statements = STATEMENTS.get();
+        return statements != null ? List.copyOf(statements) : List.of();
+    }
+
+}
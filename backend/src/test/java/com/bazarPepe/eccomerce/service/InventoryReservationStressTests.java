@@ -0,0 +1,142 @@
+package com.bazarPepe.eccomerce.service;
+
+import com.bazarPepe.eccomerce.entity.Category;
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.exception.OutOfStockException;
+import com.bazarPepe.eccomerce.inventory.StockLeases;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.service.interfaces.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//MILES DE COMPRADORES A LA VEZ SOBRE EL MISMO PRODUCTO: NUNCA SE VENDE MAS DE LO QUE HAY
+@Tag("heavy")
+@SpringBootTest(properties = "inventory.hot.requests-per-second=5")
+@Slf4j
+class InventoryReservationStressTests {
+
+    private static final int BUYERS = 5000;
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private StockLeases stockLeases;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void createProduct() {
+        category = new Category();
+        category.setName("test-" + UUID.randomUUID());
+        categoryRepository.save(category);
+        product = new Product();
+        product.setName("oferta flash");
+        product.setPrice(new BigDecimal("1.00"));
+        product.setCategory(category);
+        productRepository.save(product);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from stock_leases where product_id=?", product.getId());
+        jdbcTemplate.update("delete from inventory where product_id=?", product.getId());
+        productRepository.delete(product);
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void flashSaleNeverOversells() throws InterruptedException {
+        int stock = 700;
+        inventoryService.updateStock(product.getId(), stock);
+
+        int sold = buyConcurrently();
+        stockLeases.returnAll();
+
+        assertThat(sold).isEqualTo(stock);
+        assertThat(reserved()).isEqualTo(stock);
+    }
+
+    @Test
+    void leftoverUnitsGoBackToTheDatabase() throws InterruptedException {
+        int stock = BUYERS * 2;
+        inventoryService.updateStock(product.getId(), stock);
+
+        int sold = buyConcurrently();
+        stockLeases.returnAll();
+
+        assertThat(sold).isEqualTo(BUYERS);
+        assertThat(reserved()).isEqualTo(BUYERS);
+    }
+
+    @Test
+    void leasesOfANodeThatStopsRenewingThemGoBack() throws InterruptedException {
+        int stock = BUYERS * 2;
+        inventoryService.updateStock(product.getId(), stock);
+        int sold = buyConcurrently();
+
+        //COMO SI EL NODO HUBIERA CAIDO: SUS LOTES CADUCAN Y OTRO LOS DEVUELVE
+        jdbcTemplate.update("update stock_leases set expires_at=? where product_id=?",
+                LocalDateTime.now().minusMinutes(1), product.getId());
+        stockLeases.reclaimExpired();
+        stockLeases.returnAll();
+
+        assertThat(sold).isEqualTo(BUYERS);
+        assertThat(reserved()).isEqualTo(BUYERS);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from stock_leases where product_id=?",
+                Integer.class, product.getId())).isZero();
+    }
+
+    private int buyConcurrently() throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < BUYERS; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        inventoryService.reserve(Map.of(product.getId(), 1));
+                        sold.incrementAndGet();
+                    } catch (OutOfStockException | InterruptedException ignored) {
+                    }
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        log.info(String.format("%d compradores, %d vendidas en %.3f s (%.0f reservas/s)",
+                BUYERS, sold.get(), seconds, BUYERS / seconds));
+        return sold.get();
+    }
+
+    private int reserved() {
+        return jdbcTemplate.queryForObject("select reserved from inventory where product_id=?", Integer.class, product.getId());
+    }
+
+}
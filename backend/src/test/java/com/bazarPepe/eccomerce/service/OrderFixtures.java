@@ -0,0 +1,126 @@
+package com.bazarPepe.eccomerce.service;
+
+import com.bazarPepe.eccomerce.dto.OrderItemRequest;
+import com.bazarPepe.eccomerce.dto.OrderRequest;
+import com.bazarPepe.eccomerce.entity.Address;
+import com.bazarPepe.eccomerce.entity.Category;
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.entity.User;
+import com.bazarPepe.eccomerce.enums.UserRole;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.repository.UserRepository;
+import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+//CATALOGO Y COMPRADOR PROPIOS DE UN TEST QUE HACE PEDIDOS: UNA CATEGORIA CON NOMBRE UNICO, SUS PRODUCTOS CON
+//INVENTARIO Y UN USUARIO CON DIRECCION AUTENTICADO EN EL HILO DEL TEST. cleanUp BORRA TODO LO QUE HA CREADO,
+//PEDIDOS INCLUIDOS, PARA QUE LOS TESTS PUEDAN CORRER CONTRA UNA BASE DE DATOS COMPARTIDA
+public class OrderFixtures {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private Category category;
+    private User user;
+
+    public OrderFixtures(JdbcTemplate jdbcTemplate, CategoryRepository categoryRepository,
+                         ProductRepository productRepository, UserRepository userRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+    }
+
+    public void createCategoryAndUser() {
+        String suffix = UUID.randomUUID().toString();
+        category = new Category();
+        category.setName("test-" + suffix);
+        categoryRepository.save(category);
+        Address address = new Address();
+        address.setStreet("calle");
+        address.setCity("ciudad");
+        address.setState("provincia");
+        address.setZipCode("00000");
+        address.setCountry("pais");
+        user = new User();
+        user.setName("test");
+        user.setEmail(suffix + "@test.local");
+        user.setPassword("x");
+        user.setPhoneNumber("600000000");
+        user.setRole(UserRole.USER);
+        user.setAddress(address);
+        userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    }
+
+    public Product addProduct(String name, String price, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("descripcion de " + name);
+        product.setPrice(new BigDecimal(price));
+        product.setCategory(category);
+        products.add(productRepository.save(product));
+        jdbcTemplate.update("insert into inventory (product_id,stock,reserved) values (?,?,0)", product.getId(), stock);
+        return product;
+    }
+
+    //UN PEDIDO DEL USUARIO CON UNA LINEA POR CANTIDAD, TODAS DEL MISMO PRODUCTO
+    public void placeOrder(OrderItemService orderItemService, Product product, int... quantities) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int quantity : quantities) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(product.getId());
+            item.setQuantity(quantity);
+            items.add(item);
+        }
+        OrderRequest orderRequest = new OrderRequest();
+        orderRequest.setItems(items);
+        orderItemService.placeOrder(orderRequest);
+    }
+
+    public List<Long> orderIds() {
+        return jdbcTemplate.queryForList("select distinct order_id from order_items where user_id=?", Long.class, user.getId());
+    }
+
+    public List<Long> orderItemIds() {
+        return jdbcTemplate.queryForList("select id from order_items where user_id=? order by id", Long.class, user.getId());
+    }
+
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+        List<Long> orderIds = orderIds();
+        jdbcTemplate.update("delete from order_items where user_id=?", user.getId());
+        orderIds.forEach(orderId -> jdbcTemplate.update("delete from orders where id=?", orderId));
+        userRepository.delete(user);
+        products.forEach(product -> {
+            jdbcTemplate.update("delete from inventory where product_id=?", product.getId());
+            productRepository.delete(product);
+        });
+        categoryRepository.delete(category);
+    }
+
+    public Category category() {
+        return category;
+    }
+
+    public User user() {
+        return user;
+    }
+
+    public List<Product> products() {
+        return products;
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.bazarPepe.eccomerce.service;
+
+import com.bazarPepe.eccomerce.dto.OrderItemStatusBulkRequest;
+import com.bazarPepe.eccomerce.dto.OrderItemStatusResultDto;
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.StatusChangeOutcome;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.repository.UserRepository;
+import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//EL ALMACEN ENVIA CIENTOS DE LINEAS A LA VEZ: SE COMPARA LA ACTUALIZACION MASIVA CON IR LINEA A LINEA
+//Y SE COMPRUEBA QUE EL STOCK Y LOS ESTADOS QUEDAN IGUAL QUE SI SE HUBIERAN CAMBIADO UNA A UNA
+@Tag("heavy")
+@SpringBootTest
+@Slf4j
+class OrderItemBulkStatusBenchmarkTests {
+
+    private static final int ITEMS = 2000;
+    private static final int ONE_BY_ONE = 200;
+    private static final int STOCK = 10000;
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private OrderFixtures fixtures;
+    private Product product;
+    private List<Long> orderItemIds;
+
+    @BeforeEach
+    void placeLargeOrder() {
+        fixtures = new OrderFixtures(jdbcTemplate, categoryRepository, productRepository, userRepository);
+        fixtures.createCategoryAndUser();
+        product = fixtures.addProduct("producto", "1.00", STOCK);
+        int[] quantities = new int[ITEMS];
+        Arrays.fill(quantities, 1);
+        fixtures.placeOrder(orderItemService, product, quantities);
+        orderItemIds = fixtures.orderItemIds();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void bulkShippingEndsLikeOneByOne() {
+        List<Long> oneByOne = orderItemIds.subList(0, ONE_BY_ONE);
+        List<Long> bulk = orderItemIds.subList(ONE_BY_ONE, ITEMS);
+
+        long began = System.nanoTime();
+        oneByOne.forEach(id -> orderItemService.updateOrderItemStatus(id, "SHIPPED"));
+        double oneByOneSeconds = (System.nanoTime() - began) / 1e9;
+
+        began = System.nanoTime();
+        Response response = orderItemService.updateOrderItemsStatus(request("SHIPPED", bulk));
+        double bulkSeconds = (System.nanoTime() - began) / 1e9;
+
+        log.info(String.format("linea a linea: %d en %.3f s (%.0f lineas/s); masivo: %d en %.3f s (%.0f lineas/s)",
+                ONE_BY_ONE, oneByOneSeconds, ONE_BY_ONE / oneByOneSeconds,
+                bulk.size(), bulkSeconds, bulk.size() / bulkSeconds));
+
+        assertThat(response.getStatusResultList())
+                .hasSize(bulk.size())
+                .allMatch(result -> result.getOutcome().equals(StatusChangeOutcome.UPDATED.name()));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from order_items where user_id=? and status=?",
+                Integer.class, fixtures.user().getId(), OrderStatus.SHIPPED.ordinal())).isEqualTo(ITEMS);
+        assertThat(jdbcTemplate.queryForObject("select stock from inventory where product_id=?", Integer.class, product.getId()))
+                .isEqualTo(STOCK - ITEMS);
+        assertThat(jdbcTemplate.queryForObject("select reserved from inventory where product_id=?", Integer.class, product.getId()))
+                .isZero();
+    }
+
+    @Test
+    void reportsOutcomePerLine() {
+        List<Long> ids = new ArrayList<>(orderItemIds.subList(0, 3));
+        orderItemService.updateOrderItemsStatus(request("CANCELLED", ids.subList(0, 1)));
+        ids.add(-1L);
+
+        List<OrderItemStatusResultDto> results = orderItemService.updateOrderItemsStatus(request("SHIPPED", ids)).getStatusResultList();
+
+        assertThat(results).extracting(OrderItemStatusResultDto::getOutcome).containsExactly(
+                StatusChangeOutcome.INVALID_TRANSITION.name(),
+                StatusChangeOutcome.UPDATED.name(),
+                StatusChangeOutcome.UPDATED.name(),
+                StatusChangeOutcome.NOT_FOUND.name());
+        assertThat(orderItemService.updateOrderItemsStatus(request("SHIPPED", Collections.singletonList(ids.get(1))))
+                .getStatusResultList().get(0).getOutcome()).isEqualTo(StatusChangeOutcome.UNCHANGED.name());
+    }
+
+    private static OrderItemStatusBulkRequest request(String status, List<Long> ids) {
+        OrderItemStatusBulkRequest request = new OrderItemStatusBulkRequest();
+        request.setStatus(status);
+        request.setOrderItemIds(ids);
+        return request;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.bazarPepe.eccomerce.service;
+
+import com.bazarPepe.eccomerce.dto.Response;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.repository.SqlCapturingInspector;
+import com.bazarPepe.eccomerce.repository.UserRepository;
+import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
+import com.bazarPepe.eccomerce.service.interfaces.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//EL MAPEO A DTO DE LOS LISTADOS DE ORDER ITEMS NO PUEDE HACER CONSULTAS POR FILA: UNA PAGINA DE 1 Y UNA DE 6
+//CUESTAN LAS MISMAS SENTENCIAS. SE EJECUTA DENTRO DE UNA TRANSACCION, COMO CON OPEN-IN-VIEW, PARA QUE UNA CARGA
+//LAZY OLVIDADA SE CONVIERTA EN UNA CONSULTA MAS EN LUGAR DE EN UNA EXCEPCION
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bazarPepe.eccomerce.repository.SqlCapturingInspector")
+class OrderItemMappingStatementTests {
+
+    private static final int ORDERS = 6;
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private OrderFixtures fixtures;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void createOrders() {
+        start = LocalDateTime.now();
+        fixtures = new OrderFixtures(jdbcTemplate, categoryRepository, productRepository, userRepository);
+        fixtures.createCategoryAndUser();
+        //CADA PEDIDO CON UN PRODUCTO DISTINTO, PARA QUE NINGUNA CACHE DE PRIMER NIVEL TAPE UNA CONSULTA POR FILA
+        for (int i = 0; i < ORDERS; i++) {
+            fixtures.placeOrder(orderItemService, fixtures.addProduct("producto " + i, "10.00", 100), 1);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void keysetFilterDoesNotQueryPerRow() {
+        int one = statements(() -> orderItemService.filterOrderItems(OrderStatus.PENDING, start, null, null, null, 1, false));
+        int six = statements(() -> orderItemService.filterOrderItems(OrderStatus.PENDING, start, null, null, null, ORDERS, false));
+
+        assertThat(six).isEqualTo(one);
+    }
+
+    @Test
+    void offsetFilterDoesNotQueryPerRow() {
+        int one = statements(() -> orderItemService.filterOrderItems(OrderStatus.PENDING, start, null, null,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"))));
+        int six = statements(() -> orderItemService.filterOrderItems(OrderStatus.PENDING, start, null, null,
+                PageRequest.of(0, ORDERS, Sort.by(Sort.Direction.DESC, "id"))));
+
+        assertThat(six).isEqualTo(one);
+    }
+
+    @Test
+    void orderHistoryDoesNotQueryPerRow() {
+        int six = statements(userService::getUserInfoAndOrderHistory);
+        jdbcTemplate.update("delete from order_items where user_id=? and product_id<>?",
+                fixtures.user().getId(), fixtures.products().get(0).getId());
+        int one = statements(userService::getUserInfoAndOrderHistory);
+
+        assertThat(six).isEqualTo(one);
+    }
+
+    private int statements(Supplier<Response> call) {
+        SqlCapturingInspector.clear();
+        Response response = transactionTemplate.execute(status -> call.get());
+        assertThat(response.getStatus()).isEqualTo(200);
+        return SqlCapturingInspector.statements().size();
+    }
+
+}
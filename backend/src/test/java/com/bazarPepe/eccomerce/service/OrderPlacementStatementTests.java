@@ -0,0 +1,81 @@
+package com.bazarPepe.eccomerce.service;
+
+import com.bazarPepe.eccomerce.dto.OrderItemRequest;
+import com.bazarPepe.eccomerce.dto.OrderRequest;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.repository.SqlCapturingInspector;
+import com.bazarPepe.eccomerce.repository.UserRepository;
+import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bazarPepe.eccomerce.repository.SqlCapturingInspector")
+class OrderPlacementStatementTests {
+
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private OrderFixtures fixtures;
+
+    @BeforeEach
+    void createCatalogAndUser() {
+        fixtures = new OrderFixtures(jdbcTemplate, categoryRepository, productRepository, userRepository);
+        fixtures.createCategoryAndUser();
+        for (int i = 0; i < 6; i++) {
+            fixtures.addProduct("producto " + i, "10.00", 100);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void statementsPerOrderDoNotGrowWithItems() {
+        //EL PRIMER PEDIDO CALIENTA CACHES Y SENTENCIAS PREPARADAS; A PARTIR DE AHI SOLO SE MIDE EL PEDIDO EN SI
+        placeOrder(1);
+
+        SqlCapturingInspector.clear();
+        placeOrder(1);
+        int oneItem = SqlCapturingInspector.statements().size();
+
+        SqlCapturingInspector.clear();
+        placeOrder(6);
+        int sixItems = SqlCapturingInspector.statements().size();
+
+        assertThat(sixItems).isEqualTo(oneItem);
+    }
+
+    private void placeOrder(int items) {
+        OrderRequest orderRequest = new OrderRequest();
+        List<OrderItemRequest> itemRequests = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            OrderItemRequest itemRequest = new OrderItemRequest();
+            itemRequest.setProductId(fixtures.products().get(i).getId());
+            itemRequest.setQuantity(1);
+            itemRequests.add(itemRequest);
+        }
+        orderRequest.setItems(itemRequests);
+        orderItemService.placeOrder(orderRequest);
+    }
+
+}
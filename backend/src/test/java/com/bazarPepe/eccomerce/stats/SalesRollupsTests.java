@@ -0,0 +1,143 @@
+package com.bazarPepe.eccomerce.stats;
+
+import com.bazarPepe.eccomerce.entity.Product;
+import com.bazarPepe.eccomerce.enums.OrderStatus;
+import com.bazarPepe.eccomerce.enums.OutboxEventType;
+import com.bazarPepe.eccomerce.outbox.OutboxMessage;
+import com.bazarPepe.eccomerce.repository.CategoryRepository;
+import com.bazarPepe.eccomerce.repository.OutboxEventRepository;
+import com.bazarPepe.eccomerce.repository.ProductRepository;
+import com.bazarPepe.eccomerce.repository.UserRepository;
+import com.bazarPepe.eccomerce.service.OrderFixtures;
+import com.bazarPepe.eccomerce.service.interfaces.OrderItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+//LOS ACUMULADOS QUE SALEN DE LOS EVENTOS (AUNQUE LLEGUEN REPETIDOS) TIENEN QUE COINCIDIR CON LOS QUE SE RECALCULAN
+//DESDE order_items. EL RELAY VA PARADO PARA DECIDIR AQUI QUE EVENTOS SE ENTREGAN Y CUANDO
+@SpringBootTest(properties = "outbox.relay.enabled=false")
+class SalesRollupsTests {
+
+    private static final String PRODUCT_ROWS =
+            "select status,units,revenue,item_count from sales_rollups " +
+            "where dimension='PRODUCT' and dimension_id=? and sales_day=? order by status";
+
+    @Autowired
+    private SalesRollups salesRollups;
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private OrderFixtures fixtures;
+    private Product product;
+    private LocalDateTime startedAt;
+
+    @BeforeEach
+    void createCatalogAndUser() {
+        fixtures = new OrderFixtures(jdbcTemplate, categoryRepository, productRepository, userRepository);
+        fixtures.createCategoryAndUser();
+        product = fixtures.addProduct("producto", "2.50", 100);
+        startedAt = LocalDateTime.now();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.orderIds().forEach(orderId -> jdbcTemplate.update("delete a from sales_rollup_applied_events a " +
+                "join outbox_events e on e.id=a.event_id where e.aggregate_id=?", orderId));
+        jdbcTemplate.update("delete from sales_rollups where dimension='PRODUCT' and dimension_id=?", product.getId());
+        jdbcTemplate.update("delete from sales_rollups where dimension='CATEGORY' and dimension_id=?", fixtures.category().getId());
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void repeatedEventsEndLikeReconciliation() {
+        placeOrder(3, 1, 2);
+        List<Long> orderItemIds = jdbcTemplate.queryForList(
+                "select id from order_items where user_id=? order by quantity", Long.class, fixtures.user().getId());
+        orderItemService.updateOrderItemStatus(orderItemIds.get(0), "SHIPPED");
+        orderItemService.updateOrderItemStatus(orderItemIds.get(1), "CANCELLED");
+
+        List<OutboxMessage> events = ownEvents();
+        assertThat(events).hasSize(3);
+        //EL PRIMER LOTE SE ENTREGA A MEDIAS Y LUEGO ENTERO, COMO CUANDO OTRO SINK FALLA Y EL RELAY LO REPITE
+        salesRollups.apply(events.subList(0, 1));
+        salesRollups.apply(events);
+        salesRollups.apply(events);
+
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> incremental = jdbcTemplate.queryForList(PRODUCT_ROWS, product.getId(), today);
+        assertThat(incremental).extracting(row -> ((Number) row.get("status")).intValue(), row -> ((Number) row.get("units")).longValue())
+                .containsExactly(
+                        tuple(OrderStatus.PENDING.ordinal(), 3L),
+                        tuple(OrderStatus.SHIPPED.ordinal(), 1L),
+                        tuple(OrderStatus.CANCELLED.ordinal(), 2L));
+
+        salesRollups.reconcile(today, today);
+
+        assertThat(jdbcTemplate.queryForList(PRODUCT_ROWS, product.getId(), today)).isEqualTo(incremental);
+    }
+
+    @Test
+    void reconciliationLeavesUnappliedEventsToTheRelay() {
+        placeOrder(4);
+        //EL PEDIDO YA ESTA EN order_items PERO SU EVENTO AUN NO SE HA SUMADO
+        salesRollups.reconcile(LocalDate.now(), LocalDate.now());
+        salesRollups.apply(ownEvents());
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select units from sales_rollups where dimension='CATEGORY' and dimension_id=? and sales_day=? and status=?",
+                Long.class, fixtures.category().getId(), LocalDate.now(), OrderStatus.PENDING.ordinal())).isEqualTo(4L);
+    }
+
+    @Test
+    void eventCommittedAfterAHigherIdIsStillApplied() {
+        placeOrder(1);
+        placeOrder(5);
+        List<OutboxMessage> events = ownEvents();
+        assertThat(events).hasSize(2);
+        //EL PRIMER EVENTO TIENE EL ID MENOR PERO SU TRANSACCION CONFIRMA DESPUES: EL RELAY LO VE EN UN LOTE POSTERIOR
+        salesRollups.apply(events.subList(1, 2));
+        salesRollups.apply(events);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select units from sales_rollups where dimension='PRODUCT' and dimension_id=? and sales_day=? and status=?",
+                Long.class, product.getId(), LocalDate.now(), OrderStatus.PENDING.ordinal())).isEqualTo(6L);
+    }
+
+    private void placeOrder(int... quantities) {
+        fixtures.placeOrder(orderItemService, product, quantities);
+    }
+
+    //LOS EVENTOS DE LOS PEDIDOS DEL TEST QUE AUN NO SE HAN SUMADO
+    private List<OutboxMessage> ownEvents() {
+        List<Long> orderIds = fixtures.orderIds();
+        return outboxEventRepository.findUnpublishedNotInSalesRollups(startedAt,
+                        EnumSet.of(OutboxEventType.ORDER_PLACED, OutboxEventType.ORDER_ITEM_STATUS_CHANGED)).stream()
+                .filter(event -> orderIds.contains(event.getAggregateId()))
+                .map(OutboxMessage::from)
+                .toList();
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.bazarPepe.eccomerce.storage;
+
+import com.bazarPepe.eccomerce.exception.InvalidImageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//SUREFIRE EJECUTA LOS TESTS CON -Xmx256m (VER pom.xml), ASI QUE UNA IMAGEN MAS GRANDE QUE EL HEAP
+//SOLO SE PUEDE GUARDAR SI EL ALMACEN LA COPIA EN STREAMING
+class FileSystemImageStoreTests {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesImageLargerThanTheHeapWithoutBufferingIt() throws Exception {
+        long size = Runtime.getRuntime().maxMemory() + 64L * 1024 * 1024;
+        FileSystemImageStore store = new FileSystemImageStore(root.toString(), Long.MAX_VALUE);
+
+        StoredImage storedImage = store.save(new GeneratedImageStream(size));
+
+        assertThat(storedImage.getSize()).isEqualTo(size);
+        assertThat(storedImage.getContentType()).isEqualTo("image/png");
+        assertThat(Files.size(store.load(storedImage.getHash()).orElseThrow().getFile().toPath())).isEqualTo(size);
+        store.delete(storedImage.getHash());
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws Exception {
+        FileSystemImageStore store = new FileSystemImageStore(root.toString(), 1024);
+        byte[] image = Arrays.copyOf(PNG_HEADER, 100);
+
+        StoredImage first = store.save(new ByteArrayInputStream(image));
+        StoredImage second = store.save(new ByteArrayInputStream(image));
+
+        assertThat(second.getHash()).isEqualTo(first.getHash());
+        try (var files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void rejectsUploadsOverTheLimitAndNonImages() {
+        FileSystemImageStore store = new FileSystemImageStore(root.toString(), 1024);
+
+        assertThatThrownBy(() -> store.save(new GeneratedImageStream(4096)))
+                .isInstanceOf(InvalidImageException.class);
+        assertThatThrownBy(() -> store.save(new ByteArrayInputStream("<html></html>".getBytes())))
+                .isInstanceOf(InvalidImageException.class);
+    }
+
+    //GENERA UNA "IMAGEN" PNG DEL TAMAÑO PEDIDO SIN TENERLA EN MEMORIA
+    private static class GeneratedImageStream extends InputStream {
+
+        private final long size;
+        private long position;
+
+        GeneratedImageStream(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (position >= size) {
+                return -1;
+            }
+            int value = position < PNG_HEADER.length ? PNG_HEADER[(int) position] & 0xFF : (int) (position & 0x7F);
+            position++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= size) {
+                return -1;
+            }
+            int count = (int) Math.min(length, size - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) read();
+            }
+            return count;
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.bazarPepe.eccomerce.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//LAS VARIANTES SE GENERAN CONTRA UN ALMACEN EN DISCO TEMPORAL. UN ALMACEN QUE SE QUEDA ESPERANDO AL LEER LA ORIGINAL
+//PERMITE VER EL SERVICIO CON UN TRABAJO EN MARCHA Y CON LA COLA LLENA
+class ImageDerivativeServiceTests {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ImageDerivativeService service;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void variantsKeepTheProportionAndNeverEnlarge() throws Exception {
+        FileSystemImageStore store = new FileSystemImageStore(root.toString(), 10 * 1024 * 1024);
+        service = new ImageDerivativeService(store, meterRegistry, 1, 10);
+        String wide = store.save(new ByteArrayInputStream(png(2000, 1000))).getHash();
+        String small = store.save(new ByteArrayInputStream(png(100, 50))).getHash();
+
+        service.scheduleDerivatives(wide);
+        service.scheduleDerivatives(small);
+        awaitDone(wide);
+        awaitDone(small);
+
+        assertThat(size(store.loadVariant(wide, ImageVariant.THUMB))).containsExactly(160, 80);
+        assertThat(size(store.loadVariant(wide, ImageVariant.CARD))).containsExactly(480, 240);
+        assertThat(size(store.loadVariant(wide, ImageVariant.DETAIL))).containsExactly(1200, 600);
+        for (ImageVariant variant : ImageVariant.values()) {
+            assertThat(size(store.loadVariant(small, variant))).containsExactly(100, 50);
+        }
+    }
+
+    @Test
+    void onlyTheOriginalExistsWhileTheVariantsArePending() throws Exception {
+        FileSystemImageStore store = blockingStore();
+        service = new ImageDerivativeService(store, meterRegistry, 1, 10);
+        String hash = store.save(new ByteArrayInputStream(png(800, 600))).getHash();
+
+        service.scheduleDerivatives(hash);
+        //PEDIR OTRA VEZ LA VARIANTE MIENTRAS SE GENERA NO ENCOLA UN SEGUNDO TRABAJO
+        service.scheduleDerivatives(hash);
+
+        //LO QUE VE ProductService AL PEDIR UNA VARIANTE: NO EXISTE, ASI QUE SIRVE LA ORIGINAL
+        assertThat(service.isPending(hash)).isTrue();
+        assertThat(store.loadVariant(hash, ImageVariant.CARD)).isEmpty();
+        assertThat(store.load(hash)).isPresent();
+
+        release.countDown();
+        awaitDone(hash);
+
+        assertThat(size(store.loadVariant(hash, ImageVariant.CARD))).containsExactly(480, 360);
+        assertThat(meterRegistry.counter("image.derivatives.generated").count()).isEqualTo(ImageVariant.values().length);
+    }
+
+    @Test
+    void rejectsImagesWhenTheQueueIsFull() throws Exception {
+        FileSystemImageStore store = blockingStore();
+        service = new ImageDerivativeService(store, meterRegistry, 1, 1);
+        String running = store.save(new ByteArrayInputStream(png(10, 10))).getHash();
+        String queued = store.save(new ByteArrayInputStream(png(20, 10))).getHash();
+        String rejected = store.save(new ByteArrayInputStream(png(30, 10))).getHash();
+
+        service.scheduleDerivatives(running);
+        awaitStarted();
+        service.scheduleDerivatives(queued);
+        service.scheduleDerivatives(rejected);
+
+        assertThat(service.isPending(queued)).isTrue();
+        assertThat(service.isPending(rejected)).isFalse();
+        assertThat(meterRegistry.counter("image.derivatives.rejected").count()).isEqualTo(1);
+
+        //CON LA COLA LIBRE, LA SIGUIENTE PETICION DE LA VARIANTE LA VUELVE A ENCOLAR
+        release.countDown();
+        awaitDone(running);
+        awaitDone(queued);
+        service.scheduleDerivatives(rejected);
+        awaitDone(rejected);
+        assertThat(store.variantExists(rejected, ImageVariant.THUMB)).isTrue();
+    }
+
+    //EN LOS HILOS DEL SERVICIO LA LECTURA DE LA ORIGINAL ESPERA A release; EN EL DEL TEST NO
+    private FileSystemImageStore blockingStore() {
+        return new FileSystemImageStore(root.toString(), 10 * 1024 * 1024) {
+            @Override
+            public Optional<Resource> load(String hash) {
+                if (Thread.currentThread().getName().startsWith("image-derivatives-")) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.load(hash);
+            }
+        };
+    }
+
+    //EL PRIMER TRABAJO YA HA SALIDO DE LA COLA Y ESTA ESPERANDO EN load
+    private void awaitStarted() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("image.derivatives.active").gauge().value() < 1) {
+            assertThat(System.nanoTime()).as("el trabajo no ha empezado").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitDone(String hash) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.isPending(hash)) {
+            assertThat(System.nanoTime()).as("las variantes no se han generado").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static int[] size(Optional<Resource> variant) throws IOException {
+        try (InputStream input = variant.orElseThrow().getInputStream()) {
+            BufferedImage image = ImageIO.read(input);
+            return new int[]{image.getWidth(), image.getHeight()};
+        }
+    }
+
+}
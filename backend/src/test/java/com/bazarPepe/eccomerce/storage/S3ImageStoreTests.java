@@ -0,0 +1,172 @@
+package com.bazarPepe.eccomerce.storage;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//EL ALMACEN S3 CONTRA UN BUCKET EN MEMORIA: NO HACE FALTA RED NI CREDENCIALES
+class S3ImageStoreTests {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+    private static final String BUCKET = "imagenes";
+
+    @TempDir
+    Path tempDir;
+
+    private final InMemoryS3 s3 = new InMemoryS3();
+
+    @Test
+    void identicalUploadsAreUploadedOnce() throws Exception {
+        S3ImageStore store = new S3ImageStore(s3, BUCKET, tempDir, 1024);
+        byte[] image = Arrays.copyOf(PNG_HEADER, 100);
+
+        StoredImage first = store.save(new ByteArrayInputStream(image));
+        StoredImage second = store.save(new ByteArrayInputStream(image));
+
+        assertThat(second.getHash()).isEqualTo(first.getHash());
+        assertThat(s3.puts).isEqualTo(1);
+        try (InputStream stored = store.load(first.getHash()).orElseThrow().getInputStream()) {
+            assertThat(stored.readAllBytes()).isEqualTo(image);
+        }
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void deleteRemovesTheImageAndItsVariants() throws Exception {
+        S3ImageStore store = new S3ImageStore(s3, BUCKET, tempDir, 1024);
+        StoredImage storedImage = store.save(new ByteArrayInputStream(Arrays.copyOf(PNG_HEADER, 100)));
+        for (ImageVariant variant : ImageVariant.values()) {
+            store.saveVariant(storedImage.getHash(), variant, new byte[]{1, 2, 3});
+        }
+
+        store.delete(storedImage.getHash());
+
+        assertThat(store.exists(storedImage.getHash())).isFalse();
+        assertThat(s3.objects).isEmpty();
+    }
+
+    @Test
+    void uploadsAgainAnImageRemovedBeforeItIsStored() throws Exception {
+        S3ImageStore store = new S3ImageStore(s3, BUCKET, tempDir, 1024);
+        byte[] image = Arrays.copyOf(PNG_HEADER, 100);
+        StoredImage first = store.save(new ByteArrayInputStream(image));
+
+        //EL BARRIDO DE IMAGENES SIN USO LA BORRA JUSTO CUANDO SE VUELVE A SUBIR
+        StoredImage second = store.save(new ByteArrayInputStream(image), store::delete);
+
+        assertThat(second.getHash()).isEqualTo(first.getHash());
+        assertThat(store.exists(second.getHash())).isTrue();
+        assertThat(s3.puts).isEqualTo(2);
+    }
+
+    @Test
+    void loadingAnImageIsASingleRequest() throws Exception {
+        S3ImageStore store = new S3ImageStore(s3, BUCKET, tempDir, 1024);
+        byte[] image = Arrays.copyOf(PNG_HEADER, 100);
+        StoredImage storedImage = store.save(new ByteArrayInputStream(image));
+        s3.reads = 0;
+
+        Resource resource = store.load(storedImage.getHash()).orElseThrow();
+
+        assertThat(resource.contentLength()).isEqualTo(image.length);
+        try (InputStream stored = resource.getInputStream()) {
+            assertThat(stored.readAllBytes()).isEqualTo(image);
+        }
+        assertThat(s3.reads).isEqualTo(1);
+    }
+
+    @Test
+    void missingImagesAndVariantsAreEmpty() throws Exception {
+        S3ImageStore store = new S3ImageStore(s3, BUCKET, tempDir, 1024);
+        StoredImage storedImage = store.save(new ByteArrayInputStream(Arrays.copyOf(PNG_HEADER, 100)));
+        String missing = "0".repeat(storedImage.getHash().length());
+
+        assertThat(store.load(missing)).isEmpty();
+        assertThat(store.loadVariant(storedImage.getHash(), ImageVariant.values()[0])).isEmpty();
+    }
+
+    //SOLO LAS OPERACIONES QUE USA S3ImageStore; EL RESTO LANZA UnsupportedOperationException (TAMBIEN
+    //getObjectMetadata: LEER UNA IMAGEN NO PUEDE COSTAR UN HEAD ADEMAS DEL GET)
+    private static class InMemoryS3 extends AbstractAmazonS3 {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private int puts;
+        //PETICIONES DE LECTURA: HEAD (doesObjectExist) Y GET
+        private int reads;
+
+        @Override
+        public boolean doesObjectExist(String bucketName, String objectName) {
+            reads++;
+            return objects.containsKey(bucketName + "/" + objectName);
+        }
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest request) {
+            try {
+                return put(request.getBucketName(), request.getKey(), Files.readAllBytes(request.getFile().toPath()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public PutObjectResult putObject(String bucketName, String key, InputStream input, ObjectMetadata metadata) {
+            try {
+                return put(bucketName, key, input.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public S3Object getObject(String bucketName, String key) {
+            reads++;
+            byte[] data = objects.get(bucketName + "/" + key);
+            if (data == null) {
+                AmazonS3Exception notFound = new AmazonS3Exception("The specified key does not exist.");
+                notFound.setStatusCode(404);
+                notFound.setErrorCode("NoSuchKey");
+                throw notFound;
+            }
+            S3Object object = new S3Object();
+            object.setBucketName(bucketName);
+            object.setKey(key);
+            object.getObjectMetadata().setContentLength(data.length);
+            object.setObjectContent(new ByteArrayInputStream(data));
+            return object;
+        }
+
+        @Override
+        public void deleteObject(String bucketName, String key) {
+            objects.remove(bucketName + "/" + key);
+        }
+
+        private PutObjectResult put(String bucketName, String key, byte[] data) {
+            objects.put(bucketName + "/" + key, data);
+            puts++;
+            return new PutObjectResult();
+        }
+
+    }
+
+}
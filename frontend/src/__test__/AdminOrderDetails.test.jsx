@@ -89,10 +89,10 @@ describe("AdminOrderDetails Component", () => {
 
     const select = await screen.findByRole("combobox");
     act(() => {
-      fireEvent.change(select, { target: { value: "DELIVERED" } });
+      fireEvent.change(select, { target: { value: "SHIPPED" } });
     });
 
-    expect(select.value).toBe("DELIVERED");
+    expect(select.value).toBe("SHIPPED");
   });
 
   it("debería enviar la actualización del estado del pedido", async () => {
@@ -108,7 +108,7 @@ describe("AdminOrderDetails Component", () => {
 
     const select = await screen.findByRole("combobox");
     act(() => {
-      fireEvent.change(select, { target: { value: "DELIVERED" } });
+      fireEvent.change(select, { target: { value: "SHIPPED" } });
     });
 
     const updateButton = screen.getByText("Actualizar Estado");
@@ -117,10 +117,26 @@ describe("AdminOrderDetails Component", () => {
     });
 
     await waitFor(() =>
-      expect(ApiService.updateOrderItemStatus).toHaveBeenCalledWith("1", "DELIVERED")
+      expect(ApiService.updateOrderItemStatus).toHaveBeenCalledWith("1", "SHIPPED")
     );
     expect(await screen.findByText(/se ha actualizado correctamente/i)).toBeInTheDocument();
   });
 
+  it("debería ofrecer solo los estados a los que se puede pasar", async () => {
+    await act(async () => {
+      render(
+        <Router>
+          <AdminOrderDetails />
+        </Router>
+      );
+    });
+
+    const select = await screen.findByRole("combobox");
+    const options = Array.from(select.options).map((option) => option.value);
+
+    expect(options).toEqual(["PENDING", "CONFIRMED", "SHIPPED", "CANCELLED"]);
+    expect(screen.getByText("Actualizar Estado")).toBeDisabled();
+  });
+
   
 });
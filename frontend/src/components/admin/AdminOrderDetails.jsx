@@ -3,8 +3,18 @@ import { useParams } from "react-router-dom"; // HOOK PARA OBTENER PARÁMETROS D
 import '../../style/adminOrderDetails.css'; // ESTILOS PARA LA PÁGINA DE DETALLES DE PEDIDOS
 import ApiService from "../../service/ApiService"; // SERVICIO PARA HACER PETICIONES A LA API
 
-// LISTA DE ESTADOS DISPONIBLES PARA LOS PEDIDOS
-const OrderStatus = ["PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED", "RETURNED"];
+// CAMBIOS DE ESTADO QUE ADMITE EL BACKEND (OrderStatus.canMoveTo). CANCELLED Y RETURNED SON FINALES
+const StatusTransitions = {
+    PENDING: ["CONFIRMED", "SHIPPED", "CANCELLED"],
+    CONFIRMED: ["SHIPPED", "CANCELLED"],
+    SHIPPED: ["DELIVERED", "RETURNED"],
+    DELIVERED: ["RETURNED"],
+    CANCELLED: [],
+    RETURNED: [],
+};
+
+// EL ESTADO ACTUAL Y LOS QUE SE PUEDEN ALCANZAR DESDE EL
+const statusOptions = (status) => [status, ...(StatusTransitions[status] || [])];
 
 const AdminOrderDetails = () => {
     const { itemId } = useParams(); // OBTIENE EL ID DEL ITEM DESDE LA URL
@@ -35,7 +45,11 @@ const AdminOrderDetails = () => {
     // ENVÍA LA ACTUALIZACIÓN DEL ESTADO A LA API
     const handleSubmitStatusChange = async (orderItemId) => {
         try {
-            await ApiService.updateOrderItemStatus(orderItemId, selectedStatus[orderItemId]); // ENVÍA LA ACTUALIZACIÓN A LA API
+            const newStatus = selectedStatus[orderItemId];
+            await ApiService.updateOrderItemStatus(orderItemId, newStatus); // ENVÍA LA ACTUALIZACIÓN A LA API
+            // EL NUEVO ESTADO PASA A SER EL ACTUAL, Y CON EL CAMBIAN LAS OPCIONES DEL DESPLEGABLE
+            setOrderItems(orderItems.map(item => item.id === orderItemId ? { ...item, status: newStatus } : item));
+            setSelectedStatus({ ...selectedStatus, [orderItemId]: undefined });
             setMessage('El estado del producto del pedido se ha actualizado correctamente'); // MUESTRA MENSAJE DE ÉXITO
             setTimeout(() => {
                 setMessage(''); // LIMPIA EL MENSAJE DESPUÉS DE 3 SEGUNDOS
@@ -88,7 +102,7 @@ const AdminOrderDetails = () => {
                         <div>
                             <h2>Información del Producto</h2>
                             <img
-                                src={`data:${orderItem.product.imageType || "image/jpeg"};base64,${orderItem.product.image}`}
+                                src={`${ApiService.BASE_URL}${orderItem.product.imageUrl}`}
                                 alt={orderItem.product.name}
                                 style={{ width: '150px', height: '150px' }}
                             />
@@ -104,13 +118,15 @@ const AdminOrderDetails = () => {
                                 className="status-option"
                                 value={selectedStatus[orderItem.id] || orderItem.status}
                                 onChange={(e) => handleStatusChange(orderItem.id, e.target.value)}>
-                                {/* OPCIONES DE ESTADO */}
-                                {OrderStatus.map(status => (
+                                {/* OPCIONES DE ESTADO: SOLO LAS TRANSICIONES PERMITIDAS */}
+                                {statusOptions(orderItem.status).map(status => (
                                     <option key={status} value={status}>{status}</option>
                                 ))}
                             </select>
+                            {/* SIN CAMBIO ELEGIDO NO HAY NADA QUE ENVIAR */}
                             <button
                                 className="update-status-button"
+                                disabled={!selectedStatus[orderItem.id] || selectedStatus[orderItem.id] === orderItem.status}
                                 onClick={() => handleSubmitStatusChange(orderItem.id)}>
                                 Actualizar Estado
                             </button>
@@ -16,30 +16,40 @@ const AdminOrderPage = () => {
     const [currentPage, setCurrentPage] = useState(1); // PÁGINA ACTUAL
     const [totalPages, setTotalPages] = useState(0); // TOTAL DE PÁGINAS DISPONIBLES
     const [error, setError] = useState(null); // MENSAJES DE ERROR
+    const [nextCursor, setNextCursor] = useState(null); // CURSOR DE LA SIGUIENTE TANDA DE PEDIDOS EN EL SERVIDOR
 
     const itemsPerPage = 4; // NÚMERO DE ELEMENTOS POR PÁGINA
     const navigate = useNavigate(); // HOOK PARA REDIRECCIONAR ENTRE RUTAS
 
-    // USEFFECT PARA CARGAR LOS PEDIDOS CUANDO CAMBIAN searchStatus O currentPage
+    // USEFFECT PARA CARGAR LOS PEDIDOS CUANDO CAMBIA searchStatus
     useEffect(() => {
         fetchOrders();
-    }, [searchStatus, currentPage]);
+    }, [searchStatus]);
+
+    // USEFFECT PARA MOSTRAR LA PÁGINA ACTUAL DE LOS PEDIDOS YA CARGADOS, SIN VOLVER A PEDIRLOS
+    useEffect(() => {
+        const list = statusFilter ? orders.filter(order => order.status === statusFilter) : orders;
+        setFilteredOrders(list.slice((currentPage - 1) * itemsPerPage, currentPage * itemsPerPage));
+    }, [currentPage]);
 
     // FUNCIÓN PARA OBTENER TODOS LOS PEDIDOS O FILTRADOS POR ESTADO
-    const fetchOrders = async () => {
+    // CON cursor SE PIDE LA SIGUIENTE TANDA AL SERVIDOR Y SE AÑADE A LOS PEDIDOS YA CARGADOS
+    const fetchOrders = async (cursor) => {
         try {
             let response;
             if (searchStatus) {
                 // SI HAY UN ESTADO DE BÚSQUEDA, FILTRA POR ESE ESTADO
-                response = await ApiService.getAllOrderItemsByStatus(searchStatus);
+                response = await ApiService.getAllOrderItemsByStatus(searchStatus, cursor);
             } else {
                 // SI NO, OBTIENE TODOS LOS PEDIDOS
-                response = await ApiService.getAllOrders();
+                response = await ApiService.getAllOrders(cursor);
             }
-            const orderList = response.orderItemList || []; // OBTIENE LA LISTA DE PEDIDOS
-            setTotalPages(Math.ceil(orderList.length / itemsPerPage)); // CALCULA EL TOTAL DE PÁGINAS
+            const orderList = cursor ? [...orders, ...(response.orderItemList || [])] : (response.orderItemList || []); // OBTIENE LA LISTA DE PEDIDOS
+            setNextCursor(response.hasNext ? response.nextCursor : null); // GUARDA EL CURSOR SI QUEDAN MÁS PEDIDOS
+            const visible = statusFilter ? orderList.filter(order => order.status === statusFilter) : orderList; // RESPETA EL FILTRO DEL SELECT
+            setTotalPages(Math.ceil(visible.length / itemsPerPage)); // CALCULA EL TOTAL DE PÁGINAS
             setOrders(orderList); // GUARDA TODOS LOS PEDIDOS
-            setFilteredOrders(orderList.slice((currentPage - 1) * itemsPerPage, currentPage * itemsPerPage)); // FILTRA LOS PEDIDOS PARA LA PÁGINA ACTUAL
+            setFilteredOrders(visible.slice((currentPage - 1) * itemsPerPage, currentPage * itemsPerPage)); // FILTRA LOS PEDIDOS PARA LA PÁGINA ACTUAL
         } catch (error) {
             // MANEJA LOS ERRORES
             setError(error.response?.data?.message || error.message || 'No es posible cargar los pedidos');
@@ -123,6 +133,11 @@ const AdminOrderPage = () => {
                 </tbody>
             </table>
 
+            {/* BOTÓN PARA PEDIR AL SERVIDOR LA SIGUIENTE TANDA DE PEDIDOS */}
+            {nextCursor && (
+                <button className="load-more-orders" onClick={() => fetchOrders(nextCursor)}>Cargar más pedidos</button>
+            )}
+
             {/* COMPONENTE DE PAGINACIÓN */}
             <Pagination
                 currentPage={currentPage}
@@ -22,15 +22,15 @@ const EditProduct = () => {
         if (productId) {
             // OBTIENE LOS DETALLES DEL PRODUCTO SI EXISTE UN ID
             ApiService.getProductById(productId).then((response) => {
-                const { name, description, price, categoryId, image } = response.product;
+                const { name, description, price, categoryId, imageUrl } = response.product;
                 setName(name); // ESTABLECE EL NOMBRE DEL PRODUCTO
                 setDescription(description); // ESTABLECE LA DESCRIPCIÓN
                 setPrice(price); // ESTABLECE EL PRECIO
                 setCategoryId(categoryId); // ESTABLECE EL ID DE LA CATEGORÍA
 
                 // GENERA UNA URL PARA MOSTRAR LA IMAGEN EXISTENTE
-                if (image) {
-                    setImageUrl(`data:image/jpeg;base64,${image}`);
+                if (imageUrl) {
+                    setImageUrl(`${ApiService.BASE_URL}${imageUrl}`);
                 }
             });
         }
@@ -1,6 +1,7 @@
 import React from "react";
 import { Link } from "react-router-dom";
 import {useCart} from '../context/CartContext';
+import ApiService from "../../service/ApiService";
 import '../../style/productList.css';
 
 //COMPONENTE PARA RENDERIZAR LA LISTA DE PRODUCTOS
@@ -32,8 +33,9 @@ const ProductList=({products})=>{
                 //ENCUENTRA SI EL PRODUCTO ESTA EN EL CARRITO
                 const cartItem=cart.find(item=>item.id===product.id);
 
-                // Construir la URL Base64
-                const imageUrl = `data:image/jpeg;base64,${product.image}`;
+                // URL DE LA VARIANTE "CARD" DE LA IMAGEN, MAS LIGERA QUE LA ORIGINAL
+                const separator = product.imageUrl?.includes("?") ? "&" : "?";
+                const imageUrl = `${ApiService.BASE_URL}${product.imageUrl}${separator}size=card`;
 
                 return (
                     <div className="product-item" key={index}>
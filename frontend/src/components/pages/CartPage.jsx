@@ -1,4 +1,4 @@
-import React, { useState } from "react";
+import React, { useEffect, useRef, useState } from "react";
 import { useNavigate } from "react-router-dom"; // PARA NAVEGAR ENTRE RUTAS
 import ApiService from "../../service/ApiService"; // SERVICIO PARA INTERACTUAR CON LA API
 import { useCart } from '../context/CartContext'; // HOOK PARA EL CONTEXTO DEL CARRITO
@@ -11,6 +11,13 @@ const CartPage = () => {
     const [message, setMessage] = useState(null);
     // HOOK PARA NAVEGAR ENTRE RUTAS
     const navigate = useNavigate();
+    // IDEMPOTENCY-KEY DEL PEDIDO ACTUAL: LOS REINTENTOS DEL MISMO CARRITO NO CREAN PEDIDOS DUPLICADOS
+    const idempotencyKey = useRef(null);
+
+    // SI CAMBIA EL CARRITO ES OTRO PEDIDO Y NECESITA OTRA CLAVE
+    useEffect(() => {
+        idempotencyKey.current = null;
+    }, [cart]);
 
     // INCREMENTA LA CANTIDAD DE UN PRODUCTO EN EL CARRITO
     const incrementItem = (product) => {
@@ -56,15 +63,20 @@ const CartPage = () => {
 
         try {
             // INTENTA CREAR EL PEDIDO A TRAVÉS DE LA API
-            const response = await ApiService.createOrder(orderRequest);
+            if (!idempotencyKey.current) {
+                idempotencyKey.current = window.crypto?.randomUUID
+                    ? window.crypto.randomUUID()
+                    : `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+            }
+            const response = await ApiService.createOrder(orderRequest, idempotencyKey.current);
             setMessage(response.message);
 
-            // SI EL PEDIDO ES EXITOSO, LIMPIA EL CARRITO
+            // SI EL PEDIDO ES EXITOSO (O HA QUEDADO ACEPTADO EN LA COLA DE PEDIDOS), LIMPIA EL CARRITO
             setTimeout(() => {
                 setMessage('');
             }, 3000);
 
-            if (response.status === 200) {
+            if (response.status === 200 || response.status === 202) {
                 dispatch({ type: 'CLEAR_CART' });
             }
         } catch (error) {
@@ -94,7 +106,7 @@ const CartPage = () => {
                             <li key={item.id}>
                                 {/* IMAGEN DEL PRODUCTO */}
                                 <img
-                                    src={`data:${item.imageType || "image/jpeg"};base64,${item.image}`}
+                                    src={`${ApiService.BASE_URL}${item.imageUrl}`}
                                     alt={item.name}
                                 />
                                 <div>
@@ -142,18 +142,23 @@ export default class ApiService {
     // ENDPOINTS PARA ORDER
     // ----------------------------------
 
-    /** CREAR ORDER */
-    static async createOrder(body){
+    /** CREAR ORDER (CON IDEMPOTENCY-KEY OPCIONAL PARA QUE LOS REINTENTOS NO DUPLIQUEN EL PEDIDO) */
+    static async createOrder(body,idempotencyKey){
+        const headers=this.getHeader();
+        if(idempotencyKey){
+            headers["Idempotency-Key"]=idempotencyKey;
+        }
         const response=await axios.post(`${this.BASE_URL}/order/create`,body,{
-            headers:this.getHeader()
+            headers
         });
         return response.data;
     }
 
-    /** OBTENER TODAS LAS ORDER */
-    static async getAllOrders(){
+    /** OBTENER TODAS LAS ORDER, POR PAGINAS: cursor ES EL nextCursor DE LA RESPUESTA ANTERIOR */
+    static async getAllOrders(cursor){
         const response=await axios.get(`${this.BASE_URL}/order/filter`,{
-            headers:this.getHeader()
+            headers:this.getHeader(),
+            params:{cursor}
         });
         return response.data;
     }
@@ -168,10 +173,10 @@ export default class ApiService {
     }
 
     /** OBTENER ORDER ITEM BY STATUS*/
-    static async getAllOrderItemsByStatus(status){
+    static async getAllOrderItemsByStatus(status,cursor){
         const response=await axios.get(`${this.BASE_URL}/order/filter`,{
             headers:this.getHeader(),
-            params:{status}
+            params:{status,cursor}
         });
         return response.data;
     }